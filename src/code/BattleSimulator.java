@@ -0,0 +1,310 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Tick-based battle simulator for a roster of {@link Dragon}s,
+ * {@link Elf}s and {@link Orc}s.
+ * <p>
+ * Every tick each living creature attacks one other creature in the roster
+ * with its ability ({@link Dragon#tryBreatheFire()},
+ * {@link Elf#tryCastSpell()} or {@link Orc#tryBerserk()}). A dragon or elf
+ * that cannot afford its ability regains some of its resource instead.
+ * </p>
+ * <p>
+ * The roster is split into fixed partitions that are processed on a
+ * {@link ForkJoinPool}. A tick runs in two phases: first every creature's
+ * alive state is recorded, then attacks are resolved. Creatures only attack
+ * if they were alive at the start of the tick, attackers only change their
+ * own resource, and {@link Creature#takeDamage(int)} gives the same result
+ * in any order, so a battle gives identical results for any number of
+ * threads.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class BattleSimulator
+{
+    private static final int  DEFAULT_PARTITION_SIZE = 4096;
+    private static final int  MINIMUM_ROSTER_SIZE    = 2;
+    private static final int  MINIMUM_PARTITION_SIZE = 1;
+    private static final long TARGET_STRIDE          = 7919L;
+    private static final int  FIRE_POWER_REGEN       = Dragon.FIRE_POWER_ACTIVATION;
+    private static final int  MANA_REGEN             = Elf.SPELL_COST;
+
+    private final Creature[]   roster;
+    private final boolean[]    aliveAtTickStart;
+    private final ForkJoinPool pool;
+    private final int          partitionSize;
+
+    private long tick;
+    private long totalDamage;
+
+    /**
+     * Constructs a BattleSimulator over the given roster.
+     *
+     * @param roster      the creatures taking part in the battle
+     * @param parallelism the number of worker threads to use
+     * @throws IllegalArgumentException if the roster has fewer than
+     *                                  {@value MINIMUM_ROSTER_SIZE} creatures
+     */
+    public BattleSimulator(final Creature[] roster,
+                           final int parallelism)
+    {
+        this(roster, parallelism, DEFAULT_PARTITION_SIZE);
+    }
+
+    /**
+     * Constructs a BattleSimulator over the given roster with a specific
+     * partition size.
+     *
+     * @param roster        the creatures taking part in the battle
+     * @param parallelism   the number of worker threads to use
+     * @param partitionSize the number of creatures processed by one task
+     * @throws IllegalArgumentException if the roster has fewer than
+     *                                  {@value MINIMUM_ROSTER_SIZE} creatures
+     *                                  or partitionSize is below
+     *                                  {@value MINIMUM_PARTITION_SIZE}
+     */
+    public BattleSimulator(final Creature[] roster,
+                           final int parallelism,
+                           final int partitionSize)
+    {
+        if (roster == null || roster.length < MINIMUM_ROSTER_SIZE)
+        {
+            throw new IllegalArgumentException("Roster must have at least " +
+                    MINIMUM_ROSTER_SIZE + " creatures");
+        }
+
+        if (partitionSize < MINIMUM_PARTITION_SIZE)
+        {
+            throw new IllegalArgumentException("Partition size must be at least " +
+                    MINIMUM_PARTITION_SIZE);
+        }
+
+        this.roster           = roster.clone();
+        this.aliveAtTickStart = new boolean[roster.length];
+        this.pool             = new ForkJoinPool(parallelism);
+        this.partitionSize    = partitionSize;
+        this.tick             = 0;
+        this.totalDamage      = 0;
+    }
+
+    /**
+     * Runs the given number of ticks.
+     *
+     * @param ticks the number of ticks to run
+     */
+    public void run(final int ticks)
+    {
+        for (int i = 0; i < ticks; i++)
+        {
+            tick();
+        }
+    }
+
+    /**
+     * Runs a single tick: records who is alive, then resolves every attack.
+     *
+     * @return the damage dealt during this tick
+     */
+    public long tick()
+    {
+        final long damage;
+
+        pool.invoke(new SnapshotTask(0, roster.length));
+        damage = pool.invoke(new AttackTask(0, roster.length));
+
+        totalDamage += damage;
+        tick++;
+
+        return damage;
+    }
+
+    /**
+     * Gets the number of ticks run so far.
+     *
+     * @return the current tick
+     */
+    public long getTick()
+    {
+        return tick;
+    }
+
+    /**
+     * Gets the damage dealt over every tick run so far.
+     *
+     * @return the total damage
+     */
+    public long getTotalDamage()
+    {
+        return totalDamage;
+    }
+
+    /**
+     * Shuts down the worker threads.
+     */
+    public void shutdown()
+    {
+        pool.shutdown();
+    }
+
+    /*
+    Picks the creature that attacker attacks this tick; never the attacker
+     */
+    private int targetOf(final int attacker)
+    {
+        final long offset;
+
+        offset = 1 + (tick * TARGET_STRIDE) % (roster.length - 1);
+
+        return (int) ((attacker + offset) % roster.length);
+    }
+
+    /*
+    Uses the attacker's ability, regaining resource when it cannot be used
+    returns the damage dealt
+     */
+    private static int attack(final Creature attacker)
+    {
+        final int damage;
+
+        if (attacker instanceof Dragon)
+        {
+            final Dragon dragon;
+
+            dragon = (Dragon) attacker;
+            damage = dragon.tryBreatheFire();
+
+            if (damage == Creature.ABILITY_FAILED)
+            {
+                dragon.restoreFirePower(FIRE_POWER_REGEN);
+            }
+        }
+        else if (attacker instanceof Elf)
+        {
+            final Elf elf;
+
+            elf    = (Elf) attacker;
+            damage = elf.tryCastSpell();
+
+            if (damage == Creature.ABILITY_FAILED)
+            {
+                elf.restoreMana(MANA_REGEN);
+            }
+        }
+        else if (attacker instanceof Orc)
+        {
+            damage = ((Orc) attacker).tryBerserk();
+        }
+        else
+        {
+            damage = Creature.ABILITY_FAILED;
+        }
+
+        return Math.max(damage, 0);
+    }
+
+    /*
+    Records the alive state of every creature in [from, to)
+     */
+    private final class SnapshotTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        SnapshotTask(final int from,
+                     final int to)
+        {
+            this.from = from;
+            this.to   = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from <= partitionSize)
+            {
+                for (int i = from; i < to; i++)
+                {
+                    aliveAtTickStart[i] = roster[i].isAlive();
+                }
+            }
+            else
+            {
+                final int middle;
+
+                middle = (from + to) >>> 1;
+
+                invokeAll(new SnapshotTask(from, middle),
+                          new SnapshotTask(middle, to));
+            }
+        }
+    }
+
+    /*
+    Resolves the attacks of every creature in [from, to), in index order
+    returns the damage dealt
+     */
+    private final class AttackTask extends RecursiveTask<Long>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        AttackTask(final int from,
+                   final int to)
+        {
+            this.from = from;
+            this.to   = to;
+        }
+
+        @Override
+        protected Long compute()
+        {
+            if (to - from <= partitionSize)
+            {
+                long damage;
+
+                damage = 0;
+
+                for (int i = from; i < to; i++)
+                {
+                    if (aliveAtTickStart[i])
+                    {
+                        final int dealt;
+
+                        dealt = attack(roster[i]);
+
+                        if (dealt > 0)
+                        {
+                            roster[targetOf(i)].takeDamage(dealt);
+                            damage += dealt;
+                        }
+                    }
+                }
+
+                return damage;
+            }
+            else
+            {
+                final int middle;
+                final AttackTask left;
+                final AttackTask right;
+
+                middle = (from + to) >>> 1;
+                left   = new AttackTask(from, middle);
+                right  = new AttackTask(middle, to);
+
+                left.fork();
+
+                return right.compute() + left.join();
+            }
+        }
+    }
+}
@@ -1,8 +1,41 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * Representation of a creature with a name, date of birth, and health.
  * Creatures can take damage and be healed.
  * Creatures can check if they are alive and get their age in years.
  * Creatures can provide their details in a formatted string.
+ * <p>
+ * Health is updated with lock-free compare-and-set loops, so a creature
+ * can be attacked and healed from several threads at once without losing
+ * updates or breaking the health bounds.
+ * </p>
+ * <p>
+ * {@link CreatureListener}s can be attached to be told about every change
+ * to health and to the subclass's ability resource.
+ * </p>
+ * <p>
+ * A creature given a combat seed with {@link #setCombatSeed(long)} rolls
+ * the damage of its abilities: within {@value #DAMAGE_VARIANCE_PERCENT}%
+ * of the base damage, with a {@value #CRITICAL_CHANCE_PERCENT}% chance of
+ * a critical hit for {@value #CRITICAL_MULTIPLIER} times as much. The rolls
+ * follow the same sequence as a {@link java.util.SplittableRandom} made
+ * with the seed, and each creature has its own, so threads rolling for
+ * different creatures never share state and a seeded fight replays bit for
+ * bit. A creature without a seed deals the fixed base damage.
+ * </p>
+ * <p>
+ * Names that many creatures share, such as spawn template names, can be
+ * pooled with {@link #poolName(String)}. A creature constructed with a
+ * pooled name keeps only the name's id; any other name is kept as the
+ * String it was given.
+ * </p>
+ * <p>
+ * A creature may also have a position, used by {@link SpatialGrid} for
+ * area-of-effect targeting. Positions are not synchronized; a creature
+ * that is in a grid should be moved with {@link SpatialGrid#move}.
+ * </p>
  *
  * @author David Martinez,
  *         Daniel Do
@@ -10,16 +43,81 @@
  */
 public class Creature
 {
-    private static final int MIN_HEALTH         = 10;
-    private static final int MAX_HEALTH         = 100;
-    private static final int MIN_DAMAGE_ALLOWED = 0;
-    private static final int MIN_HEAL_ALLOWED   = 20;
-    private static final int CURRENT_YEAR       = 2025;
+    /**
+     * Returned by the non-throwing ability methods, such as
+     * {@link Dragon#tryBreatheFire()}, when the ability cannot be used.
+     */
+    public static final int ABILITY_FAILED = -1;
+
+    /**
+     * Returned by {@link #getNameId()} when the creature's name is not
+     * pooled.
+     */
+    public static final int UNPOOLED_NAME = NamePool.NOT_FOUND;
 
+    static final int MIN_HEALTH         = 10;
+    static final int MAX_HEALTH         = 100;
+    static final int MIN_DAMAGE_ALLOWED = 0;
+    static final int MIN_HEAL_ALLOWED   = 20;
+
+    static final int DAMAGE_VARIANCE_PERCENT = 20;
+    static final int CRITICAL_CHANCE_PERCENT = 10;
+    static final int CRITICAL_MULTIPLIER     = 2;
+
+    // SplittableRandom's default gamma and output mix, so a seeded creature
+    // rolls what new SplittableRandom(seed).nextLong() would
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long MIX_FIRST    = 0xBF58476D1CE4E5B9L;
+    private static final long MIX_SECOND   = 0x94D049BB133111EBL;
+    private static final long LOW_BITS     = 0xFFFFFFFFL;
+    private static final int  PERCENT      = 100;
+
+    // The cached age holds the clock year it was computed for above the age
+    private static final int AGE_BITS = 16;
+    private static final int AGE_MASK = (1 << AGE_BITS) - 1;
+
+    /**
+     * The pool holding the names given to {@link #poolName(String)}.
+     */
+    static final NamePool NAMES = new NamePool();
+
+    // Exactly one is set: the name itself, or the id of a pooled name
     private final String name;
-    private final Date dateOfBirth;
+    private final int    nameId;
+    private final Date   dateOfBirth;
+
+    private static final CreatureListener[] NO_LISTENERS = new CreatureListener[0];
+
+    private static final VarHandle HEALTH;
+    private static final VarHandle ROLL_STATE;
+
+    static
+    {
+        try
+        {
+            HEALTH     = MethodHandles.lookup()
+                    .findVarHandle(Creature.class, "health", int.class);
+            ROLL_STATE = MethodHandles.lookup()
+                    .findVarHandle(Creature.class, "rollState", long.class);
+        }
+        catch (final ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile int health;
 
-    private int health;
+    private volatile CreatureListener[] listeners;
+
+    private double x;
+    private double y;
+
+    // Written without a lock; any value read is a complete, correct age
+    private int cachedAge;
+
+    private volatile long    rollState;
+    private volatile boolean seeded;
 
     /**
      * Constructs a Creature with the specified name, date of birth, and health.
@@ -32,13 +130,31 @@ public class Creature
              final Date dateOfBirth,
              final int health)
     {
-        checkName(name);
+        final int pooledId;
+
+        // Pooled names were checked when they were pooled
+        pooledId = name == null ? UNPOOLED_NAME : NAMES.find(name);
+
+        if (pooledId == UNPOOLED_NAME)
+        {
+            checkName(name);
+            this.name = name;
+        }
+        else
+        {
+            this.name = null;
+        }
+
+        this.nameId = pooledId;
+
         checkBirthDate(dateOfBirth);
         checkHealth(health);
 
-        this.name = name;
         this.dateOfBirth = dateOfBirth;
         this.health = health;
+        this.listeners = NO_LISTENERS;
+        this.x = Double.NaN;
+        this.y = Double.NaN;
     }
 
     /*
@@ -53,16 +169,34 @@ public class Creature
         }
     }
 
+    /**
+     * Adds a name to the name pool, so that creatures constructed with an
+     * equal name from then on keep a shared id instead of their own
+     * String. Pooled names are stored off the heap and are never removed,
+     * so pool only names that many creatures share, such as spawn
+     * templates; creatures with unique names should not be pooled.
+     *
+     * @param name the name to pool
+     * @return the name's id
+     * @throws IllegalArgumentException if name is null or blank, or longer
+     *                                  than {@value NamePool#MAXIMUM_NAME_BYTES}
+     *                                  bytes in UTF-8
+     */
+    public static int poolName(final String name)
+    {
+        return NAMES.intern(name);
+    }
+
     /*
-    Checking the DOB year against the current year. Cannot be set in future
+    Checking the DOB year against the world clock's year. Cannot be set in future
     throws new IllegalArgumentException
      */
-    private void checkBirthDate(final Date dateOfBirth)
+    static void checkBirthDate(final Date dateOfBirth)
     {
 
         final boolean yearCheck;
 
-        yearCheck = dateOfBirth.getYear() > CURRENT_YEAR;
+        yearCheck = dateOfBirth.getYear() > WorldClock.getYear();
 
         if (yearCheck)
         {
@@ -74,7 +208,7 @@ public class Creature
     Checks health against min and max constants, invalid if it falls out of bounds
     throws new IllegalArgumentException
      */
-    private void checkHealth(final int health)
+    static void checkHealth(final int health)
     {
         if (health < MIN_HEALTH || health > MAX_HEALTH)
         {
@@ -110,17 +244,32 @@ public class Creature
      */
     public void takeDamage(final int damageTaken)
     {
+        final long startNanos;
+
+        int current;
+        int updated;
+
         if (damageTaken < MIN_DAMAGE_ALLOWED)
         {
             throw new DamageException("Damage cannot be below " +
                     MIN_DAMAGE_ALLOWED);
         }
 
-        health -= damageTaken;
+        startNanos = CreatureMetrics.start();
+
+        do
+        {
+            current = health;
+            updated = Math.max(current - damageTaken, MIN_HEALTH);
+        }
+        while (!HEALTH.compareAndSet(this, current, updated));
+
+        notifyListeners(CreatureListener.TAKE_DAMAGE, current, updated);
 
-        if (health < MIN_HEALTH)
+        if (CreatureMetrics.ENABLED)
         {
-            health = MIN_HEALTH;
+            CreatureMetrics.record(CreatureListener.TAKE_DAMAGE,
+                                   current - damageTaken < MIN_HEALTH, startNanos);
         }
     }
 
@@ -133,34 +282,284 @@ public class Creature
      */
     public void heal(final int healAmount)
     {
+        final long startNanos;
+
+        int current;
+        int updated;
+
         if (healAmount < MIN_HEAL_ALLOWED)
         {
             throw new HealingException("Cannot heal less than " +
                     MIN_HEAL_ALLOWED);
         }
 
-        health += healAmount;
+        startNanos = CreatureMetrics.start();
+
+        do
+        {
+            current = health;
+            updated = Math.min(current + healAmount, MAX_HEALTH);
+        }
+        while (!HEALTH.compareAndSet(this, current, updated));
+
+        notifyListeners(CreatureListener.HEAL, current, updated);
 
-        if (health > MAX_HEALTH)
+        if (CreatureMetrics.ENABLED)
         {
-            health = MAX_HEALTH;
+            CreatureMetrics.record(CreatureListener.HEAL,
+                                   current + healAmount > MAX_HEALTH, startNanos);
         }
     }
 
     /**
-     * Calculates the creatures age in years based on {@value CURRENT_YEAR}.
+     * Attaches a listener that is told about every later change to this
+     * creature's health and ability resource.
+     *
+     * @param listener the listener to attach
+     * @throws IllegalArgumentException if listener is null
+     */
+    public synchronized void addListener(final CreatureListener listener)
+    {
+        final CreatureListener[] current;
+        final CreatureListener[] updated;
+
+        if (listener == null)
+        {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+
+        current = listeners;
+        updated = new CreatureListener[current.length + 1];
+
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = listener;
+
+        listeners = updated;
+    }
+
+    /**
+     * Detaches a listener attached with {@link #addListener}.
+     *
+     * @param listener the listener to detach
+     * @return true if the listener was attached
+     */
+    public synchronized boolean removeListener(final CreatureListener listener)
+    {
+        final CreatureListener[] current;
+
+        current = listeners;
+
+        for (int i = 0; i < current.length; i++)
+        {
+            if (current[i] == listener)
+            {
+                final CreatureListener[] updated;
+
+                updated = new CreatureListener[current.length - 1];
+
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, updated.length - i);
+
+                listeners = updated;
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /*
+    Tells every attached listener about a change that has been stored;
+    costs one volatile read when no listener is attached
+     */
+    final void notifyListeners(final int action,
+                               final int oldValue,
+                               final int newValue)
+    {
+        final CreatureListener[] current;
+
+        current = listeners;
+
+        for (final CreatureListener listener : current)
+        {
+            listener.creatureChanged(this, action, oldValue, newValue);
+        }
+    }
+
+    /**
+     * Calculates the creatures age in years based on the {@link WorldClock}
+     * year. The age is cached until the clock advances.
      *
      * @return the age of creature; unit: years
      */
     public int getAgeYears()
     {
+        final int year;
+        final int cached;
         final int ageYears;
 
-        ageYears = CURRENT_YEAR - dateOfBirth.getYear();
+        year   = WorldClock.getYear();
+        cached = cachedAge;
+
+        if (cached >>> AGE_BITS == year)
+        {
+            return cached & AGE_MASK;
+        }
+
+        ageYears  = year - dateOfBirth.getYear();
+        cachedAge = year << AGE_BITS | ageYears;
 
         return ageYears;
     }
 
+    /**
+     * Gets creature's name. A pooled name is decoded into a new String on
+     * each call.
+     *
+     * @return name.
+     */
+    public String getName()
+    {
+        return name != null ? name : NAMES.get(nameId);
+    }
+
+    /**
+     * Gets the id of the creature's name in the name pool. Creatures with
+     * equal pooled names have equal ids.
+     *
+     * @return name id, or {@value #UNPOOLED_NAME} if the name is not
+     *         pooled.
+     */
+    public int getNameId()
+    {
+        return nameId;
+    }
+
+    /**
+     * Gets creature's date of birth.
+     *
+     * @return date of birth.
+     */
+    public Date getDateOfBirth()
+    {
+        return dateOfBirth;
+    }
+
+    /**
+     * Checks if the creature has been given a position.
+     *
+     * @return true if {@link #setPosition} has been called
+     */
+    public boolean hasPosition()
+    {
+        return !Double.isNaN(x);
+    }
+
+    /**
+     * Gets the creature's x coordinate.
+     *
+     * @return x, or NaN if the creature has no position
+     */
+    public double getX()
+    {
+        return x;
+    }
+
+    /**
+     * Gets the creature's y coordinate.
+     *
+     * @return y, or NaN if the creature has no position
+     */
+    public double getY()
+    {
+        return y;
+    }
+
+    /**
+     * Places the creature at a position.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @throws IllegalArgumentException if either coordinate is not finite
+     */
+    public void setPosition(final double x,
+                            final double y)
+    {
+        if (!Double.isFinite(x) || !Double.isFinite(y))
+        {
+            throw new IllegalArgumentException("Position must be finite");
+        }
+
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Gives the creature its own seeded damage rolls, starting again from
+     * the beginning of the seed's sequence. To make a whole world
+     * reproducible, seed each creature with the next long from one
+     * {@link java.util.SplittableRandom} built from the world's seed.
+     *
+     * @param seed the seed
+     */
+    public void setCombatSeed(final long seed)
+    {
+        rollState = seed;
+        seeded    = true;
+    }
+
+    /**
+     * Checks if the creature rolls its damage.
+     *
+     * @return true if {@link #setCombatSeed(long)} has been called
+     */
+    public boolean hasCombatSeed()
+    {
+        return seeded;
+    }
+
+    /*
+    The damage an ability deals: the base damage unless the creature is
+    seeded, in which case it is rolled for variance and critical hits
+     */
+    final int rollDamage(final int baseDamage)
+    {
+        final long bits;
+        final int spread;
+        final int damage;
+
+        if (!seeded)
+        {
+            return baseDamage;
+        }
+
+        bits   = mix((long) ROLL_STATE.getAndAdd(this, GOLDEN_GAMMA) + GOLDEN_GAMMA);
+        spread = baseDamage * DAMAGE_VARIANCE_PERCENT / PERCENT;
+
+        // High bits pick the variance and low bits the critical hit, each
+        // scaled to its range by a multiply and shift instead of a division
+        damage = baseDamage - spread +
+                 (int) (((bits >>> Integer.SIZE) * (2L * spread + 1)) >>> Integer.SIZE);
+
+        if (((bits & LOW_BITS) * PERCENT) >>> Integer.SIZE < CRITICAL_CHANCE_PERCENT)
+        {
+            return damage * CRITICAL_MULTIPLIER;
+        }
+
+        return damage;
+    }
+
+    private static long mix(final long seed)
+    {
+        long z;
+
+        z = (seed ^ (seed >>> 30)) * MIX_FIRST;
+        z = (z ^ (z >>> 27)) * MIX_SECOND;
+
+        return z ^ (z >>> 31);
+    }
+
     /**
      * Gets creature's current health.
      *
@@ -184,18 +583,37 @@ public class Creature
      */
     public String getDetails()
     {
-        final int age;
-        final StringBuilder messageBuilder;
+        return appendDetails(new StringBuilder()).toString();
+    }
 
-        messageBuilder = new StringBuilder();
+    /**
+     * Appends the creature's details to the given builder, in the same
+     * format as {@link #getDetails()}, without creating any intermediate
+     * strings. Subclasses add their own details after calling this method.
+     * Callers rendering many creatures can reuse one builder.
+     *
+     * @param messageBuilder the builder to append to
+     * @return the same builder
+     */
+    public StringBuilder appendDetails(final StringBuilder messageBuilder)
+    {
+        final int age;
 
         age = getAgeYears();
 
         messageBuilder.append("Name: ");
-        messageBuilder.append(name);
+        if (name != null)
+        {
+            messageBuilder.append(name);
+        }
+        else
+        {
+            NAMES.appendTo(nameId, messageBuilder);
+        }
+
         messageBuilder.append("\n");
         messageBuilder.append("Date of birth: ");
-        messageBuilder.append(dateOfBirth.getYYYYMMDD());
+        dateOfBirth.appendYYYYMMDD(messageBuilder);
         messageBuilder.append("\n");
         messageBuilder.append("Age: ");
         messageBuilder.append(age);
@@ -204,6 +622,6 @@ public class Creature
         messageBuilder.append(health);
         messageBuilder.append("\n");
 
-        return messageBuilder.toString();
+        return messageBuilder;
     }
 }
@@ -0,0 +1,469 @@
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs creatures as actors: each creature takes turns on its own, and
+ * creatures attack each other only by sending damage to a bounded mailbox.
+ * <p>
+ * On each turn an actor first takes the damage waiting in its mailbox,
+ * then, if still alive, uses its ability. A Dragon breathes fire until it
+ * runs low and then restores fire power. An Elf casts spells until it runs
+ * out of mana and then restores mana. An Orc goes berserk. A successful
+ * ability sends its damage to another actor. If the target's mailbox is
+ * full the attack is dropped, so a slow actor never blocks the others and
+ * no shared field is written by more than its owner.
+ * </p>
+ * <p>
+ * Actors can be scheduled in three ways:
+ * <ul>
+ *     <li>{@link #virtualThreads(int)}: one virtual thread per actor,
+ *     running the actor's turns in a loop. This needs a Java runtime that
+ *     has virtual threads; see {@link #isVirtualThreadAvailable()}.</li>
+ *     <li>{@link #platformThreads(int)}: one platform thread per actor,
+ *     the same loop, for comparison. Limited to a few thousand actors.</li>
+ *     <li>{@link #pooled(int, int)}: every turn is a short task on a
+ *     {@link ForkJoinPool}, and it schedules the actor's next turn when it
+ *     finishes. This scales to millions of actors on any Java version.</li>
+ * </ul>
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class CreatureActorSystem implements AutoCloseable
+{
+    public static final int DEFAULT_MAILBOX_CAPACITY = 16;
+
+    private static final int    MINIMUM_MAILBOX_CAPACITY = 1;
+    private static final int    TARGET_STRIDE            = 7919;
+    private static final String VIRTUAL_EXECUTOR_METHOD  = "newVirtualThreadPerTaskExecutor";
+
+    private final ExecutorService     executor;
+    private final boolean             threadPerActor;
+    private final int                 mailboxCapacity;
+    private final List<CreatureActor> actors;
+    private final LongAdder           attacksSent;
+    private final LongAdder           attacksDropped;
+
+    private CountDownLatch finished;
+
+    private CreatureActorSystem(final ExecutorService executor,
+                                final boolean threadPerActor,
+                                final int mailboxCapacity)
+    {
+        if (mailboxCapacity < MINIMUM_MAILBOX_CAPACITY)
+        {
+            executor.shutdown();
+            throw new IllegalArgumentException("Mailbox capacity must be at least " +
+                    MINIMUM_MAILBOX_CAPACITY);
+        }
+
+        this.executor        = executor;
+        this.threadPerActor  = threadPerActor;
+        this.mailboxCapacity = mailboxCapacity;
+        this.actors          = new ArrayList<>();
+        this.attacksSent     = new LongAdder();
+        this.attacksDropped  = new LongAdder();
+    }
+
+    /**
+     * Checks if this Java runtime can run one virtual thread per actor.
+     *
+     * @return true if virtual threads are available
+     */
+    public static boolean isVirtualThreadAvailable()
+    {
+        try
+        {
+            Executors.class.getMethod(VIRTUAL_EXECUTOR_METHOD);
+            return true;
+        }
+        catch (final NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a system that runs each actor on its own virtual thread.
+     *
+     * @param mailboxCapacity the most attacks each mailbox can hold
+     * @return the new system
+     * @throws UnsupportedOperationException if virtual threads are not
+     *                                       available
+     */
+    public static CreatureActorSystem virtualThreads(final int mailboxCapacity)
+    {
+        final ExecutorService executor;
+
+        try
+        {
+            executor = (ExecutorService) Executors.class
+                    .getMethod(VIRTUAL_EXECUTOR_METHOD)
+                    .invoke(null);
+        }
+        catch (final NoSuchMethodException |
+                     IllegalAccessException |
+                     InvocationTargetException e)
+        {
+            throw new UnsupportedOperationException("Virtual threads need a newer Java runtime", e);
+        }
+
+        return new CreatureActorSystem(executor, true, mailboxCapacity);
+    }
+
+    /**
+     * Creates a system that runs each actor on its own platform thread.
+     *
+     * @param mailboxCapacity the most attacks each mailbox can hold
+     * @return the new system
+     */
+    public static CreatureActorSystem platformThreads(final int mailboxCapacity)
+    {
+        return new CreatureActorSystem(Executors.newCachedThreadPool(), true, mailboxCapacity);
+    }
+
+    /**
+     * Creates a system that runs every actor's turns as tasks on a shared
+     * pool.
+     *
+     * @param threads         the number of pool threads
+     * @param mailboxCapacity the most attacks each mailbox can hold
+     * @return the new system
+     */
+    public static CreatureActorSystem pooled(final int threads,
+                                             final int mailboxCapacity)
+    {
+        return new CreatureActorSystem(new ForkJoinPool(threads), false, mailboxCapacity);
+    }
+
+    /**
+     * Adds a creature as an actor. Actors must all be spawned before
+     * {@link #start(int)}.
+     *
+     * @param creature the Dragon, Elf or Orc to run
+     * @return the new actor
+     * @throws IllegalStateException if the system has started
+     */
+    public CreatureActor spawn(final Creature creature)
+    {
+        final CreatureActor actor;
+
+        if (finished != null)
+        {
+            throw new IllegalStateException("Cannot spawn after the system has started");
+        }
+
+        actor = new CreatureActor(creature, actors.size(), mailboxCapacity);
+        actors.add(actor);
+
+        return actor;
+    }
+
+    /**
+     * Starts every actor. Each takes the given number of turns and stops.
+     *
+     * @param turns the number of turns per actor
+     * @throws IllegalStateException if the system has already started
+     */
+    public void start(final int turns)
+    {
+        if (finished != null)
+        {
+            throw new IllegalStateException("The system has already started");
+        }
+
+        finished = new CountDownLatch(actors.size());
+
+        for (final CreatureActor actor : actors)
+        {
+            if (threadPerActor)
+            {
+                executor.execute(() ->
+                {
+                    try
+                    {
+                        for (int turn = 0; turn < turns; turn++)
+                        {
+                            actor.takeTurn();
+                        }
+                    }
+                    finally
+                    {
+                        // A turn that throws still ends the actor
+                        finished.countDown();
+                    }
+                });
+            }
+            else
+            {
+                schedule(actor, turns);
+            }
+        }
+    }
+
+    /**
+     * Waits for every actor to take all its turns.
+     *
+     * @param timeout the longest time to wait
+     * @param unit    the unit of timeout
+     * @return true if every actor finished in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitCompletion(final long timeout,
+                                   final TimeUnit unit) throws InterruptedException
+    {
+        return finished != null && finished.await(timeout, unit);
+    }
+
+    /**
+     * Gets the number of attacks delivered to a mailbox.
+     *
+     * @return the number of attacks sent
+     */
+    public long getAttacksSent()
+    {
+        return attacksSent.sum();
+    }
+
+    /**
+     * Gets the number of attacks dropped because a mailbox was full.
+     *
+     * @return the number of attacks dropped
+     */
+    public long getAttacksDropped()
+    {
+        return attacksDropped.sum();
+    }
+
+    /**
+     * Gets the number of spawned actors.
+     *
+     * @return the number of actors
+     */
+    public int size()
+    {
+        return actors.size();
+    }
+
+    /**
+     * Stops the threads behind the system. Actors still running are
+     * interrupted.
+     */
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+
+    /*
+    Runs one pooled turn, then queues the next until none are left
+     */
+    private void schedule(final CreatureActor actor,
+                          final int turnsLeft)
+    {
+        if (turnsLeft == 0)
+        {
+            finished.countDown();
+            return;
+        }
+
+        executor.execute(() ->
+        {
+            boolean last;
+
+            last = true;
+
+            try
+            {
+                actor.takeTurn();
+                last = turnsLeft == 1;
+            }
+            finally
+            {
+                // A turn that throws ends the actor, as the last turn does
+                if (last)
+                {
+                    finished.countDown();
+                }
+            }
+
+            if (!last)
+            {
+                schedule(actor, turnsLeft - 1);
+            }
+        });
+    }
+
+    /**
+     * One creature running as an actor, with its mailbox of incoming
+     * damage. Only the actor's own turns change its creature.
+     */
+    public final class CreatureActor
+    {
+        private final Creature creature;
+        private final int      index;
+        private final int[]    mailbox;
+
+        private int head;
+        private int count;
+        private int turns;
+
+        private CreatureActor(final Creature creature,
+                              final int index,
+                              final int capacity)
+        {
+            this.creature = creature;
+            this.index    = index;
+            this.mailbox  = new int[capacity];
+            this.head     = 0;
+            this.count    = 0;
+            this.turns    = 0;
+        }
+
+        /**
+         * Gets the creature this actor runs.
+         *
+         * @return the creature
+         */
+        public Creature getCreature()
+        {
+            return creature;
+        }
+
+        /**
+         * Gets the number of turns this actor has taken.
+         *
+         * @return the number of turns
+         */
+        public synchronized int getTurns()
+        {
+            return turns;
+        }
+
+        /**
+         * Puts damage in this actor's mailbox, to be taken on its next turn.
+         *
+         * @param damage the damage to deliver
+         * @return false if the mailbox was full and the damage was dropped
+         */
+        public synchronized boolean send(final int damage)
+        {
+            if (count == mailbox.length)
+            {
+                return false;
+            }
+
+            mailbox[(head + count) % mailbox.length] = damage;
+            count++;
+
+            return true;
+        }
+
+        /*
+        Takes every waiting attack, then acts; abilities that fail restore
+        their resource instead
+         */
+        private void takeTurn()
+        {
+            final int damage;
+
+            takeMail();
+
+            if (!creature.isAlive())
+            {
+                return;
+            }
+
+            if (creature instanceof Dragon)
+            {
+                final Dragon dragon;
+
+                dragon = (Dragon) creature;
+                damage = dragon.tryBreatheFire();
+
+                if (damage == Creature.ABILITY_FAILED)
+                {
+                    dragon.restoreFirePower(Dragon.FIRE_POWER_ACTIVATION);
+                }
+            }
+            else if (creature instanceof Elf)
+            {
+                final Elf elf;
+
+                elf    = (Elf) creature;
+                damage = elf.tryCastSpell();
+
+                if (damage == Creature.ABILITY_FAILED)
+                {
+                    elf.restoreMana(Elf.MAXIMUM_MANA);
+                }
+            }
+            else if (creature instanceof Orc)
+            {
+                damage = ((Orc) creature).tryBerserk();
+            }
+            else
+            {
+                damage = Creature.ABILITY_FAILED;
+            }
+
+            if (damage != Creature.ABILITY_FAILED && actors.size() > 1)
+            {
+                if (target().send(damage))
+                {
+                    attacksSent.increment();
+                }
+                else
+                {
+                    attacksDropped.increment();
+                }
+            }
+        }
+
+        private void takeMail()
+        {
+            int total;
+
+            total = 0;
+
+            synchronized (this)
+            {
+                while (count > 0)
+                {
+                    total += mailbox[head];
+                    head   = (head + 1) % mailbox.length;
+                    count--;
+                }
+
+                turns++;
+            }
+
+            if (total > 0)
+            {
+                creature.takeDamage(total);
+            }
+        }
+
+        /*
+        Picks a different actor each turn, never this one
+         */
+        private CreatureActor target()
+        {
+            final int others;
+
+            others = actors.size() - 1;
+
+            return actors.get((index + 1 + (int) ((long) turns * TARGET_STRIDE % others)) %
+                              actors.size());
+        }
+    }
+}
@@ -0,0 +1,342 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An append-only binary log of every change made to a set of creatures,
+ * read back by {@link CreatureEventReplay}.
+ * <p>
+ * {@link #attach(Creature)} gives a creature an id, logs a spawn event
+ * with its type, health and resource, and attaches a
+ * {@link CreatureListener}. After that, every change to its health, fire
+ * power, mana or rage is logged as one {@value #EVENT_SIZE}-byte event:
+ * <ul>
+ *     <li>creature id (int)</li>
+ *     <li>tick (int), set by the caller with {@link #setTick(int)}</li>
+ *     <li>action (short), a {@link CreatureListener} constant or
+ *     {@value #SPAWN} for spawns</li>
+ *     <li>type tag (short)</li>
+ *     <li>value (int): the change in health or resource, or for a spawn
+ *     the starting health in the high 16 bits and the starting resource
+ *     in the low 16 bits, both signed</li>
+ * </ul>
+ * The file starts with an {@value #HEADER_SIZE}-byte header of magic
+ * number and version. All values are big-endian.
+ * </p>
+ * <p>
+ * Events are gathered in direct buffers, one per stripe of threads, and
+ * written to the file in large sequential chunks. Events from different
+ * stripes interleave in the file. They need not be in order, because
+ * values are stored as changes and changes add up the same in any order.
+ * A write error does not reach the creature's caller. The log stops
+ * writing and {@link #close()} throws the error instead.
+ * </p>
+ * <p>
+ * Names and dates of birth never change, so they are not logged. Callers
+ * keep them together with the ids returned by {@link #attach(Creature)}.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class CreatureEventLog implements Closeable
+{
+    public static final int SPAWN = 0;
+
+    static final int MAGIC   = 0x43455654; // "CEVT"
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE         = 8;
+    static final int EVENT_SIZE          = 16;
+    static final int SPAWN_HEALTH_SHIFT  = 16;
+    static final int SPAWN_RESOURCE_MASK = 0xFFFF;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel    channel;
+    private final ByteBuffer[]   stripes;
+    private final int            stripeMask;
+    private final AtomicInteger  nextId;
+    private final List<Recorder> recorders;
+
+    private volatile int         tick;
+    private volatile IOException failure;
+
+    // Guarded by the log's lock
+    private boolean closed;
+
+    /**
+     * Creates or truncates the log file at path.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be opened
+     */
+    public CreatureEventLog(final Path path) throws IOException
+    {
+        final ByteBuffer header;
+        final int stripeCount;
+
+        channel = FileChannel.open(path,
+                                   StandardOpenOption.CREATE,
+                                   StandardOpenOption.WRITE,
+                                   StandardOpenOption.TRUNCATE_EXISTING);
+        header  = ByteBuffer.allocate(HEADER_SIZE);
+
+        header.putInt(MAGIC).putInt(VERSION).flip();
+
+        try
+        {
+            while (header.hasRemaining())
+            {
+                channel.write(header);
+            }
+        }
+        catch (final IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+
+        stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        stripes     = new ByteBuffer[stripeCount];
+        stripeMask  = stripeCount - 1;
+        nextId      = new AtomicInteger();
+        recorders   = new ArrayList<>();
+        tick        = 0;
+        failure     = null;
+        closed      = false;
+
+        for (int i = 0; i < stripeCount; i++)
+        {
+            stripes[i] = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Starts logging a creature: gives it the next id, logs its spawn at
+     * the current tick and attaches a listener for its later changes.
+     * The creature should be attached before other threads change it.
+     *
+     * @param creature the Dragon, Elf or Orc to log
+     * @return the creature's id in this log
+     * @throws IllegalArgumentException if the type is not supported
+     * @throws IllegalStateException    if the log is closed
+     */
+    public synchronized int attach(final Creature creature)
+    {
+        final Recorder recorder;
+
+        if (closed)
+        {
+            throw new IllegalStateException("The log is closed");
+        }
+
+        recorder = new Recorder(creature,
+                                nextId.getAndIncrement(),
+                                CreatureRecordFormat.typeOf(creature));
+
+        creature.addListener(recorder);
+        recorders.add(recorder);
+        append(recorder.id, SPAWN, recorder.type,
+               spawnValue(creature.getCurrentHealth(),
+                          CreatureRecordFormat.resourceOf(creature)));
+
+        return recorder.id;
+    }
+
+    /**
+     * Sets the tick stamped on events logged from now on.
+     *
+     * @param tick the current tick
+     */
+    public void setTick(final int tick)
+    {
+        this.tick = tick;
+    }
+
+    /**
+     * Gets the tick stamped on new events.
+     *
+     * @return the current tick
+     */
+    public int getTick()
+    {
+        return tick;
+    }
+
+    /**
+     * Writes every buffered event to the file.
+     *
+     * @throws IOException if a write has failed
+     */
+    public void flush() throws IOException
+    {
+        for (final ByteBuffer stripe : stripes)
+        {
+            synchronized (stripe)
+            {
+                write(stripe);
+            }
+        }
+
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    /**
+     * Detaches the log from every attached creature, flushes every
+     * buffered event and closes the file. Creatures that change after the
+     * log is closed are no longer logged.
+     *
+     * @throws IOException if a write has failed or the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        synchronized (this)
+        {
+            if (!closed)
+            {
+                closed = true;
+
+                for (final Recorder recorder : recorders)
+                {
+                    recorder.creature.removeListener(recorder);
+                }
+
+                recorders.clear();
+            }
+        }
+
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    /*
+    Adds one event to the calling thread's stripe, writing the stripe out
+    first when it is full
+     */
+    private void append(final int id,
+                        final int action,
+                        final int type,
+                        final int value)
+    {
+        final ByteBuffer stripe;
+
+        stripe = stripes[(int) Thread.currentThread().getId() & stripeMask];
+
+        synchronized (stripe)
+        {
+            if (stripe.remaining() < EVENT_SIZE)
+            {
+                write(stripe);
+            }
+
+            stripe.putInt(id)
+                  .putInt(tick)
+                  .putShort((short) action)
+                  .putShort((short) type)
+                  .putInt(value);
+        }
+    }
+
+    /*
+    Packs a spawn's health and resource into one event value, each as a
+    signed 16-bit half, so a negative resource cannot spill into the health
+     */
+    static int spawnValue(final int health,
+                          final int resource)
+    {
+        return health << SPAWN_HEALTH_SHIFT | resource & SPAWN_RESOURCE_MASK;
+    }
+
+    /*
+    The health packed into a spawn event value
+     */
+    static int spawnHealth(final int value)
+    {
+        return value >> SPAWN_HEALTH_SHIFT;
+    }
+
+    /*
+    The resource packed into a spawn event value, sign-extended
+     */
+    static int spawnResource(final int value)
+    {
+        return (short) value;
+    }
+
+    /*
+    Writes out and clears one stripe; the caller holds its lock. After a
+    failure, or once the file is closed, events are dropped
+     */
+    private void write(final ByteBuffer stripe)
+    {
+        stripe.flip();
+
+        try
+        {
+            if (failure == null && channel.isOpen())
+            {
+                while (stripe.hasRemaining())
+                {
+                    channel.write(stripe);
+                }
+            }
+        }
+        catch (final IOException e)
+        {
+            failure = e;
+        }
+        finally
+        {
+            stripe.clear();
+        }
+    }
+
+    /*
+    Logs the changes of one attached creature
+     */
+    private final class Recorder implements CreatureListener
+    {
+        private final Creature creature;
+        private final int      id;
+        private final int      type;
+
+        private Recorder(final Creature creature,
+                         final int id,
+                         final int type)
+        {
+            this.creature = creature;
+            this.id       = id;
+            this.type     = type;
+        }
+
+        @Override
+        public void creatureChanged(final Creature creature,
+                                    final int action,
+                                    final int oldValue,
+                                    final int newValue)
+        {
+            if (oldValue != newValue)
+            {
+                append(id, action, type, newValue - oldValue);
+            }
+        }
+    }
+}
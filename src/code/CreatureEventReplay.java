@@ -0,0 +1,279 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The state of every creature in a {@link CreatureEventLog} file, rebuilt
+ * as of a chosen tick.
+ * <p>
+ * Replay reads the file once, sequentially, through one large direct
+ * buffer. Each event at or before the tick adds its change to the
+ * creature's health or resource in plain int arrays indexed by creature
+ * id, so no objects are created per event.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class CreatureEventReplay
+{
+    private static final int NOT_SPAWNED      = 0;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int BUFFER_SIZE      =
+            (1 << 20) / CreatureEventLog.EVENT_SIZE * CreatureEventLog.EVENT_SIZE;
+
+    private final int tick;
+
+    private byte[] types;
+    private int[]  health;
+    private int[]  resources;
+    private int    size;
+    private long   events;
+
+    private CreatureEventReplay(final int tick)
+    {
+        this.tick      = tick;
+        this.types     = new byte[INITIAL_CAPACITY];
+        this.health    = new int[INITIAL_CAPACITY];
+        this.resources = new int[INITIAL_CAPACITY];
+        this.size      = 0;
+        this.events    = 0;
+    }
+
+    /**
+     * Rebuilds every creature's health and resource as they were at the
+     * end of a tick.
+     *
+     * @param path the log file
+     * @param tick the last tick to apply
+     * @return the rebuilt state
+     * @throws IOException if the file cannot be read or is not an event log
+     */
+    public static CreatureEventReplay replay(final Path path,
+                                             final int tick) throws IOException
+    {
+        final CreatureEventReplay replay;
+
+        replay = new CreatureEventReplay(tick);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            final ByteBuffer buffer;
+
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.limit(CreatureEventLog.HEADER_SIZE);
+            readFully(channel, buffer);
+
+            if (buffer.getInt(0) != CreatureEventLog.MAGIC ||
+                buffer.getInt(Integer.BYTES) != CreatureEventLog.VERSION)
+            {
+                throw new IOException("Not a supported creature event log: " + path);
+            }
+
+            buffer.clear();
+
+            while (readFully(channel, buffer) > 0)
+            {
+                final int limit;
+
+                limit = buffer.position();
+
+                if (limit % CreatureEventLog.EVENT_SIZE != 0)
+                {
+                    throw new IOException("Event log ends in a partial event");
+                }
+
+                for (int offset = 0; offset < limit; offset += CreatureEventLog.EVENT_SIZE)
+                {
+                    replay.apply(buffer.getInt(offset),
+                                 buffer.getInt(offset + Integer.BYTES),
+                                 buffer.getShort(offset + 2 * Integer.BYTES),
+                                 buffer.getShort(offset + 2 * Integer.BYTES + Short.BYTES),
+                                 buffer.getInt(offset + 3 * Integer.BYTES));
+                }
+
+                buffer.clear();
+            }
+        }
+
+        return replay;
+    }
+
+    /**
+     * Gets the tick this state was rebuilt at.
+     *
+     * @return the last tick applied
+     */
+    public int getTick()
+    {
+        return tick;
+    }
+
+    /**
+     * Gets the number of events applied, spawns included.
+     *
+     * @return the number of events at or before the tick
+     */
+    public long getEventCount()
+    {
+        return events;
+    }
+
+    /**
+     * Gets one more than the highest creature id spawned by the tick.
+     *
+     * @return the number of ids in use
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Checks if a creature had spawned by the tick.
+     *
+     * @param id the creature's id
+     * @return true if its spawn event was at or before the tick
+     */
+    public boolean isSpawned(final int id)
+    {
+        return id >= 0 && id < size && types[id] != NOT_SPAWNED;
+    }
+
+    /**
+     * Gets a creature's type tag.
+     *
+     * @param id the creature's id
+     * @return {@value CreatureStore#TYPE_DRAGON},
+     *         {@value CreatureStore#TYPE_ELF} or
+     *         {@value CreatureStore#TYPE_ORC}
+     * @throws IllegalArgumentException if the creature had not spawned
+     */
+    public int getType(final int id)
+    {
+        checkSpawned(id);
+
+        return types[id];
+    }
+
+    /**
+     * Gets a creature's health at the tick.
+     *
+     * @param id the creature's id
+     * @return its health
+     * @throws IllegalArgumentException if the creature had not spawned
+     */
+    public int getHealth(final int id)
+    {
+        checkSpawned(id);
+
+        return health[id];
+    }
+
+    /**
+     * Gets a creature's fire power, mana or rage at the tick.
+     *
+     * @param id the creature's id
+     * @return its resource
+     * @throws IllegalArgumentException if the creature had not spawned
+     */
+    public int getResource(final int id)
+    {
+        checkSpawned(id);
+
+        return resources[id];
+    }
+
+    /*
+    Adds one event's change, if it happened by the tick
+     */
+    private void apply(final int id,
+                       final int eventTick,
+                       final int action,
+                       final int type,
+                       final int value)
+    {
+        if (eventTick > tick)
+        {
+            return;
+        }
+
+        if (id >= types.length)
+        {
+            grow(id);
+        }
+
+        if (action == CreatureEventLog.SPAWN)
+        {
+            types[id]      = (byte) type;
+            health[id]    += CreatureEventLog.spawnHealth(value);
+            resources[id] += CreatureEventLog.spawnResource(value);
+            size           = Math.max(size, id + 1);
+        }
+        else if (action == CreatureListener.TAKE_DAMAGE || action == CreatureListener.HEAL)
+        {
+            health[id] += value;
+        }
+        else
+        {
+            resources[id] += value;
+        }
+
+        events++;
+    }
+
+    private void grow(final int id)
+    {
+        final int capacity;
+
+        capacity  = Math.max(types.length * 2, id + 1);
+        types     = Arrays.copyOf(types, capacity);
+        health    = Arrays.copyOf(health, capacity);
+        resources = Arrays.copyOf(resources, capacity);
+    }
+
+    /*
+    Reads until the buffer is full or the file ends
+    returns the number of bytes read
+     */
+    private static int readFully(final FileChannel channel,
+                                 final ByteBuffer buffer) throws IOException
+    {
+        int total;
+
+        total = 0;
+
+        while (buffer.hasRemaining())
+        {
+            final int bytes;
+
+            bytes = channel.read(buffer);
+
+            if (bytes < 0)
+            {
+                break;
+            }
+
+            total += bytes;
+        }
+
+        return total;
+    }
+
+    /*
+    Checks that an id belongs to a spawned creature
+    throws new IllegalArgumentException
+     */
+    private void checkSpawned(final int id)
+    {
+        if (!isSpawned(id))
+        {
+            throw new IllegalArgumentException("Creature " + id +
+                    " had not spawned by tick " + tick);
+        }
+    }
+}
@@ -0,0 +1,606 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Streams creatures out of CSV or NDJSON roster files.
+ * <p>
+ * Lines are read in chunks of {@value #CHUNK_SIZE} on the calling thread
+ * and handed to a pool of workers that parse each row, build a
+ * {@link Dragon}, {@link Elf} or {@link Orc} through its constructor, and
+ * pass it to the sink. Only a fixed number of chunks may be in flight at
+ * once, so a slow sink holds back the reader and memory use does not grow
+ * with the file. Rows that cannot be parsed or fail validation are counted
+ * in the {@link ImportReport} instead of stopping the import.
+ * </p>
+ * <p>
+ * Supported row formats:
+ * <ul>
+ *     <li>CSV: {@code type,name,YYYY-MM-DD,health,resource}. The name may
+ *     contain commas. A first line starting with {@code type,} is treated
+ *     as a header.</li>
+ *     <li>NDJSON: one flat object per line with the keys {@code type},
+ *     {@code name}, {@code dateOfBirth}, {@code health} and
+ *     {@code resource}. The first three must be strings and the last two
+ *     numbers; {@code null} is rejected and other keys are ignored.</li>
+ * </ul>
+ * The type is {@code Dragon}, {@code Elf} or {@code Orc} in any case, and
+ * the resource is the creature's fire power, mana or rage. Blank lines are
+ * skipped. Creatures reach the sink from several threads and not
+ * necessarily in file order.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class CreatureImporter
+{
+    public static final int FORMAT_CSV    = 0;
+    public static final int FORMAT_NDJSON = 1;
+
+    private static final int    CHUNK_SIZE        = 4096;
+    private static final int    CHUNKS_PER_WORKER = 2;
+    private static final int    MINIMUM_WORKERS   = 1;
+    private static final int    CSV_TAIL_FIELDS   = 3;
+    private static final String CSV_HEADER_PREFIX = "type,";
+    private static final String TYPE_DRAGON       = "dragon";
+    private static final String TYPE_ELF          = "elf";
+    private static final String TYPE_ORC          = "orc";
+
+    private static final int      JSON_TYPE          = 0;
+    private static final int      JSON_NAME          = 1;
+    private static final int      JSON_DATE_OF_BIRTH = 2;
+    private static final int      JSON_HEALTH        = 3;
+    private static final int      JSON_RESOURCE      = 4;
+    private static final int      JSON_FIRST_NUMBER  = JSON_HEALTH;
+    private static final int      JSON_UNKNOWN_KEY   = -1;
+    private static final String[] JSON_KEYS          = {"type", "name", "dateOfBirth",
+                                                        "health", "resource"};
+
+    private CreatureImporter()
+    {
+    }
+
+    /**
+     * Imports every row of a UTF-8 roster file.
+     *
+     * @param path    the file to read
+     * @param format  {@value #FORMAT_CSV} or {@value #FORMAT_NDJSON}
+     * @param sink    receives each valid creature; must be thread-safe
+     * @param workers the number of parsing threads
+     * @return the accepted and rejected row counts
+     * @throws IOException          if the file cannot be read
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public static ImportReport importFile(final Path path,
+                                          final int format,
+                                          final Consumer<? super Creature> sink,
+                                          final int workers)
+            throws IOException, InterruptedException
+    {
+        try (BufferedReader input = Files.newBufferedReader(path, StandardCharsets.UTF_8))
+        {
+            return importFrom(input, format, sink, workers);
+        }
+    }
+
+    /**
+     * Imports every row from a reader.
+     *
+     * @param input   the rows to read
+     * @param format  {@value #FORMAT_CSV} or {@value #FORMAT_NDJSON}
+     * @param sink    receives each valid creature; must be thread-safe
+     * @param workers the number of parsing threads
+     * @return the accepted and rejected row counts
+     * @throws IOException              if the input cannot be read
+     * @throws InterruptedException     if interrupted while waiting for workers
+     * @throws IllegalArgumentException if format or workers is invalid
+     */
+    public static ImportReport importFrom(final BufferedReader input,
+                                          final int format,
+                                          final Consumer<? super Creature> sink,
+                                          final int workers)
+            throws IOException, InterruptedException
+    {
+        final ExecutorService pool;
+        final Semaphore inFlight;
+        final ImportReport report;
+        final AtomicReference<RuntimeException> sinkFailure;
+
+        String[] lines;
+        long[]   lineNumbers;
+        int      buffered;
+        long     lineNumber;
+        String   line;
+
+        if (format != FORMAT_CSV && format != FORMAT_NDJSON)
+        {
+            throw new IllegalArgumentException("Unknown format: " + format);
+        }
+
+        if (workers < MINIMUM_WORKERS)
+        {
+            throw new IllegalArgumentException("Workers must be at least " +
+                    MINIMUM_WORKERS);
+        }
+
+        pool        = Executors.newFixedThreadPool(workers);
+        inFlight    = new Semaphore(workers * CHUNKS_PER_WORKER);
+        report      = new ImportReport();
+        sinkFailure = new AtomicReference<>();
+        lines       = new String[CHUNK_SIZE];
+        lineNumbers = new long[CHUNK_SIZE];
+        buffered    = 0;
+        lineNumber  = 0;
+
+        try
+        {
+            while ((line = input.readLine()) != null && sinkFailure.get() == null)
+            {
+                lineNumber++;
+
+                if (line.isBlank() ||
+                    (lineNumber == 1 && format == FORMAT_CSV &&
+                     line.regionMatches(true, 0, CSV_HEADER_PREFIX, 0,
+                                        CSV_HEADER_PREFIX.length())))
+                {
+                    continue;
+                }
+
+                lines[buffered]       = line;
+                lineNumbers[buffered] = lineNumber;
+                buffered++;
+
+                if (buffered == CHUNK_SIZE)
+                {
+                    submit(pool, inFlight, lines, lineNumbers, buffered,
+                           format, sink, report, sinkFailure);
+
+                    lines       = new String[CHUNK_SIZE];
+                    lineNumbers = new long[CHUNK_SIZE];
+                    buffered    = 0;
+                }
+            }
+
+            if (buffered > 0)
+            {
+                submit(pool, inFlight, lines, lineNumbers, buffered,
+                       format, sink, report, sinkFailure);
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        if (sinkFailure.get() != null)
+        {
+            throw sinkFailure.get();
+        }
+
+        return report;
+    }
+
+    /**
+     * Parses one CSV row into a creature.
+     *
+     * @param line the row, {@code type,name,YYYY-MM-DD,health,resource}
+     * @return a new Dragon, Elf or Orc
+     * @throws IllegalArgumentException if the row is malformed or invalid
+     */
+    public static Creature parseCsv(final String line)
+    {
+        final int typeEnd;
+        final int[] tailStarts;
+
+        int end;
+
+        typeEnd    = line.indexOf(',');
+        tailStarts = new int[CSV_TAIL_FIELDS];
+        end        = line.length();
+
+        // The last three fields are found from the right so names may
+        // contain commas
+        for (int field = CSV_TAIL_FIELDS - 1; field >= 0; field--)
+        {
+            final int comma;
+
+            comma = line.lastIndexOf(',', end - 1);
+
+            if (comma <= typeEnd)
+            {
+                throw new IllegalArgumentException("Expected 5 comma-separated fields");
+            }
+
+            tailStarts[field] = comma + 1;
+            end               = comma;
+        }
+
+        return create(line.substring(0, typeEnd),
+                      line.substring(typeEnd + 1, end),
+                      line.substring(tailStarts[0], tailStarts[1] - 1),
+                      line.substring(tailStarts[1], tailStarts[2] - 1),
+                      line.substring(tailStarts[2]));
+    }
+
+    /**
+     * Parses one NDJSON row into a creature.
+     *
+     * @param line a flat JSON object with type, name, dateOfBirth, health
+     *             and resource keys
+     * @return a new Dragon, Elf or Orc
+     * @throws IllegalArgumentException if the row is malformed or invalid
+     */
+    public static Creature parseNdjson(final String line)
+    {
+        final String[] fields;
+
+        fields = jsonFields(line);
+
+        for (int field = 0; field < JSON_KEYS.length; field++)
+        {
+            if (fields[field] == null)
+            {
+                throw new IllegalArgumentException("Missing key: " + JSON_KEYS[field]);
+            }
+        }
+
+        return create(fields[JSON_TYPE],
+                      fields[JSON_NAME],
+                      fields[JSON_DATE_OF_BIRTH],
+                      fields[JSON_HEALTH],
+                      fields[JSON_RESOURCE]);
+    }
+
+    /*
+    Waits for room, then parses a chunk of rows on the pool
+     */
+    private static void submit(final ExecutorService pool,
+                               final Semaphore inFlight,
+                               final String[] lines,
+                               final long[] lineNumbers,
+                               final int count,
+                               final int format,
+                               final Consumer<? super Creature> sink,
+                               final ImportReport report,
+                               final AtomicReference<RuntimeException> sinkFailure)
+            throws InterruptedException
+    {
+        inFlight.acquire();
+
+        pool.execute(() ->
+        {
+            try
+            {
+                for (int i = 0; i < count && sinkFailure.get() == null; i++)
+                {
+                    final Creature creature;
+
+                    try
+                    {
+                        if (format == FORMAT_CSV)
+                        {
+                            creature = parseCsv(lines[i]);
+                        }
+                        else
+                        {
+                            creature = parseNdjson(lines[i]);
+                        }
+                    }
+                    catch (final IllegalArgumentException e)
+                    {
+                        report.reject(lineNumbers[i], e.getMessage());
+                        continue;
+                    }
+                    catch (final RuntimeException e)
+                    {
+                        // Any other failure is still this row's fault; letting
+                        // it escape would drop the rest of the chunk unseen
+                        report.reject(lineNumbers[i], e.toString());
+                        continue;
+                    }
+
+                    try
+                    {
+                        sink.accept(creature);
+                        report.accept();
+                    }
+                    catch (final RuntimeException e)
+                    {
+                        sinkFailure.compareAndSet(null, e);
+                    }
+                }
+            }
+            finally
+            {
+                inFlight.release();
+            }
+        });
+    }
+
+    /*
+    Builds a creature from its text fields through the validating constructor
+    throws new IllegalArgumentException
+     */
+    private static Creature create(final String type,
+                                   final String name,
+                                   final String dateOfBirth,
+                                   final String health,
+                                   final String resource)
+    {
+        final Date date;
+        final int healthValue;
+        final int resourceValue;
+        final String typeName;
+
+        date          = Date.parse(dateOfBirth.trim());
+        healthValue   = Integer.parseInt(health.trim());
+        resourceValue = Integer.parseInt(resource.trim());
+        typeName      = type.trim();
+
+        if (typeName.equalsIgnoreCase(TYPE_DRAGON))
+        {
+            return new Dragon(name, date, healthValue, resourceValue);
+        }
+        else if (typeName.equalsIgnoreCase(TYPE_ELF))
+        {
+            return new Elf(name, date, healthValue, resourceValue);
+        }
+        else if (typeName.equalsIgnoreCase(TYPE_ORC))
+        {
+            return new Orc(name, date, healthValue, resourceValue);
+        }
+
+        throw new IllegalArgumentException("Unknown creature type: " + typeName);
+    }
+
+    /*
+    Walks the key/value pairs of a flat JSON object and returns the known
+    fields by position, null where a key is absent. The text fields must be
+    strings and the numeric fields bare numbers; other keys are skipped
+    throws new IllegalArgumentException
+     */
+    private static String[] jsonFields(final String json)
+    {
+        final String[] fields;
+        final StringBuilder text;
+
+        int index;
+
+        fields = new String[JSON_KEYS.length];
+        text   = new StringBuilder();
+        index  = skipWhitespace(json, 0);
+
+        if (index >= json.length() || json.charAt(index) != '{')
+        {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+
+        index = skipWhitespace(json, index + 1);
+
+        if (index < json.length() && json.charAt(index) == '}')
+        {
+            index++;
+        }
+        else
+        {
+            boolean more;
+
+            more = true;
+
+            while (more)
+            {
+                final String key;
+                final String value;
+                final boolean quoted;
+                final int field;
+
+                if (index >= json.length() || json.charAt(index) != '"')
+                {
+                    throw new IllegalArgumentException("Expected a quoted key");
+                }
+
+                text.setLength(0);
+                index = jsonString(json, index + 1, text);
+                key   = text.toString();
+                index = skipWhitespace(json, index);
+
+                if (index >= json.length() || json.charAt(index) != ':')
+                {
+                    throw new IllegalArgumentException("Expected ':' after " + key);
+                }
+
+                index  = skipWhitespace(json, index + 1);
+                quoted = index < json.length() && json.charAt(index) == '"';
+
+                if (quoted)
+                {
+                    text.setLength(0);
+                    index = jsonString(json, index + 1, text);
+                    value = text.toString();
+                }
+                else
+                {
+                    final int start;
+
+                    start = index;
+
+                    while (index < json.length() &&
+                           json.charAt(index) != ',' &&
+                           json.charAt(index) != '}' &&
+                           !Character.isWhitespace(json.charAt(index)))
+                    {
+                        index++;
+                    }
+
+                    value = json.substring(start, index);
+
+                    if (value.isEmpty() || value.charAt(0) == '{' || value.charAt(0) == '[')
+                    {
+                        throw new IllegalArgumentException("Expected a flat value for " + key);
+                    }
+                }
+
+                field = jsonKey(key);
+
+                if (field != JSON_UNKNOWN_KEY)
+                {
+                    if (fields[field] != null)
+                    {
+                        throw new IllegalArgumentException("Duplicate key: " + key);
+                    }
+
+                    if (field < JSON_FIRST_NUMBER && !quoted)
+                    {
+                        throw new IllegalArgumentException("Expected a string for " +
+                                key + " but found " + value);
+                    }
+
+                    if (field >= JSON_FIRST_NUMBER && quoted)
+                    {
+                        throw new IllegalArgumentException("Expected a number for " + key);
+                    }
+
+                    fields[field] = value;
+                }
+
+                index = skipWhitespace(json, index);
+
+                if (index < json.length() && json.charAt(index) == ',')
+                {
+                    index = skipWhitespace(json, index + 1);
+                }
+                else if (index < json.length() && json.charAt(index) == '}')
+                {
+                    index++;
+                    more = false;
+                }
+                else
+                {
+                    throw new IllegalArgumentException("Expected ',' or '}' after " + key);
+                }
+            }
+        }
+
+        if (skipWhitespace(json, index) != json.length())
+        {
+            throw new IllegalArgumentException("Unexpected text after the object");
+        }
+
+        return fields;
+    }
+
+    /*
+    The position of a known key, or JSON_UNKNOWN_KEY for one the importer
+    does not use
+     */
+    private static int jsonKey(final String key)
+    {
+        for (int field = 0; field < JSON_KEYS.length; field++)
+        {
+            if (JSON_KEYS[field].equals(key))
+            {
+                return field;
+            }
+        }
+
+        return JSON_UNKNOWN_KEY;
+    }
+
+    /*
+    Unescapes a JSON string body starting after its opening quote into
+    value and returns the index just past its closing quote
+    throws new IllegalArgumentException
+     */
+    private static int jsonString(final String json,
+                                  final int start,
+                                  final StringBuilder value)
+    {
+        int index;
+
+        index = start;
+
+        while (index < json.length())
+        {
+            final char c;
+
+            c = json.charAt(index);
+
+            if (c == '"')
+            {
+                return index + 1;
+            }
+
+            if (c == '\\' && index + 1 < json.length())
+            {
+                final char escaped;
+
+                index++;
+                escaped = json.charAt(index);
+
+                switch (escaped)
+                {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (index + 4 >= json.length())
+                        {
+                            throw new IllegalArgumentException("Bad unicode escape");
+                        }
+                        value.append((char) Integer.parseInt(json.substring(index + 1, index + 5), 16));
+                        index += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                        break;
+                }
+            }
+            else
+            {
+                value.append(c);
+            }
+
+            index++;
+        }
+
+        throw new IllegalArgumentException("Unterminated string");
+    }
+
+    private static int skipWhitespace(final String text,
+                                      final int from)
+    {
+        int index;
+
+        index = from;
+
+        while (index < text.length() && Character.isWhitespace(text.charAt(index)))
+        {
+            index++;
+        }
+
+        return index;
+    }
+}
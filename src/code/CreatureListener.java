@@ -0,0 +1,42 @@
+/**
+ * Receives a callback each time a {@link Creature}'s health or ability
+ * resource is changed by one of its methods.
+ * <p>
+ * The callback runs on the thread that made the change, right after the
+ * new value was stored, so it should be short. When several threads change
+ * the same creature, callbacks can arrive in a different order than the
+ * changes were made; listeners that need the latest value should read it
+ * from the creature.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public interface CreatureListener
+{
+    int TAKE_DAMAGE        = 1;
+    int HEAL               = 2;
+    int BREATHE_FIRE       = 3;
+    int RESTORE_FIRE_POWER = 4;
+    int CAST_SPELL         = 5;
+    int RESTORE_MANA       = 6;
+    int BERSERK            = 7;
+    int RESTORE_RAGE       = 8;
+
+    /**
+     * Called after a creature's value has changed.
+     * {@link #TAKE_DAMAGE} and {@link #HEAL} report health; the other
+     * actions report the fire power, mana or rage they changed. The old
+     * and new values can be equal when the value was already at a bound.
+     *
+     * @param creature the creature that changed
+     * @param action   the action that changed it
+     * @param oldValue the value before the change
+     * @param newValue the value after the change
+     */
+    void creatureChanged(Creature creature,
+                         int action,
+                         int oldValue,
+                         int newValue);
+}
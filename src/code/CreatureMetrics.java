@@ -0,0 +1,364 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in counters and latency histograms for creature actions, exported
+ * in the Prometheus text format.
+ * <p>
+ * Instrumentation is switched on by starting the JVM with
+ * {@code -Dcreature.metrics=true}. The switch is read once into
+ * {@link #ENABLED}, a static final field, so when it is off the JIT
+ * removes the timing and recording code from the creature methods
+ * entirely.
+ * </p>
+ * <p>
+ * For each action, identified by its {@link CreatureListener} constant,
+ * two outcomes are counted. Either the action did all it was asked, or it
+ * was limited: an ability failed for lack of fire power, mana or rage;
+ * {@link Creature#takeDamage(int)} clamped health to the minimum; or a
+ * heal or restore stopped at the maximum. Every call's latency goes into
+ * a log-linear histogram with {@value #SUB_BUCKETS} sub-buckets per power
+ * of two, so any recorded time is within 12.5% of its true value, in the
+ * style of an HDR histogram. Only a fixed handful of coarser bounds is
+ * exported; see {@link #writePrometheus(Appendable)}.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class CreatureMetrics
+{
+    /**
+     * True when the JVM was started with {@code -Dcreature.metrics=true}.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("creature.metrics");
+
+    public static final String METRICS_PATH = "/metrics";
+
+    private static final int    SUB_BUCKET_BITS   = 3;
+    private static final int    SUB_BUCKETS       = 1 << SUB_BUCKET_BITS;
+    private static final int    MAXIMUM_EXPONENT  = 40;
+    private static final int    LATENCY_BUCKETS   =
+            (MAXIMUM_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    private static final int    ACTION_COUNT      = CreatureListener.RESTORE_RAGE + 1;
+    private static final double NANOS_PER_SECOND  = 1_000_000_000.0;
+    private static final int    HTTP_OK           = 200;
+    private static final int    BACKLOG           = 0;
+
+    // 1-2.5-5 steps from a microsecond to a second; unit: nanoseconds
+    private static final long[] EXPORTED_BOUNDS = {
+            1_000L, 2_500L, 5_000L,
+            10_000L, 25_000L, 50_000L,
+            100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L,
+            10_000_000L, 25_000_000L, 50_000_000L,
+            100_000_000L, 250_000_000L, 500_000_000L,
+            1_000_000_000L
+    };
+
+    private static final String[] ACTION_NAMES = {
+            null,
+            "take_damage",
+            "heal",
+            "breathe_fire",
+            "restore_fire_power",
+            "cast_spell",
+            "restore_mana",
+            "berserk",
+            "restore_rage"
+    };
+
+    private static final String[] LIMITED_OUTCOMES = {
+            null,
+            "clamped",
+            "saturated",
+            "failed",
+            "saturated",
+            "failed",
+            "saturated",
+            "failed",
+            "saturated"
+    };
+
+    private static final LongAdder[]       COMPLETED;
+    private static final LongAdder[]       LIMITED;
+    private static final LongAdder[]       LATENCY_SUM;
+    private static final AtomicLongArray[] LATENCY;
+
+    static
+    {
+        // Nothing is allocated unless metrics are on
+        if (ENABLED)
+        {
+            COMPLETED   = new LongAdder[ACTION_COUNT];
+            LIMITED     = new LongAdder[ACTION_COUNT];
+            LATENCY_SUM = new LongAdder[ACTION_COUNT];
+            LATENCY     = new AtomicLongArray[ACTION_COUNT];
+
+            for (int action = CreatureListener.TAKE_DAMAGE; action < ACTION_COUNT; action++)
+            {
+                COMPLETED[action]   = new LongAdder();
+                LIMITED[action]     = new LongAdder();
+                LATENCY_SUM[action] = new LongAdder();
+                LATENCY[action]     = new AtomicLongArray(LATENCY_BUCKETS);
+            }
+        }
+        else
+        {
+            COMPLETED   = null;
+            LIMITED     = null;
+            LATENCY_SUM = null;
+            LATENCY     = null;
+        }
+    }
+
+    private CreatureMetrics()
+    {
+    }
+
+    /**
+     * Gets the current time to pass to {@link #record}, or 0 when metrics
+     * are off.
+     *
+     * @return the current time; unit: nanoseconds
+     */
+    static long start()
+    {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /*
+    Counts one finished action and its latency; callers check ENABLED first
+     */
+    static void record(final int action,
+                       final boolean limited,
+                       final long startNanos)
+    {
+        final long elapsed;
+
+        elapsed = System.nanoTime() - startNanos;
+
+        if (limited)
+        {
+            LIMITED[action].increment();
+        }
+        else
+        {
+            COMPLETED[action].increment();
+        }
+
+        LATENCY_SUM[action].add(elapsed);
+        LATENCY[action].incrementAndGet(latencyBucket(elapsed));
+    }
+
+    /**
+     * Gets how many times an action did all it was asked.
+     *
+     * @param action a {@link CreatureListener} action constant
+     * @return the count, or 0 when metrics are off
+     */
+    public static long getCompleted(final int action)
+    {
+        return ENABLED ? COMPLETED[checkAction(action)].sum() : 0L;
+    }
+
+    /**
+     * Gets how many times an action failed, clamped or saturated.
+     *
+     * @param action a {@link CreatureListener} action constant
+     * @return the count, or 0 when metrics are off
+     */
+    public static long getLimited(final int action)
+    {
+        return ENABLED ? LIMITED[checkAction(action)].sum() : 0L;
+    }
+
+    /**
+     * Writes every counter and histogram in the Prometheus text format.
+     * Each histogram is exported with a fixed set of {@code le} bounds
+     * from a microsecond to a second, written on every call, empty or not,
+     * so each scrape has the same few series. A bound counts the internal
+     * buckets that lie wholly below it, so a call within 12.5% under a
+     * bound may be counted under the next one. Nothing is written when
+     * metrics are off.
+     *
+     * @param output the destination
+     * @throws IOException if output cannot be written
+     */
+    public static void writePrometheus(final Appendable output) throws IOException
+    {
+        if (!ENABLED)
+        {
+            return;
+        }
+
+        output.append("# HELP creature_actions_total Creature actions by outcome.\n");
+        output.append("# TYPE creature_actions_total counter\n");
+
+        for (int action = CreatureListener.TAKE_DAMAGE; action < ACTION_COUNT; action++)
+        {
+            writeSample(output, "creature_actions_total", action,
+                        "outcome=\"completed\"", COMPLETED[action].sum());
+            writeSample(output, "creature_actions_total", action,
+                        "outcome=\"" + LIMITED_OUTCOMES[action] + "\"",
+                        LIMITED[action].sum());
+        }
+
+        output.append("# HELP creature_action_duration_seconds Creature action latency.\n");
+        output.append("# TYPE creature_action_duration_seconds histogram\n");
+
+        for (int action = CreatureListener.TAKE_DAMAGE; action < ACTION_COUNT; action++)
+        {
+            final AtomicLongArray buckets;
+
+            long cumulative;
+            int  bucket;
+
+            buckets    = LATENCY[action];
+            cumulative = 0;
+
+            bucket     = 0;
+
+            for (final long bound : EXPORTED_BOUNDS)
+            {
+                while (bucket < LATENCY_BUCKETS && bucketUpperBound(bucket) <= bound)
+                {
+                    cumulative += buckets.get(bucket);
+                    bucket++;
+                }
+
+                writeSample(output, "creature_action_duration_seconds_bucket", action,
+                            "le=\"" + bound / NANOS_PER_SECOND + "\"", cumulative);
+            }
+
+            while (bucket < LATENCY_BUCKETS)
+            {
+                cumulative += buckets.get(bucket);
+                bucket++;
+            }
+
+            writeSample(output, "creature_action_duration_seconds_bucket", action,
+                        "le=\"+Inf\"", cumulative);
+            output.append("creature_action_duration_seconds_sum{action=\"")
+                  .append(ACTION_NAMES[action])
+                  .append("\"} ")
+                  .append(Double.toString(LATENCY_SUM[action].sum() / NANOS_PER_SECOND))
+                  .append('\n');
+            writeSample(output, "creature_action_duration_seconds_count", action,
+                        null, cumulative);
+        }
+    }
+
+    /**
+     * Serves {@link #writePrometheus} at {@value #METRICS_PATH} on the
+     * loopback address, for a local Prometheus to scrape.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @return the running server; stop it with {@link HttpServer#stop(int)}
+     * @throws IOException if the port cannot be bound
+     */
+    public static HttpServer startServer(final int port) throws IOException
+    {
+        final HttpServer server;
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                                   BACKLOG);
+
+        server.createContext(METRICS_PATH, exchange ->
+        {
+            final StringBuilder text;
+            final byte[] body;
+
+            text = new StringBuilder();
+            writePrometheus(text);
+            body = text.toString().getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4");
+            exchange.sendResponseHeaders(HTTP_OK, body.length);
+
+            try (OutputStream response = exchange.getResponseBody())
+            {
+                response.write(body);
+            }
+        });
+
+        server.start();
+
+        return server;
+    }
+
+    /*
+    Log-linear bucket: exact below SUB_BUCKETS, then SUB_BUCKETS per power of two
+     */
+    static int latencyBucket(final long nanos)
+    {
+        final int exponent;
+
+        if (nanos < SUB_BUCKETS)
+        {
+            return (int) Math.max(nanos, 0L);
+        }
+
+        exponent = Math.min(63 - Long.numberOfLeadingZeros(nanos), MAXIMUM_EXPONENT);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS +
+               (int) ((nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+    }
+
+    /*
+    The largest value that falls in a bucket; unit: nanoseconds
+     */
+    static long bucketUpperBound(final int bucket)
+    {
+        final int exponent;
+        final long subBucket;
+
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+
+        exponent  = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        subBucket = bucket % SUB_BUCKETS;
+
+        return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private static void writeSample(final Appendable output,
+                                    final String metric,
+                                    final int action,
+                                    final String label,
+                                    final long value) throws IOException
+    {
+        output.append(metric).append("{action=\"").append(ACTION_NAMES[action]).append('"');
+
+        if (label != null)
+        {
+            output.append(',').append(label);
+        }
+
+        output.append("} ").append(Long.toString(value)).append('\n');
+    }
+
+    /*
+    Checks that an action constant is known
+    throws new IllegalArgumentException
+     */
+    private static int checkAction(final int action)
+    {
+        if (action < CreatureListener.TAKE_DAMAGE || action >= ACTION_COUNT)
+        {
+            throw new IllegalArgumentException("Unknown action: " + action);
+        }
+
+        return action;
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.IOException;
+
+/**
+ * Layout of the binary creature snapshot file written by
+ * {@link CreatureRecordWriter} and read by {@link CreatureRecordReader}.
+ * <p>
+ * A file has three regions:
+ * <ul>
+ *     <li>A {@value #HEADER_SIZE}-byte header: magic number, version,
+ *     record count and the file offset of the name region.</li>
+ *     <li>One fixed-width {@value #RECORD_SIZE}-byte record per creature:
+ *     type tag, name offset, packed date of birth, health and resource
+ *     (fire power, mana or rage).</li>
+ *     <li>The name region: each name as an int byte length followed by
+ *     its UTF-8 bytes, in record order. A record's name offset is
+ *     relative to the start of this region.</li>
+ * </ul>
+ * All values are big-endian.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class CreatureRecordFormat
+{
+    static final int MAGIC   = 0x43524541; // "CREA"
+    static final int VERSION = 1;
+
+    static final int MAGIC_POSITION         = 0;
+    static final int VERSION_POSITION       = 4;
+    static final int COUNT_POSITION         = 8;
+    static final int NAMES_OFFSET_POSITION  = 16;
+    static final int HEADER_SIZE            = 24;
+
+    static final int TYPE_POSITION          = 0;
+    static final int NAME_OFFSET_POSITION   = 4;
+    static final int BIRTH_DATE_POSITION    = 8;
+    static final int HEALTH_POSITION        = 12;
+    static final int RESOURCE_POSITION      = 16;
+    static final int RECORD_SIZE            = 20;
+
+    static final int NAME_LENGTH_SIZE       = Integer.BYTES;
+    static final int MAXIMUM_NAME_BYTES     = 0xFFFF;
+    static final int BUFFER_SIZE            = 1 << 20;
+
+    private CreatureRecordFormat()
+    {
+    }
+
+    /**
+     * Gets the type tag stored for a creature.
+     *
+     * @param creature the creature
+     * @return {@link CreatureStore#TYPE_DRAGON}, {@link CreatureStore#TYPE_ELF}
+     *         or {@link CreatureStore#TYPE_ORC}
+     * @throws IllegalArgumentException if the creature is not a Dragon,
+     *                                  Elf or Orc
+     */
+    static byte typeOf(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            return CreatureStore.TYPE_DRAGON;
+        }
+        else if (creature instanceof Elf)
+        {
+            return CreatureStore.TYPE_ELF;
+        }
+        else if (creature instanceof Orc)
+        {
+            return CreatureStore.TYPE_ORC;
+        }
+
+        throw new IllegalArgumentException("Unsupported creature type: " +
+                creature.getClass().getName());
+    }
+
+    /**
+     * Gets the resource stored for a creature: fire power, mana or rage.
+     *
+     * @param creature the creature
+     * @return the resource value
+     * @throws IllegalArgumentException if the creature is not a Dragon,
+     *                                  Elf or Orc
+     */
+    static int resourceOf(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            return ((Dragon) creature).getFirePower();
+        }
+        else if (creature instanceof Elf)
+        {
+            return ((Elf) creature).getMana();
+        }
+        else if (creature instanceof Orc)
+        {
+            return ((Orc) creature).getRage();
+        }
+
+        throw new IllegalArgumentException("Unsupported creature type: " +
+                creature.getClass().getName());
+    }
+
+    /**
+     * Rebuilds a creature from the fields of a record. Every value is
+     * validated against the range the creature can reach at runtime, so a
+     * dragon that has spent its fire power loads again.
+     *
+     * @param type        the type tag
+     * @param name        the name
+     * @param packedDate  the packed date of birth
+     * @param health      the health
+     * @param resource    the fire power, mana or rage
+     * @return a new Dragon, Elf or Orc
+     * @throws IOException if the type tag is unknown
+     */
+    static Creature toCreature(final int type,
+                               final String name,
+                               final int packedDate,
+                               final int health,
+                               final int resource) throws IOException
+    {
+        final Date dateOfBirth;
+
+        dateOfBirth = Date.ofPacked(packedDate);
+
+        switch (type)
+        {
+            case CreatureStore.TYPE_DRAGON:
+                return Dragon.restore(name, dateOfBirth, health, resource);
+            case CreatureStore.TYPE_ELF:
+                return new Elf(name, dateOfBirth, health, resource);
+            case CreatureStore.TYPE_ORC:
+                return new Orc(name, dateOfBirth, health, resource);
+            default:
+                throw new IOException("Unknown creature type tag: " + type);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads creatures back from a binary snapshot file written by
+ * {@link CreatureRecordWriter}.
+ * <p>
+ * Records and names are read in order through two direct buffers that are
+ * refilled from the {@link FileChannel} in large sequential chunks. Each
+ * record is rebuilt into a real {@link Dragon}, {@link Elf} or
+ * {@link Orc} through its constructor, so every invariant is validated
+ * again on load.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class CreatureRecordReader implements Closeable
+{
+    private final FileChannel channel;
+    private final ByteBuffer  records;
+    private final ByteBuffer  names;
+    private final long        count;
+
+    private byte[] nameBytes;
+    private long   recordPosition;
+    private long   namePosition;
+    private long   read;
+
+    /**
+     * Opens a snapshot file and reads its header.
+     *
+     * @param path the file to read
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public CreatureRecordReader(final Path path) throws IOException
+    {
+        final ByteBuffer header;
+
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        header  = ByteBuffer.allocate(CreatureRecordFormat.HEADER_SIZE);
+
+        try
+        {
+            readFully(header, 0);
+
+            if (header.getInt(CreatureRecordFormat.MAGIC_POSITION) != CreatureRecordFormat.MAGIC)
+            {
+                throw new IOException("Not a creature snapshot: " + path);
+            }
+
+            if (header.getInt(CreatureRecordFormat.VERSION_POSITION) != CreatureRecordFormat.VERSION)
+            {
+                throw new IOException("Unsupported snapshot version: " +
+                        header.getInt(CreatureRecordFormat.VERSION_POSITION));
+            }
+        }
+        catch (final IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+
+        count          = header.getLong(CreatureRecordFormat.COUNT_POSITION);
+        records        = ByteBuffer.allocateDirect(CreatureRecordFormat.BUFFER_SIZE);
+        names          = ByteBuffer.allocateDirect(CreatureRecordFormat.BUFFER_SIZE);
+        nameBytes      = new byte[0];
+        recordPosition = CreatureRecordFormat.HEADER_SIZE;
+        namePosition   = header.getLong(CreatureRecordFormat.NAMES_OFFSET_POSITION);
+        read           = 0;
+
+        // Start empty so the first read fills each buffer
+        records.limit(0);
+        names.limit(0);
+    }
+
+    /**
+     * Reads every creature in a snapshot file.
+     *
+     * @param path the file to read
+     * @return the creatures, in the order they were written
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public static List<Creature> readAll(final Path path) throws IOException
+    {
+        try (CreatureRecordReader reader = new CreatureRecordReader(path))
+        {
+            final List<Creature> creatures;
+
+            creatures = new ArrayList<>((int) reader.getCount());
+
+            while (reader.hasNext())
+            {
+                creatures.add(reader.next());
+            }
+
+            return creatures;
+        }
+    }
+
+    /**
+     * Gets the number of creatures in the file.
+     *
+     * @return the number of creatures
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Checks if there are creatures left to read.
+     *
+     * @return true if {@link #next()} will return another creature
+     */
+    public boolean hasNext()
+    {
+        return read < count;
+    }
+
+    /**
+     * Reads and rebuilds the next creature.
+     *
+     * @return the next Dragon, Elf or Orc
+     * @throws IOException              if the file cannot be read or is corrupt
+     * @throws NoSuchElementException   if every creature was already read
+     * @throws IllegalArgumentException if a record breaks a creature invariant
+     */
+    public Creature next() throws IOException
+    {
+        final int type;
+        final int packedDate;
+        final int health;
+        final int resource;
+        final int nameLength;
+        final String name;
+
+        if (!hasNext())
+        {
+            throw new NoSuchElementException("No more creatures in snapshot");
+        }
+
+        recordPosition = fill(records, recordPosition, CreatureRecordFormat.RECORD_SIZE);
+
+        type       = records.getInt();
+        records.getInt(); // name offset; names are read in record order
+        packedDate = records.getInt();
+        health     = records.getInt();
+        resource   = records.getInt();
+
+        namePosition = fill(names, namePosition, CreatureRecordFormat.NAME_LENGTH_SIZE);
+        nameLength   = names.getInt();
+
+        if (nameLength < 0 || nameLength > CreatureRecordFormat.MAXIMUM_NAME_BYTES)
+        {
+            throw new IOException("Corrupt name length: " + nameLength);
+        }
+
+        if (nameBytes.length < nameLength)
+        {
+            nameBytes = new byte[nameLength];
+        }
+
+        namePosition = fill(names, namePosition, nameLength);
+        names.get(nameBytes, 0, nameLength);
+        name = new String(nameBytes, 0, nameLength, StandardCharsets.UTF_8);
+
+        read++;
+
+        return CreatureRecordFormat.toCreature(type, name, packedDate, health, resource);
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    /*
+    Makes sure at least needed bytes are buffered, refilling from position
+    returns the file position just after the buffered bytes
+     */
+    private long fill(final ByteBuffer buffer,
+                      final long position,
+                      final int needed) throws IOException
+    {
+        final long next;
+
+        if (buffer.remaining() >= needed)
+        {
+            return position;
+        }
+
+        buffer.compact();
+        next = position + readAvailable(buffer, position);
+        buffer.flip();
+
+        if (buffer.remaining() < needed)
+        {
+            throw new IOException("Snapshot ends unexpectedly");
+        }
+
+        return next;
+    }
+
+    /*
+    Reads until the buffer is full or the file ends
+    returns the number of bytes read
+     */
+    private int readAvailable(final ByteBuffer buffer,
+                              final long position) throws IOException
+    {
+        int total;
+
+        total = 0;
+
+        while (buffer.hasRemaining())
+        {
+            final int bytes;
+
+            bytes = channel.read(buffer, position + total);
+
+            if (bytes < 0)
+            {
+                break;
+            }
+
+            total += bytes;
+        }
+
+        return total;
+    }
+
+    private void readFully(final ByteBuffer buffer,
+                           final long position) throws IOException
+    {
+        if (readAvailable(buffer, position) < buffer.capacity())
+        {
+            throw new IOException("Snapshot header is truncated");
+        }
+    }
+}
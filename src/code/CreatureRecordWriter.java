@@ -0,0 +1,209 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Writes creatures to a binary snapshot file in the layout described by
+ * {@link CreatureRecordFormat}.
+ * <p>
+ * The number of creatures is given up front so the name region can start
+ * right after the records. Records and names are gathered in two direct
+ * buffers and written to the {@link FileChannel} in large sequential
+ * chunks. The header is written when the writer is closed.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class CreatureRecordWriter implements Closeable
+{
+    private static final int MINIMUM_CAPACITY = 0;
+
+    private final FileChannel channel;
+    private final ByteBuffer  records;
+    private final ByteBuffer  names;
+    private final int         capacity;
+    private final long        namesStart;
+
+    private long recordPosition;
+    private long namePosition;
+    private int  nameOffset;
+    private int  count;
+
+    /**
+     * Creates or truncates the file at path, ready for up to capacity
+     * creatures.
+     *
+     * @param path     the file to write
+     * @param capacity the maximum number of creatures that will be written
+     * @throws IOException              if the file cannot be opened
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public CreatureRecordWriter(final Path path,
+                                final int capacity) throws IOException
+    {
+        if (capacity < MINIMUM_CAPACITY)
+        {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+
+        this.channel = FileChannel.open(path,
+                                        StandardOpenOption.CREATE,
+                                        StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+
+        this.records        = ByteBuffer.allocateDirect(CreatureRecordFormat.BUFFER_SIZE);
+        this.names          = ByteBuffer.allocateDirect(CreatureRecordFormat.BUFFER_SIZE);
+        this.capacity       = capacity;
+        this.namesStart     = CreatureRecordFormat.HEADER_SIZE +
+                              (long) capacity * CreatureRecordFormat.RECORD_SIZE;
+        this.recordPosition = CreatureRecordFormat.HEADER_SIZE;
+        this.namePosition   = namesStart;
+        this.nameOffset     = 0;
+        this.count          = 0;
+    }
+
+    /**
+     * Writes every creature in the collection to a new snapshot file.
+     *
+     * @param path      the file to write
+     * @param creatures the creatures to save
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeAll(final Path path,
+                                final Collection<? extends Creature> creatures)
+            throws IOException
+    {
+        try (CreatureRecordWriter writer = new CreatureRecordWriter(path, creatures.size()))
+        {
+            for (final Creature creature : creatures)
+            {
+                writer.write(creature);
+            }
+        }
+    }
+
+    /**
+     * Appends one creature.
+     *
+     * @param creature the Dragon, Elf or Orc to write
+     * @throws IOException              if the file cannot be written
+     * @throws IllegalArgumentException if the creature is not a Dragon,
+     *                                  Elf or Orc, its name is too long,
+     *                                  or the writer is full
+     */
+    public void write(final Creature creature) throws IOException
+    {
+        final byte[] nameBytes;
+
+        if (count == capacity)
+        {
+            throw new IllegalArgumentException("Writer is full: capacity " + capacity);
+        }
+
+        nameBytes = creature.getName().getBytes(StandardCharsets.UTF_8);
+
+        if (nameBytes.length > CreatureRecordFormat.MAXIMUM_NAME_BYTES)
+        {
+            throw new IllegalArgumentException("Name cannot be longer than " +
+                    CreatureRecordFormat.MAXIMUM_NAME_BYTES + " bytes");
+        }
+
+        if (records.remaining() < CreatureRecordFormat.RECORD_SIZE)
+        {
+            recordPosition = flush(records, recordPosition);
+        }
+
+        records.putInt(CreatureRecordFormat.typeOf(creature));
+        records.putInt(nameOffset);
+        records.putInt(creature.getDateOfBirth().toPackedInt());
+        records.putInt(creature.getCurrentHealth());
+        records.putInt(CreatureRecordFormat.resourceOf(creature));
+
+        if (names.remaining() < CreatureRecordFormat.NAME_LENGTH_SIZE + nameBytes.length)
+        {
+            namePosition = flush(names, namePosition);
+        }
+
+        names.putInt(nameBytes.length);
+        names.put(nameBytes);
+
+        nameOffset += CreatureRecordFormat.NAME_LENGTH_SIZE + nameBytes.length;
+        count++;
+    }
+
+    /**
+     * Gets the number of creatures written so far.
+     *
+     * @return the number of creatures written
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Flushes the buffers, writes the header and closes the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        final ByteBuffer header;
+
+        try
+        {
+            flush(records, recordPosition);
+            flush(names, namePosition);
+
+            header = ByteBuffer.allocate(CreatureRecordFormat.HEADER_SIZE);
+            header.putInt(CreatureRecordFormat.MAGIC_POSITION, CreatureRecordFormat.MAGIC);
+            header.putInt(CreatureRecordFormat.VERSION_POSITION, CreatureRecordFormat.VERSION);
+            header.putLong(CreatureRecordFormat.COUNT_POSITION, count);
+            header.putLong(CreatureRecordFormat.NAMES_OFFSET_POSITION, namesStart);
+
+            writeFully(header, 0);
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    /*
+    Writes the buffer's contents at position and clears it
+    returns the position just after the written bytes
+     */
+    private long flush(final ByteBuffer buffer,
+                       final long position) throws IOException
+    {
+        final long next;
+
+        buffer.flip();
+        next = position + buffer.remaining();
+        writeFully(buffer, position);
+        buffer.clear();
+
+        return next;
+    }
+
+    private void writeFully(final ByteBuffer buffer,
+                            final long position) throws IOException
+    {
+        long at;
+
+        at = position;
+
+        while (buffer.hasRemaining())
+        {
+            at += channel.write(buffer, at);
+        }
+    }
+}
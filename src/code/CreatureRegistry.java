@@ -0,0 +1,441 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A registry of creatures, looked up by name, with secondary indexes on
+ * type, age and health.
+ * <p>
+ * Names are the primary key, so each registered creature must have a
+ * unique name. Creatures are also grouped by type and exact health, and
+ * by year of birth, which does not change when the {@link WorldClock}
+ * advances, so age queries stay right without re-indexing. A query such
+ * as "living orcs with health below 30" copies out the few groups that
+ * match instead of visiting every creature. Each group is a compact
+ * array, so copying it does not touch the creatures themselves.
+ * </p>
+ * <p>
+ * The registry attaches a {@link CreatureListener} to each creature, so
+ * the health index follows {@link Creature#takeDamage(int)} and
+ * {@link Creature#heal(int)} however the creature is reached. Every method
+ * is thread-safe. Queries are weakly consistent: a creature whose health
+ * changes while a query runs may be missed or reported twice.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class CreatureRegistry
+{
+    private static final int TYPE_COUNT       = 3;
+    private static final int HEALTH_VALUES    = Creature.MAX_HEALTH - Creature.MIN_HEALTH + 1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int HEALTH_SLOT      = 0;
+    private static final int BIRTH_YEAR_SLOT  = 1;
+    private static final int UNINDEXED        = -1;
+
+    private final ConcurrentMap<String, Entry> byName;
+    private final Bucket[]                     byTypeAndHealth;
+    private final AtomicReferenceArray<Bucket> byBirthYear;
+
+    /**
+     * Constructs an empty CreatureRegistry.
+     */
+    public CreatureRegistry()
+    {
+        byName          = new ConcurrentHashMap<>();
+        byTypeAndHealth = new Bucket[TYPE_COUNT * HEALTH_VALUES];
+        byBirthYear     = new AtomicReferenceArray<>(WorldClock.MAXIMUM_YEAR - Date.MINIMUM_YEAR);
+
+        for (int i = 0; i < byTypeAndHealth.length; i++)
+        {
+            byTypeAndHealth[i] = new Bucket(HEALTH_SLOT);
+        }
+    }
+
+    /**
+     * Adds a creature to the registry and its indexes.
+     *
+     * @param creature the Dragon, Elf or Orc to add
+     * @throws IllegalArgumentException if another creature has the same
+     *                                  name or the type is not supported
+     */
+    public void register(final Creature creature)
+    {
+        final Entry entry;
+        final String name;
+
+        entry = new Entry(creature, CreatureRecordFormat.typeOf(creature));
+        name  = creature.getName();
+
+        if (byName.putIfAbsent(name, entry) != null)
+        {
+            throw new IllegalArgumentException("A creature named " +
+                    name + " is already registered");
+        }
+
+        entry.index();
+    }
+
+    /**
+     * Removes a creature from the registry and its indexes.
+     *
+     * @param name the creature's name
+     * @return the removed creature, or null if none had that name
+     */
+    public Creature unregister(final String name)
+    {
+        final Entry entry;
+
+        entry = byName.remove(name);
+
+        if (entry == null)
+        {
+            return null;
+        }
+
+        entry.remove();
+
+        return entry.creature;
+    }
+
+    /**
+     * Looks a creature up by name.
+     *
+     * @param name the creature's name
+     * @return the creature, or null if none has that name
+     */
+    public Creature get(final String name)
+    {
+        final Entry entry;
+
+        entry = byName.get(name);
+
+        return entry == null ? null : entry.creature;
+    }
+
+    /**
+     * Gets the number of registered creatures.
+     *
+     * @return the number of creatures
+     */
+    public int size()
+    {
+        return byName.size();
+    }
+
+    /**
+     * Finds every creature of one type.
+     *
+     * @param type {@value CreatureStore#TYPE_DRAGON},
+     *             {@value CreatureStore#TYPE_ELF} or
+     *             {@value CreatureStore#TYPE_ORC}
+     * @return the matching creatures, in no particular order
+     * @throws IllegalArgumentException if type is unknown
+     */
+    public List<Creature> findByType(final int type)
+    {
+        return findByHealth(type, Creature.MIN_HEALTH, Creature.MAX_HEALTH);
+    }
+
+    /**
+     * Finds every creature of one type whose health is within a range.
+     * Living creatures have more than {@value Creature#MIN_HEALTH} health.
+     *
+     * @param type      {@value CreatureStore#TYPE_DRAGON},
+     *                  {@value CreatureStore#TYPE_ELF} or
+     *                  {@value CreatureStore#TYPE_ORC}
+     * @param minHealth the lowest health to include
+     * @param maxHealth the highest health to include
+     * @return the matching creatures, in no particular order
+     * @throws IllegalArgumentException if type is unknown
+     */
+    public List<Creature> findByHealth(final int type,
+                                       final int minHealth,
+                                       final int maxHealth)
+    {
+        final List<Creature> found;
+        final int first;
+        final int low;
+        final int high;
+
+        first = typeIndex(type) * HEALTH_VALUES;
+        found = new ArrayList<>();
+        low   = Math.max(minHealth, Creature.MIN_HEALTH) - Creature.MIN_HEALTH;
+        high  = Math.min(maxHealth, Creature.MAX_HEALTH) - Creature.MIN_HEALTH;
+
+        for (int health = low; health <= high; health++)
+        {
+            byTypeAndHealth[first + health].copyTo(found);
+        }
+
+        return found;
+    }
+
+    /**
+     * Finds every creature whose age is within a range.
+     *
+     * @param minAge the lowest age to include; unit: years
+     * @param maxAge the highest age to include; unit: years
+     * @return the matching creatures, in no particular order
+     */
+    public List<Creature> findByAge(final int minAge,
+                                    final int maxAge)
+    {
+        final List<Creature> found;
+        final int year;
+        final int earliest;
+        final int latest;
+
+        found    = new ArrayList<>();
+        year     = WorldClock.getYear();
+        earliest = (int) Math.max((long) year - maxAge, Date.MINIMUM_YEAR + 1);
+        latest   = year - Math.max(minAge, 0);
+
+        for (int birthYear = earliest; birthYear <= latest; birthYear++)
+        {
+            final Bucket bucket;
+
+            bucket = byBirthYear.get(birthYear - Date.MINIMUM_YEAR - 1);
+
+            if (bucket != null)
+            {
+                bucket.copyTo(found);
+            }
+        }
+
+        return found;
+    }
+
+    /*
+    Gets the group for a year of birth, creating it the first time
+     */
+    private Bucket birthYearBucket(final int birthYear)
+    {
+        final int index;
+
+        Bucket bucket;
+
+        index  = birthYear - Date.MINIMUM_YEAR - 1;
+        bucket = byBirthYear.get(index);
+
+        if (bucket == null)
+        {
+            byBirthYear.compareAndSet(index, null, new Bucket(BIRTH_YEAR_SLOT));
+            bucket = byBirthYear.get(index);
+        }
+
+        return bucket;
+    }
+
+    private Bucket healthBucket(final int typeIndex,
+                                final int health)
+    {
+        return byTypeAndHealth[typeIndex * HEALTH_VALUES + health - Creature.MIN_HEALTH];
+    }
+
+    /*
+    Converts a type tag to an index from 0
+    throws new IllegalArgumentException
+     */
+    private static int typeIndex(final int type)
+    {
+        if (type < CreatureStore.TYPE_DRAGON || type > CreatureStore.TYPE_ORC)
+        {
+            throw new IllegalArgumentException("Unknown creature type: " + type);
+        }
+
+        return type - CreatureStore.TYPE_DRAGON;
+    }
+
+    /*
+    An unordered array of entries; removal moves the last entry into the
+    gap, so every entry remembers its slot in each bucket it is in
+     */
+    private static final class Bucket
+    {
+        private final int slotKind;
+
+        private Creature[] creatures;
+        private Entry[]    entries;
+        private int        size;
+
+        private Bucket(final int slotKind)
+        {
+            this.slotKind  = slotKind;
+            this.creatures = new Creature[INITIAL_CAPACITY];
+            this.entries   = new Entry[INITIAL_CAPACITY];
+            this.size      = 0;
+        }
+
+        private synchronized void add(final Entry entry)
+        {
+            if (size == creatures.length)
+            {
+                creatures = Arrays.copyOf(creatures, size * 2);
+                entries   = Arrays.copyOf(entries, size * 2);
+            }
+
+            creatures[size] = entry.creature;
+            entries[size]   = entry;
+            entry.setSlot(slotKind, size);
+            size++;
+        }
+
+        private synchronized void remove(final Entry entry)
+        {
+            final int slot;
+
+            slot = entry.getSlot(slotKind);
+
+            if (slot == UNINDEXED)
+            {
+                return;
+            }
+
+            size--;
+
+            if (slot != size)
+            {
+                creatures[slot] = creatures[size];
+                entries[slot]   = entries[size];
+                entries[slot].setSlot(slotKind, slot);
+            }
+
+            creatures[size] = null;
+            entries[size]   = null;
+            entry.setSlot(slotKind, UNINDEXED);
+        }
+
+        private synchronized void copyTo(final List<Creature> found)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                found.add(creatures[i]);
+            }
+        }
+    }
+
+    /*
+    One registered creature, which keeps its own health bucket up to date.
+    Indexing and removal both hold the entry's lock, so an unregister that
+    races with register either finds the entry fully indexed or keeps it
+    from being indexed at all
+     */
+    private final class Entry implements CreatureListener
+    {
+        private final Creature creature;
+        private final int      typeIndex;
+
+        // Each slot is only read and written under the lock of its bucket
+        private int healthSlot;
+        private int ageSlot;
+
+        private Bucket  healthBucket;
+        private boolean removed;
+
+        private Entry(final Creature creature,
+                      final int type)
+        {
+            this.creature   = creature;
+            this.typeIndex  = typeIndex(type);
+            this.healthSlot = UNINDEXED;
+            this.ageSlot    = UNINDEXED;
+            this.removed    = false;
+        }
+
+        /*
+        Adds the entry to its birth year and health buckets and starts
+        following the creature's health
+         */
+        private synchronized void index()
+        {
+            if (removed)
+            {
+                return;
+            }
+
+            birthYearBucket(creature.getDateOfBirth().getYear()).add(this);
+
+            // Listen first, then index, so no health change can be missed
+            creature.addListener(this);
+            reindex();
+        }
+
+        @Override
+        public void creatureChanged(final Creature changed,
+                                    final int action,
+                                    final int oldValue,
+                                    final int newValue)
+        {
+            if ((action == TAKE_DAMAGE || action == HEAL) && oldValue != newValue)
+            {
+                reindex();
+            }
+        }
+
+        /*
+        Moves the creature to the bucket for its current health; reading
+        the current value under the lock keeps the index right even when
+        callbacks arrive out of order
+         */
+        private synchronized void reindex()
+        {
+            final Bucket bucket;
+
+            if (removed)
+            {
+                return;
+            }
+
+            bucket = healthBucket(typeIndex, creature.getCurrentHealth());
+
+            if (bucket != healthBucket)
+            {
+                if (healthBucket != null)
+                {
+                    healthBucket.remove(this);
+                }
+
+                bucket.add(this);
+                healthBucket = bucket;
+            }
+        }
+
+        private synchronized void remove()
+        {
+            removed = true;
+
+            creature.removeListener(this);
+
+            if (healthBucket != null)
+            {
+                healthBucket.remove(this);
+            }
+
+            birthYearBucket(creature.getDateOfBirth().getYear()).remove(this);
+        }
+
+        private int getSlot(final int slotKind)
+        {
+            return slotKind == HEALTH_SLOT ? healthSlot : ageSlot;
+        }
+
+        private void setSlot(final int slotKind,
+                             final int slot)
+        {
+            if (slotKind == HEALTH_SLOT)
+            {
+                healthSlot = slot;
+            }
+            else
+            {
+                ageSlot = slot;
+            }
+        }
+    }
+}
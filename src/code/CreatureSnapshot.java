@@ -0,0 +1,99 @@
+/**
+ * An immutable copy of a creature's state at one moment, safe to share
+ * with any number of reader threads while the creature keeps changing.
+ * <p>
+ * {@link DragonSnapshot}, {@link ElfSnapshot} and {@link OrcSnapshot} add
+ * each type's ability resource. Health and the resource are read one
+ * after the other, so each is a value the creature really held, but if
+ * the creature changes between the two reads the pair may never have
+ * been held at the same instant. Once the snapshot is taken, nothing
+ * about it changes. Use {@link RosterPublisher} to publish snapshots of a
+ * whole roster together.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public interface CreatureSnapshot
+{
+    /**
+     * Takes a snapshot of a creature.
+     *
+     * @param creature the Dragon, Elf or Orc to copy
+     * @return a DragonSnapshot, ElfSnapshot or OrcSnapshot
+     * @throws IllegalArgumentException if the creature's type is not
+     *                                  supported
+     */
+    static CreatureSnapshot of(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            final Dragon dragon;
+
+            dragon = (Dragon) creature;
+
+            return new DragonSnapshot(dragon.getName(), dragon.getDateOfBirth(),
+                                      dragon.getCurrentHealth(), dragon.getFirePower());
+        }
+        else if (creature instanceof Elf)
+        {
+            final Elf elf;
+
+            elf = (Elf) creature;
+
+            return new ElfSnapshot(elf.getName(), elf.getDateOfBirth(),
+                                   elf.getCurrentHealth(), elf.getMana());
+        }
+        else if (creature instanceof Orc)
+        {
+            final Orc orc;
+
+            orc = (Orc) creature;
+
+            return new OrcSnapshot(orc.getName(), orc.getDateOfBirth(),
+                                   orc.getCurrentHealth(), orc.getRage());
+        }
+
+        throw new IllegalArgumentException("Unsupported creature type: " +
+                creature.getClass().getName());
+    }
+
+    /**
+     * Gets the creature's name.
+     *
+     * @return name
+     */
+    String name();
+
+    /**
+     * Gets the creature's date of birth.
+     *
+     * @return date of birth
+     */
+    Date dateOfBirth();
+
+    /**
+     * Gets the creature's health when the snapshot was taken.
+     *
+     * @return health
+     */
+    int health();
+
+    /**
+     * Gets the fire power, mana or rage when the snapshot was taken.
+     *
+     * @return the ability resource
+     */
+    int resource();
+
+    /**
+     * Checks if the creature was alive when the snapshot was taken.
+     *
+     * @return true if health was greater than {@value Creature#MIN_HEALTH}
+     */
+    default boolean isAlive()
+    {
+        return health() > Creature.MIN_HEALTH;
+    }
+}
@@ -0,0 +1,344 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Population statistics kept up to date as creatures change: how many
+ * are alive, total health, and histograms of health and of each faction's
+ * resource.
+ * <p>
+ * Every figure is kept per faction (Dragon, Elf and Orc) in striped
+ * {@link LongAdder}s. A {@link CreatureListener} attached to each tracked
+ * creature adds the difference made by every
+ * {@link Creature#takeDamage(int)}, {@link Creature#heal(int)}, ability and
+ * restore call. Reading a figure costs the same however many creatures are
+ * tracked, and threads updating different creatures rarely touch the same
+ * counter cell.
+ * </p>
+ * <p>
+ * Figures are exact whenever no update is in progress. A creature should
+ * be tracked before other threads start changing it.
+ * </p>
+ * <p>
+ * Histograms use buckets {@value #BUCKET_WIDTH} points wide. Health bucket
+ * {@code i} counts health from {@code MIN_HEALTH + i * BUCKET_WIDTH}, and
+ * resource bucket {@code i} counts values from {@code i * BUCKET_WIDTH}.
+ * A resource restored below 0 by a negative amount counts in bucket 0.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class CreatureStats implements CreatureListener
+{
+    public static final int BUCKET_WIDTH = 10;
+
+    private static final int TYPE_COUNT       = 3;
+    private static final int HEALTH_BUCKETS   =
+            (Creature.MAX_HEALTH - Creature.MIN_HEALTH) / BUCKET_WIDTH + 1;
+    private static final int RESOURCE_BUCKETS = Dragon.MAXIMUM_FIRE_POWER / BUCKET_WIDTH + 1;
+
+    private final LongAdder[] counts;
+    private final LongAdder[] alive;
+    private final LongAdder[] totalHealth;
+    private final LongAdder[] healthHistogram;
+    private final LongAdder[] resourceHistogram;
+
+    /**
+     * Constructs a CreatureStats tracking no creatures.
+     */
+    public CreatureStats()
+    {
+        counts            = newAdders(TYPE_COUNT);
+        alive             = newAdders(TYPE_COUNT);
+        totalHealth       = newAdders(TYPE_COUNT);
+        healthHistogram   = newAdders(TYPE_COUNT * HEALTH_BUCKETS);
+        resourceHistogram = newAdders(TYPE_COUNT * RESOURCE_BUCKETS);
+    }
+
+    /**
+     * Adds a creature's current values and follows its later changes.
+     *
+     * @param creature the Dragon, Elf or Orc to track
+     * @throws IllegalArgumentException if the type is not supported
+     */
+    public void track(final Creature creature)
+    {
+        final int type;
+
+        type = typeIndex(creature);
+
+        creature.addListener(this);
+        count(type, creature, 1);
+    }
+
+    /**
+     * Removes a creature's current values and stops following it.
+     *
+     * @param creature a creature passed to {@link #track(Creature)}
+     * @throws IllegalArgumentException if the creature is not tracked
+     */
+    public void untrack(final Creature creature)
+    {
+        if (!creature.removeListener(this))
+        {
+            throw new IllegalArgumentException(creature.getName() + " is not tracked");
+        }
+
+        count(typeIndex(creature), creature, -1);
+    }
+
+    @Override
+    public void creatureChanged(final Creature creature,
+                                final int action,
+                                final int oldValue,
+                                final int newValue)
+    {
+        final int type;
+
+        if (oldValue == newValue)
+        {
+            return;
+        }
+
+        type = typeIndex(creature);
+
+        if (action == TAKE_DAMAGE || action == HEAL)
+        {
+            final boolean wasAlive;
+            final boolean isAlive;
+            final int oldBucket;
+            final int newBucket;
+
+            wasAlive  = oldValue > Creature.MIN_HEALTH;
+            isAlive   = newValue > Creature.MIN_HEALTH;
+            oldBucket = healthBucket(oldValue);
+            newBucket = healthBucket(newValue);
+
+            totalHealth[type].add(newValue - oldValue);
+
+            if (wasAlive != isAlive)
+            {
+                alive[type].add(isAlive ? 1 : -1);
+            }
+
+            if (oldBucket != newBucket)
+            {
+                healthHistogram[type * HEALTH_BUCKETS + oldBucket].decrement();
+                healthHistogram[type * HEALTH_BUCKETS + newBucket].increment();
+            }
+        }
+        else if (resourceBucket(oldValue) != resourceBucket(newValue))
+        {
+            resourceHistogram[type * RESOURCE_BUCKETS + resourceBucket(oldValue)].decrement();
+            resourceHistogram[type * RESOURCE_BUCKETS + resourceBucket(newValue)].increment();
+        }
+    }
+
+    /**
+     * Gets the number of tracked creatures of one type.
+     *
+     * @param type {@value CreatureStore#TYPE_DRAGON},
+     *             {@value CreatureStore#TYPE_ELF} or
+     *             {@value CreatureStore#TYPE_ORC}
+     * @return the number of creatures
+     */
+    public long getCount(final int type)
+    {
+        return counts[typeIndex(type)].sum();
+    }
+
+    /**
+     * Gets the number of living tracked creatures of one type.
+     *
+     * @param type {@value CreatureStore#TYPE_DRAGON},
+     *             {@value CreatureStore#TYPE_ELF} or
+     *             {@value CreatureStore#TYPE_ORC}
+     * @return the number of creatures with more than
+     *         {@value Creature#MIN_HEALTH} health
+     */
+    public long getAliveCount(final int type)
+    {
+        return alive[typeIndex(type)].sum();
+    }
+
+    /**
+     * Gets the number of living tracked creatures of every type.
+     *
+     * @return the number of creatures with more than
+     *         {@value Creature#MIN_HEALTH} health
+     */
+    public long getAliveCount()
+    {
+        return sum(alive);
+    }
+
+    /**
+     * Gets the total health of the tracked creatures of one type.
+     *
+     * @param type {@value CreatureStore#TYPE_DRAGON},
+     *             {@value CreatureStore#TYPE_ELF} or
+     *             {@value CreatureStore#TYPE_ORC}
+     * @return the sum of their current health
+     */
+    public long getTotalHealth(final int type)
+    {
+        return totalHealth[typeIndex(type)].sum();
+    }
+
+    /**
+     * Gets the total health of every tracked creature.
+     *
+     * @return the sum of their current health
+     */
+    public long getTotalHealth()
+    {
+        return sum(totalHealth);
+    }
+
+    /**
+     * Gets the health histogram of one type.
+     *
+     * @param type {@value CreatureStore#TYPE_DRAGON},
+     *             {@value CreatureStore#TYPE_ELF} or
+     *             {@value CreatureStore#TYPE_ORC}
+     * @return the number of creatures in each health bucket
+     */
+    public long[] getHealthHistogram(final int type)
+    {
+        return histogram(healthHistogram, typeIndex(type) * HEALTH_BUCKETS, HEALTH_BUCKETS);
+    }
+
+    /**
+     * Gets the histogram of one type's resource: fire power for dragons,
+     * mana for elves and rage for orcs.
+     *
+     * @param type {@value CreatureStore#TYPE_DRAGON},
+     *             {@value CreatureStore#TYPE_ELF} or
+     *             {@value CreatureStore#TYPE_ORC}
+     * @return the number of creatures in each resource bucket, up to the
+     *         bucket holding the type's maximum
+     */
+    public long[] getResourceHistogram(final int type)
+    {
+        final int maximum;
+
+        switch (type)
+        {
+            case CreatureStore.TYPE_DRAGON:
+                maximum = Dragon.MAXIMUM_FIRE_POWER;
+                break;
+            case CreatureStore.TYPE_ELF:
+                maximum = Elf.MAXIMUM_MANA;
+                break;
+            default:
+                maximum = Orc.MAX_RAGE_POINTS;
+                break;
+        }
+
+        return histogram(resourceHistogram,
+                         typeIndex(type) * RESOURCE_BUCKETS,
+                         maximum / BUCKET_WIDTH + 1);
+    }
+
+    /*
+    Adds or removes one creature's current values
+     */
+    private void count(final int type,
+                       final Creature creature,
+                       final int sign)
+    {
+        final int health;
+        final int resource;
+
+        health   = creature.getCurrentHealth();
+        resource = CreatureRecordFormat.resourceOf(creature);
+
+        counts[type].add(sign);
+        totalHealth[type].add((long) sign * health);
+        healthHistogram[type * HEALTH_BUCKETS + healthBucket(health)].add(sign);
+        resourceHistogram[type * RESOURCE_BUCKETS + resourceBucket(resource)].add(sign);
+
+        if (health > Creature.MIN_HEALTH)
+        {
+            alive[type].add(sign);
+        }
+    }
+
+    private static int healthBucket(final int health)
+    {
+        return (health - Creature.MIN_HEALTH) / BUCKET_WIDTH;
+    }
+
+    /*
+    A restore by a negative amount can take a resource below 0, so the
+    bucket is clamped to stay within the type's own histogram
+     */
+    private static int resourceBucket(final int resource)
+    {
+        return Math.max(0, Math.min(Math.floorDiv(resource, BUCKET_WIDTH),
+                                    RESOURCE_BUCKETS - 1));
+    }
+
+    private static int typeIndex(final Creature creature)
+    {
+        return CreatureRecordFormat.typeOf(creature) - CreatureStore.TYPE_DRAGON;
+    }
+
+    /*
+    Converts a type tag to an index from 0
+    throws new IllegalArgumentException
+     */
+    private static int typeIndex(final int type)
+    {
+        if (type < CreatureStore.TYPE_DRAGON || type > CreatureStore.TYPE_ORC)
+        {
+            throw new IllegalArgumentException("Unknown creature type: " + type);
+        }
+
+        return type - CreatureStore.TYPE_DRAGON;
+    }
+
+    private static long[] histogram(final LongAdder[] adders,
+                                    final int first,
+                                    final int buckets)
+    {
+        final long[] histogram;
+
+        histogram = new long[buckets];
+
+        for (int i = 0; i < buckets; i++)
+        {
+            histogram[i] = adders[first + i].sum();
+        }
+
+        return histogram;
+    }
+
+    private static long sum(final LongAdder[] adders)
+    {
+        long total;
+
+        total = 0;
+
+        for (final LongAdder adder : adders)
+        {
+            total += adder.sum();
+        }
+
+        return total;
+    }
+
+    private static LongAdder[] newAdders(final int count)
+    {
+        final LongAdder[] adders;
+
+        adders = new LongAdder[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            adders[i] = new LongAdder();
+        }
+
+        return adders;
+    }
+}
@@ -0,0 +1,789 @@
+import java.util.Arrays;
+
+/**
+ * Stores creatures as parallel primitive arrays indexed by a creature id.
+ * <p>
+ * Each creature occupies one slot in every array: a type tag, its health,
+ * its date of birth packed into an int (see {@link Date#toPackedInt()}),
+ * and the value of its type-specific resource (fire power for dragons,
+ * mana for elves and rage for orcs). Keeping the data in primitive arrays
+ * avoids one object per creature and keeps the values for neighbouring
+ * creatures next to each other in memory.
+ * </p>
+ * <p>
+ * The operations follow the same rules as {@link Creature#takeDamage(int)},
+ * {@link Creature#heal(int)}, {@link Dragon#breatheFire()},
+ * {@link Elf#castSpell()} and {@link Orc#berserk()}.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class CreatureStore
+{
+    public static final byte TYPE_DRAGON = 1;
+    public static final byte TYPE_ELF    = 2;
+    public static final byte TYPE_ORC    = 3;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int MINIMUM_CAPACITY = 1;
+    private static final int GROWTH_FACTOR    = 2;
+
+    private byte[] types;
+    private int[]  health;
+    private int[]  birthDates;
+    private int[]  resources;
+    private int    size;
+
+    /**
+     * Constructs an empty CreatureStore with a default capacity.
+     */
+    public CreatureStore()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty CreatureStore able to hold the given number of
+     * creatures before growing.
+     *
+     * @param initialCapacity the number of creatures to reserve room for
+     * @throws IllegalArgumentException if initialCapacity is less than
+     *                                  {@value MINIMUM_CAPACITY}
+     */
+    public CreatureStore(final int initialCapacity)
+    {
+        if (initialCapacity < MINIMUM_CAPACITY)
+        {
+            throw new IllegalArgumentException("Capacity must be at least " +
+                    MINIMUM_CAPACITY);
+        }
+
+        types      = new byte[initialCapacity];
+        health     = new int[initialCapacity];
+        birthDates = new int[initialCapacity];
+        resources  = new int[initialCapacity];
+        size       = 0;
+    }
+
+    /**
+     * Adds a dragon to the store.
+     *
+     * @param dateOfBirth the date of birth of the dragon
+     * @param health      the initial health of the dragon
+     * @param firePower   the initial fire power of the dragon
+     * @return the id of the new dragon
+     * @throws IllegalArgumentException if any value is invalid for a
+     *                                  {@link Dragon}
+     */
+    public int addDragon(final Date dateOfBirth,
+                         final int health,
+                         final int firePower)
+    {
+        Dragon.checkFirePower(firePower);
+
+        return add(TYPE_DRAGON, dateOfBirth, health, firePower);
+    }
+
+    /**
+     * Adds an elf to the store.
+     *
+     * @param dateOfBirth the date of birth of the elf
+     * @param health      the initial health of the elf
+     * @param mana        the initial mana of the elf
+     * @return the id of the new elf
+     * @throws IllegalArgumentException if any value is invalid for an
+     *                                  {@link Elf}
+     */
+    public int addElf(final Date dateOfBirth,
+                      final int health,
+                      final int mana)
+    {
+        Elf.checkMana(mana);
+
+        return add(TYPE_ELF, dateOfBirth, health, mana);
+    }
+
+    /**
+     * Adds an orc to the store.
+     *
+     * @param dateOfBirth the date of birth of the orc
+     * @param health      the initial health of the orc
+     * @param rage        the initial rage of the orc
+     * @return the id of the new orc
+     * @throws IllegalArgumentException if any value is invalid for an
+     *                                  {@link Orc}
+     */
+    public int addOrc(final Date dateOfBirth,
+                      final int health,
+                      final int rage)
+    {
+        Orc.checkRage(rage);
+
+        return add(TYPE_ORC, dateOfBirth, health, rage);
+    }
+
+    /*
+    Validates the values shared by every creature and appends a new slot
+    returns the id of the slot
+     */
+    private int add(final byte type,
+                    final Date dateOfBirth,
+                    final int health,
+                    final int resource)
+    {
+        final int id;
+
+        Creature.checkBirthDate(dateOfBirth);
+        Creature.checkHealth(health);
+
+        if (size == types.length)
+        {
+            grow();
+        }
+
+        id = size;
+
+        this.types[id]      = type;
+        this.health[id]     = health;
+        this.birthDates[id] = dateOfBirth.toPackedInt();
+        this.resources[id]  = resource;
+
+        size++;
+
+        return id;
+    }
+
+    /*
+    Doubles the length of every array
+     */
+    private void grow()
+    {
+        final int newCapacity;
+
+        newCapacity = types.length * GROWTH_FACTOR;
+
+        types      = Arrays.copyOf(types, newCapacity);
+        health     = Arrays.copyOf(health, newCapacity);
+        birthDates = Arrays.copyOf(birthDates, newCapacity);
+        resources  = Arrays.copyOf(resources, newCapacity);
+    }
+
+    /*
+    Checks that id refers to a creature in this store
+    throws new IllegalArgumentException
+     */
+    private void checkId(final int id)
+    {
+        if (id < 0 || id >= size)
+        {
+            throw new IllegalArgumentException("Unknown creature id: " + id);
+        }
+    }
+
+    /*
+    Checks that id refers to a creature of the given type
+    throws new IllegalArgumentException
+     */
+    private void checkType(final int id,
+                           final byte type)
+    {
+        checkId(id);
+
+        if (types[id] != type)
+        {
+            throw new IllegalArgumentException("Creature " + id +
+                    " cannot use this ability");
+        }
+    }
+
+    /**
+     * Gets the number of creatures in the store.
+     *
+     * @return the number of creatures
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Gets the type tag of a creature.
+     *
+     * @param id the id of the creature
+     * @return {@value TYPE_DRAGON}, {@value TYPE_ELF} or {@value TYPE_ORC}
+     */
+    public byte getType(final int id)
+    {
+        checkId(id);
+
+        return types[id];
+    }
+
+    /**
+     * Gets the packed date of birth of a creature.
+     *
+     * @param id the id of the creature
+     * @return the date of birth as produced by {@link Date#toPackedInt()}
+     */
+    public int getPackedBirthDate(final int id)
+    {
+        checkId(id);
+
+        return birthDates[id];
+    }
+
+    /**
+     * Gets a creature's current health.
+     *
+     * @param id the id of the creature
+     * @return current health
+     */
+    public int getCurrentHealth(final int id)
+    {
+        checkId(id);
+
+        return health[id];
+    }
+
+    /**
+     * Gets a creature's resource: fire power, mana or rage depending on
+     * its type.
+     *
+     * @param id the id of the creature
+     * @return the current resource value
+     */
+    public int getResource(final int id)
+    {
+        checkId(id);
+
+        return resources[id];
+    }
+
+    /**
+     * Checks if a creature is alive.
+     *
+     * @param id the id of the creature
+     * @return true if health is greater than the minimum health
+     */
+    public boolean isAlive(final int id)
+    {
+        checkId(id);
+
+        return health[id] > Creature.MIN_HEALTH;
+    }
+
+    /**
+     * Calculates a creature's age in years.
+     *
+     * @param id the id of the creature
+     * @return the age of the creature; unit: years
+     */
+    public int getAgeYears(final int id)
+    {
+        checkId(id);
+
+        return WorldClock.getYear() - Date.packedYear(birthDates[id]);
+    }
+
+    /**
+     * Reduces a creature's health by the damage taken, as
+     * {@link Creature#takeDamage(int)} does.
+     *
+     * @param id          the id of the creature
+     * @param damageTaken the amount of damage taken
+     * @throws DamageException if damageTaken is negative
+     */
+    public void takeDamage(final int id,
+                           final int damageTaken)
+    {
+        checkId(id);
+
+        if (damageTaken < Creature.MIN_DAMAGE_ALLOWED)
+        {
+            throw new DamageException("Damage cannot be below " +
+                    Creature.MIN_DAMAGE_ALLOWED);
+        }
+
+        health[id] = Math.max(health[id] - damageTaken, Creature.MIN_HEALTH);
+    }
+
+    /**
+     * Heals a creature, as {@link Creature#heal(int)} does.
+     *
+     * @param id         the id of the creature
+     * @param healAmount the amount to heal
+     * @throws HealingException if healAmount is below the minimum heal
+     */
+    public void heal(final int id,
+                     final int healAmount)
+    {
+        checkId(id);
+
+        if (healAmount < Creature.MIN_HEAL_ALLOWED)
+        {
+            throw new HealingException("Cannot heal less than " +
+                    Creature.MIN_HEAL_ALLOWED);
+        }
+
+        health[id] = Math.min(health[id] + healAmount, Creature.MAX_HEALTH);
+    }
+
+    /**
+     * Applies damage to many creatures at once.
+     * <p>
+     * The whole batch is validated before any health changes: if any id is
+     * unknown or any amount is negative, nothing is applied and a single
+     * exception reports how many entries were rejected. Health is then
+     * clamped to the minimum in one branch-free pass.
+     * </p>
+     *
+     * @param ids     the ids of the creatures hit
+     * @param amounts the damage taken by each creature, parallel to ids
+     * @throws IllegalArgumentException if the arrays differ in length or
+     *                                  contain unknown ids
+     * @throws DamageException          if any amount is negative
+     */
+    public void takeDamageAll(final int[] ids,
+                              final int[] amounts)
+    {
+        final int[] health;
+
+        checkBatch(ids, amounts);
+
+        if (min(amounts) < Creature.MIN_DAMAGE_ALLOWED)
+        {
+            throw new DamageException(countBelow(amounts,
+                    Creature.MIN_DAMAGE_ALLOWED) + " of " + amounts.length +
+                    " damage values are below " + Creature.MIN_DAMAGE_ALLOWED);
+        }
+
+        health = this.health;
+
+        for (int i = 0; i < ids.length; i++)
+        {
+            final int id;
+
+            id = ids[i];
+
+            health[id] = Math.max(health[id] - amounts[i], Creature.MIN_HEALTH);
+        }
+    }
+
+    /**
+     * Applies the same damage to many creatures at once, such as every
+     * creature caught in an area of effect.
+     *
+     * @param ids         the ids of the creatures hit
+     * @param damageTaken the damage taken by each creature
+     * @throws IllegalArgumentException if ids contains unknown ids
+     * @throws DamageException          if damageTaken is negative
+     */
+    public void takeDamageAll(final int[] ids,
+                              final int damageTaken)
+    {
+        final int[] health;
+
+        checkIds(ids);
+
+        if (damageTaken < Creature.MIN_DAMAGE_ALLOWED)
+        {
+            throw new DamageException("Damage cannot be below " +
+                    Creature.MIN_DAMAGE_ALLOWED);
+        }
+
+        health = this.health;
+
+        for (final int id : ids)
+        {
+            health[id] = Math.max(health[id] - damageTaken, Creature.MIN_HEALTH);
+        }
+    }
+
+    /**
+     * Applies the same damage to every creature with an id in
+     * [fromId, toId). Contiguous ids let the JIT vectorize the clamp.
+     *
+     * @param fromId      the first id hit, inclusive
+     * @param toId        the last id hit, exclusive
+     * @param damageTaken the damage taken by each creature
+     * @throws IllegalArgumentException if the range is outside the store
+     * @throws DamageException          if damageTaken is negative
+     */
+    public void takeDamageRange(final int fromId,
+                                final int toId,
+                                final int damageTaken)
+    {
+        final int[] health;
+
+        checkRange(fromId, toId);
+
+        if (damageTaken < Creature.MIN_DAMAGE_ALLOWED)
+        {
+            throw new DamageException("Damage cannot be below " +
+                    Creature.MIN_DAMAGE_ALLOWED);
+        }
+
+        health = this.health;
+
+        for (int id = fromId; id < toId; id++)
+        {
+            health[id] = Math.max(health[id] - damageTaken, Creature.MIN_HEALTH);
+        }
+    }
+
+    /**
+     * Heals many creatures at once.
+     * <p>
+     * The whole batch is validated before any health changes: if any id is
+     * unknown or any amount is below the minimum heal, nothing is applied
+     * and a single exception reports how many entries were rejected.
+     * </p>
+     *
+     * @param ids     the ids of the creatures healed
+     * @param amounts the amount each creature is healed by, parallel to ids
+     * @throws IllegalArgumentException if the arrays differ in length or
+     *                                  contain unknown ids
+     * @throws HealingException         if any amount is below the minimum heal
+     */
+    public void healAll(final int[] ids,
+                        final int[] amounts)
+    {
+        final int[] health;
+
+        checkBatch(ids, amounts);
+
+        if (min(amounts) < Creature.MIN_HEAL_ALLOWED)
+        {
+            throw new HealingException(countBelow(amounts,
+                    Creature.MIN_HEAL_ALLOWED) + " of " + amounts.length +
+                    " heal values are below " + Creature.MIN_HEAL_ALLOWED);
+        }
+
+        health = this.health;
+
+        for (int i = 0; i < ids.length; i++)
+        {
+            final int id;
+
+            id = ids[i];
+
+            health[id] = Math.min(health[id] + amounts[i], Creature.MAX_HEALTH);
+        }
+    }
+
+    /**
+     * Heals many creatures by the same amount at once.
+     *
+     * @param ids        the ids of the creatures healed
+     * @param healAmount the amount each creature is healed by
+     * @throws IllegalArgumentException if ids contains unknown ids
+     * @throws HealingException         if healAmount is below the minimum heal
+     */
+    public void healAll(final int[] ids,
+                        final int healAmount)
+    {
+        final int[] health;
+
+        checkIds(ids);
+
+        if (healAmount < Creature.MIN_HEAL_ALLOWED)
+        {
+            throw new HealingException("Cannot heal less than " +
+                    Creature.MIN_HEAL_ALLOWED);
+        }
+
+        health = this.health;
+
+        for (final int id : ids)
+        {
+            health[id] = Math.min(health[id] + healAmount, Creature.MAX_HEALTH);
+        }
+    }
+
+    /*
+    Checks that ids and amounts line up and every id is known
+    throws new IllegalArgumentException
+     */
+    private void checkBatch(final int[] ids,
+                            final int[] amounts)
+    {
+        if (ids.length != amounts.length)
+        {
+            throw new IllegalArgumentException("Expected " + ids.length +
+                    " amounts but got " + amounts.length);
+        }
+
+        checkIds(ids);
+    }
+
+    /*
+    Checks every id in one pass by reducing to the smallest and largest id
+    throws new IllegalArgumentException
+     */
+    private void checkIds(final int[] ids)
+    {
+        int lowest;
+        int highest;
+
+        // The reduction starts from 0, which is not a valid id in an empty store
+        if (ids.length == 0)
+        {
+            return;
+        }
+
+        lowest  = 0;
+        highest = 0;
+
+        for (final int id : ids)
+        {
+            lowest  = Math.min(lowest, id);
+            highest = Math.max(highest, id);
+        }
+
+        if (lowest < 0 || highest >= size)
+        {
+            int unknown;
+
+            unknown = 0;
+
+            for (final int id : ids)
+            {
+                if (id < 0 || id >= size)
+                {
+                    unknown++;
+                }
+            }
+
+            throw new IllegalArgumentException(unknown + " of " + ids.length +
+                    " creature ids are unknown");
+        }
+    }
+
+    /*
+    Checks that [fromId, toId) lies inside the store
+    throws new IllegalArgumentException
+     */
+    private void checkRange(final int fromId,
+                            final int toId)
+    {
+        if (fromId < 0 || toId > size || fromId > toId)
+        {
+            throw new IllegalArgumentException("Invalid id range: [" +
+                    fromId + ", " + toId + ")");
+        }
+    }
+
+    /*
+    Returns the smallest value, or Integer.MAX_VALUE for an empty array
+     */
+    private static int min(final int[] values)
+    {
+        int lowest;
+
+        lowest = Integer.MAX_VALUE;
+
+        for (final int value : values)
+        {
+            lowest = Math.min(lowest, value);
+        }
+
+        return lowest;
+    }
+
+    /*
+    Counts the values below the given limit, used only to report failures
+     */
+    private static int countBelow(final int[] values,
+                                  final int limit)
+    {
+        int count;
+
+        count = 0;
+
+        for (final int value : values)
+        {
+            if (value < limit)
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Uses a dragon's fire breath, as {@link Dragon#breatheFire()} does.
+     *
+     * @param id the id of the dragon
+     * @return the amount of damage as an int
+     * @throws LowFirePowerException if fire power is insufficient
+     *                               (the shared {@link LowFirePowerException#STACKLESS})
+     */
+    public int breatheFire(final int id) throws LowFirePowerException
+    {
+        final int damage;
+
+        damage = tryBreatheFire(id);
+
+        if (damage == Creature.ABILITY_FAILED)
+        {
+            throw LowFirePowerException.STACKLESS;
+        }
+
+        return damage;
+    }
+
+    /**
+     * Uses a dragon's fire breath without throwing, as
+     * {@link Dragon#tryBreatheFire()} does.
+     *
+     * @param id the id of the dragon
+     * @return the amount of damage, or {@link Creature#ABILITY_FAILED}
+     *         if fire power is insufficient
+     */
+    public int tryBreatheFire(final int id)
+    {
+        checkType(id, TYPE_DRAGON);
+
+        if (resources[id] < Dragon.FIRE_POWER_ACTIVATION)
+        {
+            return Creature.ABILITY_FAILED;
+        }
+
+        resources[id] -= Dragon.FIRE_POWER_ACTIVATION;
+
+        return Dragon.FIRE_BREATH_DAMAGE;
+    }
+
+    /**
+     * Restores a dragon's fire power, as
+     * {@link Dragon#restoreFirePower(int)} does.
+     *
+     * @param id     the id of the dragon
+     * @param amount the amount to restore fire power by
+     */
+    public void restoreFirePower(final int id,
+                                 final int amount)
+    {
+        checkType(id, TYPE_DRAGON);
+
+        resources[id] = Math.min(resources[id] + amount,
+                                 Dragon.MAXIMUM_FIRE_POWER);
+    }
+
+    /**
+     * Casts an elf's spell, as {@link Elf#castSpell()} does.
+     *
+     * @param id the id of the elf
+     * @return the amount of damage dealt by the spell
+     * @throws LowManaException if the elf does not have enough mana
+     *                          (the shared {@link LowManaException#STACKLESS})
+     */
+    public int castSpell(final int id) throws LowManaException
+    {
+        final int damage;
+
+        damage = tryCastSpell(id);
+
+        if (damage == Creature.ABILITY_FAILED)
+        {
+            throw LowManaException.STACKLESS;
+        }
+
+        return damage;
+    }
+
+    /**
+     * Casts an elf's spell without throwing, as {@link Elf#tryCastSpell()}
+     * does.
+     *
+     * @param id the id of the elf
+     * @return the amount of damage, or {@link Creature#ABILITY_FAILED}
+     *         if the elf does not have enough mana
+     */
+    public int tryCastSpell(final int id)
+    {
+        checkType(id, TYPE_ELF);
+
+        if (resources[id] < Elf.SPELL_COST)
+        {
+            return Creature.ABILITY_FAILED;
+        }
+
+        resources[id] -= Elf.SPELL_COST;
+
+        return Elf.SPELL_DAMAGE;
+    }
+
+    /**
+     * Restores an elf's mana, as {@link Elf#restoreMana(int)} does.
+     *
+     * @param id     the id of the elf
+     * @param amount amount of mana to restore
+     */
+    public void restoreMana(final int id,
+                            final int amount)
+    {
+        checkType(id, TYPE_ELF);
+
+        resources[id] = Math.min(resources[id] + amount, Elf.MAXIMUM_MANA);
+    }
+
+    /**
+     * Performs an orc's berserk attack, as {@link Orc#berserk()} does.
+     *
+     * @param id the id of the orc
+     * @return the damage the orc will deal
+     * @throws LowRageException if the orc has too little rage
+     *                          (the shared {@link LowRageException#STACKLESS})
+     */
+    public int berserk(final int id)
+    {
+        final int damage;
+
+        damage = tryBerserk(id);
+
+        if (damage == Creature.ABILITY_FAILED)
+        {
+            throw LowRageException.STACKLESS;
+        }
+
+        return damage;
+    }
+
+    /**
+     * Performs an orc's berserk attack without throwing, as
+     * {@link Orc#tryBerserk()} does.
+     *
+     * @param id the id of the orc
+     * @return the damage the orc will deal, or
+     *         {@link Creature#ABILITY_FAILED} if the orc has too little rage
+     */
+    public int tryBerserk(final int id)
+    {
+        final int rage;
+
+        checkType(id, TYPE_ORC);
+
+        if (resources[id] < Orc.BERSERK_COST)
+        {
+            return Creature.ABILITY_FAILED;
+        }
+
+        rage = Math.min(resources[id] + Orc.BERSERK_INCREASE_RAGE_POINTS,
+                        Orc.MAX_RAGE_POINTS);
+
+        resources[id] = rage;
+
+        if (rage > Orc.RAGE_THRESHOLD_POINTS)
+        {
+            return Orc.DAMAGE_DOUBLE_HP_POINTS;
+        }
+        else
+        {
+            return Orc.DAMAGE_NORMAL_HP_POINTS;
+        }
+    }
+}
@@ -1,3 +1,5 @@
+import java.nio.ByteBuffer;
+
 /**
  * Represents a date with day, month, and year components.
  * Provides validation for day, month, and year values, including leap year handling.
@@ -76,22 +78,103 @@ public final class Date
     private static final int MONTH_CODE_NOVEMBER  = 4;
     private static final int MONTH_CODE_DECEMBER  = 6;
 
-    private static final int MINIMUM_YEAR               = 1800;
-    private static final int CURRENT_YEAR               = 2025;
-    private static final int TWENTY_FIRST_CENTURY_START = 2000;
-    private static final int NINETEENTH_CENTURY_START   = 1800;
+    static final int MINIMUM_YEAR                       = 1800;
     private static final int MINIMUM_DAY_IN_MONTH       = 1;
 
-    private final int day;
-    private final int month;
-    private final int year;
+    // Lookup tables and canonical instances cover years up to this one;
+    // later years, once the world clock reaches them, are computed
+    private static final int LAST_CACHED_YEAR = 2099;
+
+    // Century codes for the day of the week calculation algorithm repeat
+    // every four centuries: 1800s 2, 1900s 0, 2000s 6, 2100s 4
+    private static final int CENTURIES_PER_CYCLE    = 4;
+    private static final int CENTURY_CODE_STEP      = 2;
+    private static final int LEAP_YEAR_JAN_FEB_CODE = 6;
+    private static final int YEARS_PER_CENTURY  = 100;
+    private static final int YEARS_PER_DOZEN    = 12;
+    private static final int YEARS_PER_LEAP     = 4;
+    private static final int DAYS_PER_WEEK      = 7;
+
+    // Lookup tables indexed by month - 1
+    private static final int[] DAYS_IN_MONTH = {
+            DAYS_IN_JANUARY, DAYS_IN_FEBRUARY, DAYS_IN_MARCH,
+            DAYS_IN_APRIL, DAYS_IN_MAY, DAYS_IN_JUNE,
+            DAYS_IN_JULY, DAYS_IN_AUGUST, DAYS_IN_SEPTEMBER,
+            DAYS_IN_OCTOBER, DAYS_IN_NOVEMBER, DAYS_IN_DECEMBER
+    };
+
+    private static final String[] MONTH_NAMES = {
+            JANUARY_NAME, FEBRUARY_NAME, MARCH_NAME,
+            APRIL_NAME, MAY_NAME, JUNE_NAME,
+            JULY_NAME, AUGUST_NAME, SEPTEMBER_NAME,
+            OCTOBER_NAME, NOVEMBER_NAME, DECEMBER_NAME
+    };
+
+    private static final int[] MONTH_CODES = {
+            MONTH_CODE_JANUARY, MONTH_CODE_FEBRUARY, MONTH_CODE_MARCH,
+            MONTH_CODE_APRIL, MONTH_CODE_MAY, MONTH_CODE_JUNE,
+            MONTH_CODE_JULY, MONTH_CODE_AUGUST, MONTH_CODE_SEPTEMBER,
+            MONTH_CODE_OCTOBER, MONTH_CODE_NOVEMBER, MONTH_CODE_DECEMBER
+    };
+
+    // Lookup table indexed by SATURDAY..FRIDAY
+    private static final String[] WEEKDAY_NAMES = {
+            "Saturday", "Sunday", "Monday", "Tuesday",
+            "Wednesday", "Thursday", "Friday"
+    };
+
+    // Year part of the day of the week sum, indexed by year - MINIMUM_YEAR,
+    // for March to December and for January/February
+    private static final int[] YEAR_CODES         = new int[LAST_CACHED_YEAR - MINIMUM_YEAR + 1];
+    private static final int[] JAN_FEB_YEAR_CODES = new int[LAST_CACHED_YEAR - MINIMUM_YEAR + 1];
+
+    static
+    {
+        for (int year = MINIMUM_YEAR; year <= LAST_CACHED_YEAR; year++)
+        {
+            YEAR_CODES[year - MINIMUM_YEAR]         = computeYearCode(year, MARCH);
+            JAN_FEB_YEAR_CODES[year - MINIMUM_YEAR] = computeYearCode(year, JANUARY);
+        }
+    }
+
+    // Bit layout of the packed int form: yyyyyyyyyyyy mmmm ddddd
+    private static final int PACKED_YEAR_SHIFT  = 9;
+    private static final int PACKED_MONTH_SHIFT = 5;
+    private static final int PACKED_MONTH_MASK  = 0xF;
+    private static final int PACKED_DAY_MASK    = 0x1F;
+
+    private static final int  YYYYMMDD_LENGTH  = 10;
+    private static final int  YEAR_DIGITS      = 4;
+    private static final int  MONTH_DAY_DIGITS = 2;
+    private static final int  DECIMAL_BASE     = 10;
+    private static final char DATE_SEPARATOR   = '-';
+
+    /**
+     * Returned by the parsePacked methods when the input is not a valid
+     * date in YYYY-MM-DD format.
+     */
+    public static final int INVALID_PACKED_DATE = -1;
+
+    private static final String INVALID_DATE_MESSAGE = "Not a valid YYYY-MM-DD date.";
+    private static final int    MAXIMUM_DIGIT        = 9;
+    private static final int    FIRST_SEPARATOR      = 4;
+    private static final int    SECOND_SEPARATOR     = 7;
+
+    // Canonical instances for every supported date, filled in on first use
+    private static final int    MAXIMUM_DAYS_IN_ANY_MONTH = 31;
+    private static final int    CACHE_SLOTS_PER_YEAR      = DECEMBER * MAXIMUM_DAYS_IN_ANY_MONTH;
+    private static final Date[] CACHE = new Date[(LAST_CACHED_YEAR - MINIMUM_YEAR) *
+                                                 CACHE_SLOTS_PER_YEAR];
+
+    private final int packed;
 
     /**
      * Constructs a new Date object with the specified day, month, and year.
      * <p>
      * Validates the provided year, month, and day values to ensure they
      * represent a valid date according to the Gregorian calendar.
-     * The year must be between {@value MINIMUM_YEAR} and {@value CURRENT_YEAR},
+     * The year must be after {@value MINIMUM_YEAR} and not after the
+     * {@link WorldClock} year,
      * the month must be between {@value JANUARY} and {@value DECEMBER},
      * and the day must be valid for the specified month and year
      * (including leap year handling for February).
@@ -114,9 +197,288 @@ public final class Date
         checkMonth(month);
         checkDay(day, month, year);
 
-        this.day = day;
-        this.month = month;
-        this.year = year;
+        this.packed = pack(day, month, year);
+    }
+
+    /**
+     * Returns the canonical Date for the given day, month and year.
+     * <p>
+     * Every supported date has one shared instance. The first request for a
+     * date validates it like the constructor; later requests return the
+     * same instance without validating again. Dates outside the supported
+     * range are rejected with the same messages as the constructor.
+     * </p>
+     *
+     * @param day   the day of the month
+     * @param month the month of the year
+     * @param year  the year
+     * @return the canonical Date
+     * @throws IllegalArgumentException if any parameter is invalid
+     */
+    public static Date of(final int day,
+                          final int month,
+                          final int year)
+    {
+        final int index;
+
+        Date date;
+
+        if (year <= MINIMUM_YEAR || year > WorldClock.getYear() || year > LAST_CACHED_YEAR ||
+            month < JANUARY || month > DECEMBER ||
+            day < MINIMUM_DAY_IN_MONTH || day > MAXIMUM_DAYS_IN_ANY_MONTH)
+        {
+            return new Date(day, month, year);
+        }
+
+        index = (year - MINIMUM_YEAR - 1) * CACHE_SLOTS_PER_YEAR +
+                (month - JANUARY) * MAXIMUM_DAYS_IN_ANY_MONTH +
+                (day - MINIMUM_DAY_IN_MONTH);
+        date  = CACHE[index];
+
+        // Date is immutable, so a racing thread can at worst create a
+        // duplicate that is replaced on the next call
+        if (date == null)
+        {
+            date = new Date(day, month, year);
+            CACHE[index] = date;
+        }
+
+        return date;
+    }
+
+    /**
+     * Returns the canonical Date for a packed date.
+     *
+     * @param packed the packed date, as produced by {@link #toPackedInt()}
+     * @return the canonical Date
+     * @throws IllegalArgumentException if the packed date is invalid
+     */
+    static Date ofPacked(final int packed)
+    {
+        return of(packedDay(packed), packedMonth(packed), packedYear(packed));
+    }
+
+    /**
+     * Parses a date in the YYYY-MM-DD format produced by
+     * {@link #getYYYYMMDD()}.
+     *
+     * @param text the text to parse; must hold exactly one date
+     * @return the canonical Date
+     * @throws IllegalArgumentException if text is not a valid date
+     */
+    public static Date parse(final CharSequence text)
+    {
+        return fromParsed(parsePacked(text));
+    }
+
+    /**
+     * Parses a date in YYYY-MM-DD format from ASCII bytes.
+     *
+     * @param bytes  the bytes to read
+     * @param offset the index of the first digit of the year
+     * @return the canonical Date
+     * @throws IllegalArgumentException if the bytes are not a valid date
+     */
+    public static Date parse(final byte[] bytes,
+                             final int offset)
+    {
+        return fromParsed(parsePacked(bytes, offset));
+    }
+
+    /**
+     * Parses a date in YYYY-MM-DD format from ASCII bytes in a buffer,
+     * without moving the buffer's position.
+     *
+     * @param buffer the buffer to read
+     * @param offset the absolute index of the first digit of the year
+     * @return the canonical Date
+     * @throws IllegalArgumentException if the bytes are not a valid date
+     */
+    public static Date parse(final ByteBuffer buffer,
+                             final int offset)
+    {
+        return fromParsed(parsePacked(buffer, offset));
+    }
+
+    /**
+     * Parses a date in YYYY-MM-DD format into its packed form without
+     * throwing or allocating.
+     *
+     * @param text the text to parse; must hold exactly one date
+     * @return the packed date, or {@value #INVALID_PACKED_DATE} if text is
+     *         not a valid date
+     */
+    public static int parsePacked(final CharSequence text)
+    {
+        int digits;
+
+        if (text == null || text.length() != YYYYMMDD_LENGTH ||
+            text.charAt(FIRST_SEPARATOR) != DATE_SEPARATOR ||
+            text.charAt(SECOND_SEPARATOR) != DATE_SEPARATOR)
+        {
+            return INVALID_PACKED_DATE;
+        }
+
+        digits = 0;
+
+        for (int i = 0; i < YYYYMMDD_LENGTH; i++)
+        {
+            if (i != FIRST_SEPARATOR && i != SECOND_SEPARATOR)
+            {
+                digits = appendDigit(digits, text.charAt(i));
+            }
+        }
+
+        return packDigits(digits);
+    }
+
+    /**
+     * Parses a date in YYYY-MM-DD format from ASCII bytes into its packed
+     * form without throwing or allocating.
+     *
+     * @param bytes  the bytes to read
+     * @param offset the index of the first digit of the year
+     * @return the packed date, or {@value #INVALID_PACKED_DATE} if the
+     *         bytes are not a valid date
+     */
+    public static int parsePacked(final byte[] bytes,
+                                  final int offset)
+    {
+        int digits;
+
+        if (bytes == null || offset < 0 ||
+            offset > bytes.length - YYYYMMDD_LENGTH ||
+            bytes[offset + FIRST_SEPARATOR] != DATE_SEPARATOR ||
+            bytes[offset + SECOND_SEPARATOR] != DATE_SEPARATOR)
+        {
+            return INVALID_PACKED_DATE;
+        }
+
+        digits = 0;
+
+        for (int i = 0; i < YYYYMMDD_LENGTH; i++)
+        {
+            if (i != FIRST_SEPARATOR && i != SECOND_SEPARATOR)
+            {
+                digits = appendDigit(digits, bytes[offset + i]);
+            }
+        }
+
+        return packDigits(digits);
+    }
+
+    /**
+     * Parses a date in YYYY-MM-DD format from ASCII bytes in a buffer into
+     * its packed form without throwing, allocating or moving the buffer's
+     * position.
+     *
+     * @param buffer the buffer to read
+     * @param offset the absolute index of the first digit of the year
+     * @return the packed date, or {@value #INVALID_PACKED_DATE} if the
+     *         bytes are not a valid date
+     */
+    public static int parsePacked(final ByteBuffer buffer,
+                                  final int offset)
+    {
+        int digits;
+
+        if (buffer == null || offset < 0 ||
+            offset > buffer.limit() - YYYYMMDD_LENGTH ||
+            buffer.get(offset + FIRST_SEPARATOR) != DATE_SEPARATOR ||
+            buffer.get(offset + SECOND_SEPARATOR) != DATE_SEPARATOR)
+        {
+            return INVALID_PACKED_DATE;
+        }
+
+        digits = 0;
+
+        for (int i = 0; i < YYYYMMDD_LENGTH; i++)
+        {
+            if (i != FIRST_SEPARATOR && i != SECOND_SEPARATOR)
+            {
+                digits = appendDigit(digits, buffer.get(offset + i));
+            }
+        }
+
+        return packDigits(digits);
+    }
+
+    /*
+    Shifts one more decimal digit into value
+    returns a negative number once any character was not a digit
+     */
+    private static int appendDigit(final int value,
+                                   final int character)
+    {
+        final int digit;
+
+        digit = character - '0';
+
+        if (value < 0 || digit < 0 || digit > MAXIMUM_DIGIT)
+        {
+            return INVALID_PACKED_DATE;
+        }
+
+        return value * DECIMAL_BASE + digit;
+    }
+
+    /*
+    Splits the eight digits YYYYMMDD and validates them as a date
+    returns the packed date or INVALID_PACKED_DATE
+     */
+    private static int packDigits(final int digits)
+    {
+        final int year;
+        final int month;
+        final int day;
+        final int dayAndMonthDivisor;
+        final int dayDivisor;
+
+        if (digits < 0)
+        {
+            return INVALID_PACKED_DATE;
+        }
+
+        dayDivisor         = DECIMAL_BASE * DECIMAL_BASE;
+        dayAndMonthDivisor = dayDivisor * dayDivisor;
+
+        year  = digits / dayAndMonthDivisor;
+        month = digits / dayDivisor % dayDivisor;
+        day   = digits % dayDivisor;
+
+        if (!isValid(day, month, year))
+        {
+            return INVALID_PACKED_DATE;
+        }
+
+        return pack(day, month, year);
+    }
+
+    /*
+    Same rules as the constructor, answered without throwing
+     */
+    private static boolean isValid(final int day,
+                                   final int month,
+                                   final int year)
+    {
+        return year > MINIMUM_YEAR && year <= WorldClock.getYear() &&
+               month >= JANUARY && month <= DECEMBER &&
+               day >= MINIMUM_DAY_IN_MONTH &&
+               day <= getDaysInMonth(month, year);
+    }
+
+    /*
+    Converts a parsed packed date to its canonical Date
+    throws new IllegalArgumentException
+     */
+    private static Date fromParsed(final int packed)
+    {
+        if (packed == INVALID_PACKED_DATE)
+        {
+            throw new IllegalArgumentException(INVALID_DATE_MESSAGE);
+        }
+
+        return ofPacked(packed);
     }
 
     /**
@@ -135,17 +497,22 @@ public final class Date
 
     /**
      * Checks if the provided year is within the valid range.
-     * The valid range is between {@value MINIMUM_YEAR} and {@value CURRENT_YEAR}, inclusive.
+     * The valid range is after {@value MINIMUM_YEAR} up to the
+     * {@link WorldClock} year, inclusive.
      *
      * @param year the year to validate
      * @throws IllegalArgumentException if year is not between the bounds
      */
     public static void checkYear(final int year)
     {
-        if (year <= MINIMUM_YEAR || year > CURRENT_YEAR)
+        final int currentYear;
+
+        currentYear = WorldClock.getYear();
+
+        if (year <= MINIMUM_YEAR || year > currentYear)
         {
             throw new IllegalArgumentException("Year must be between " +
-                    MINIMUM_YEAR + " and " + CURRENT_YEAR + ".");
+                    MINIMUM_YEAR + " and " + currentYear + ".");
         }
     }
 
@@ -202,62 +569,17 @@ public final class Date
 
     private static int getDaysInMonth(int month, int year)
     {
-        if (month == JANUARY)
-        {
-            return DAYS_IN_JANUARY;
-        }
-        else if (month == FEBRUARY)
-        {
-            if (isLeapYear(year))
-            {
-                return DAYS_IN_FEBRUARY_LEAP_YEAR;
-            }
-            return DAYS_IN_FEBRUARY;
-        }
-        else if (month == MARCH)
-        {
-            return DAYS_IN_MARCH;
-        }
-        else if (month == APRIL)
-        {
-            return DAYS_IN_APRIL;
-        }
-        else if (month == MAY)
-        {
-            return DAYS_IN_MAY;
-        }
-        else if (month == JUNE)
-        {
-            return DAYS_IN_JUNE;
-        }
-        else if (month == JULY)
-        {
-            return DAYS_IN_JULY;
-        }
-        else if (month == AUGUST)
-        {
-            return DAYS_IN_AUGUST;
-        }
-        else if (month == SEPTEMBER)
-        {
-            return DAYS_IN_SEPTEMBER;
-        }
-        else if (month == OCTOBER)
-        {
-            return DAYS_IN_OCTOBER;
-        }
-        else if (month == NOVEMBER)
-        {
-            return DAYS_IN_NOVEMBER;
-        }
-        else if (month == DECEMBER)
+        if (month < JANUARY || month > DECEMBER)
         {
-            return DAYS_IN_DECEMBER;
+            throw new IllegalArgumentException("Invalid month: " + month);
         }
-        else
+
+        if (month == FEBRUARY && isLeapYear(year))
         {
-            throw new IllegalArgumentException("Invalid month: " + month);
+            return DAYS_IN_FEBRUARY_LEAP_YEAR;
         }
+
+        return DAYS_IN_MONTH[month - JANUARY];
     }
 
     /**
@@ -293,7 +615,7 @@ public final class Date
      */
     public int getDay()
     {
-        return day;
+        return packedDay(packed);
     }
 
     /**
@@ -303,7 +625,7 @@ public final class Date
      */
     public int getMonth()
     {
-        return month;
+        return packedMonth(packed);
     }
 
     /**
@@ -313,58 +635,7 @@ public final class Date
      */
     public String getMonthName()
     {
-        if (month == JANUARY)
-        {
-            return JANUARY_NAME;
-        }
-        else if (month == FEBRUARY)
-        {
-            return FEBRUARY_NAME;
-        }
-        else if (month == MARCH)
-        {
-            return MARCH_NAME;
-        }
-        else if (month == APRIL)
-        {
-            return APRIL_NAME;
-        }
-        else if (month == MAY)
-        {
-            return MAY_NAME;
-        }
-        else if (month == JUNE)
-        {
-            return JUNE_NAME;
-        }
-        else if (month == JULY)
-        {
-            return JULY_NAME;
-        }
-        else if (month == AUGUST)
-        {
-            return AUGUST_NAME;
-        }
-        else if (month == SEPTEMBER)
-        {
-            return SEPTEMBER_NAME;
-        }
-        else if (month == OCTOBER)
-        {
-            return OCTOBER_NAME;
-        }
-        else if (month == NOVEMBER)
-        {
-            return NOVEMBER_NAME;
-        }
-        else if (month == DECEMBER)
-        {
-            return DECEMBER_NAME;
-        }
-        else
-        {
-            throw new IllegalArgumentException("Invalid month: " + month);
-        }
+        return MONTH_NAMES[getMonth() - JANUARY];
     }
 
     /**
@@ -374,7 +645,70 @@ public final class Date
      */
     public int getYear()
     {
-        return this.year;
+        return packedYear(packed);
+    }
+
+    /**
+     * Packs this date into a single int.
+     * The year, month and day occupy separate bit fields, so packed dates
+     * compare in the same order as the dates they represent.
+     *
+     * @return the packed form of this date
+     */
+    public int toPackedInt()
+    {
+        return packed;
+    }
+
+    /**
+     * Packs the given day, month and year into a single int.
+     * No validation is performed.
+     *
+     * @param day   the day of the month
+     * @param month the month of the year
+     * @param year  the year
+     * @return the packed date
+     */
+    static int pack(final int day,
+                    final int month,
+                    final int year)
+    {
+        return (year << PACKED_YEAR_SHIFT) |
+               (month << PACKED_MONTH_SHIFT) |
+               day;
+    }
+
+    /**
+     * Extracts the day of the month from a packed date.
+     *
+     * @param packed the packed date
+     * @return the day of the month
+     */
+    static int packedDay(final int packed)
+    {
+        return packed & PACKED_DAY_MASK;
+    }
+
+    /**
+     * Extracts the month of the year from a packed date.
+     *
+     * @param packed the packed date
+     * @return the month of the year
+     */
+    static int packedMonth(final int packed)
+    {
+        return (packed >>> PACKED_MONTH_SHIFT) & PACKED_MONTH_MASK;
+    }
+
+    /**
+     * Extracts the year from a packed date.
+     *
+     * @param packed the packed date
+     * @return the year
+     */
+    static int packedYear(final int packed)
+    {
+        return packed >>> PACKED_YEAR_SHIFT;
     }
 
     /**
@@ -384,7 +718,49 @@ public final class Date
      */
     public String getYYYYMMDD()
     {
-        return String.format("%04d-%02d-%02d", year, month, day);
+        return appendYYYYMMDD(new StringBuilder(YYYYMMDD_LENGTH)).toString();
+    }
+
+    /**
+     * Appends this date in YYYY-MM-DD format to the given builder without
+     * creating any intermediate strings.
+     *
+     * @param builder the builder to append to
+     * @return the same builder
+     */
+    public StringBuilder appendYYYYMMDD(final StringBuilder builder)
+    {
+        appendPadded(builder, getYear(), YEAR_DIGITS);
+        builder.append(DATE_SEPARATOR);
+        appendPadded(builder, getMonth(), MONTH_DAY_DIGITS);
+        builder.append(DATE_SEPARATOR);
+        appendPadded(builder, getDay(), MONTH_DAY_DIGITS);
+
+        return builder;
+    }
+
+    /*
+    Appends a non-negative value left-padded with zeros to the given width
+     */
+    private static void appendPadded(final StringBuilder builder,
+                                     final int value,
+                                     final int width)
+    {
+        int limit;
+
+        limit = 1;
+
+        for (int digit = 1; digit < width; digit++)
+        {
+            limit *= DECIMAL_BASE;
+
+            if (value < limit)
+            {
+                builder.append('0');
+            }
+        }
+
+        builder.append(value);
     }
 
     /**
@@ -405,73 +781,103 @@ public final class Date
      *   <li>Step 6: Add all previous numbers and mod by 7.</li>
      *   <li>Step 7: Map the result to the day of the week
      * </ul>
+     * The century code and steps 1 to 3 only depend on the year, so they are
+     * precomputed once per year and the rest is a table lookup.
      * </p>
      *
      * @return the day of the week as a String
      */
     public String getDayOfTheWeek()
     {
-        final int    stepZeroConstantJanFebLeapYear;
-        final int    stepZeroConstant2000s;
-        final int    stepZeroConstant1800s;
-        final int    findTensValue;
-        final int    tensValueDivision;
-        final int    stepOneDivision;
-        final int    stepThreeDivision;
-        final int    stepSixDivision;
-        final String finalValue;
-
-        int stepZeroValue;
-        int stepOneValue;
-        int stepTwoValue;
-        int stepThreeValue;
-        int stepFourValue;
-        int stepFiveValue;
-        int stepSixValue;
-
-        stepZeroConstantJanFebLeapYear = 6;
-        stepZeroConstant2000s          = 6;
-        stepZeroConstant1800s          = 2;
-        tensValueDivision              = 100;
-        stepOneDivision                = 12;
-        stepThreeDivision              = 4;
-        stepSixDivision                = 7;
-        stepZeroValue                  = 0;
-
-        if (isLeapYear(year) && (month == JANUARY || month == FEBRUARY))
+        return WEEKDAY_NAMES[getDayOfWeekIndex(packed)];
+    }
+
+    /**
+     * Calculates the day of the week for many packed dates at once.
+     * The names written are the same shared instances returned by
+     * {@link #getDayOfTheWeek()}.
+     *
+     * @param packedDates the dates, as produced by {@link #toPackedInt()}
+     * @param weekdays    receives the day of the week of each date
+     * @throws IllegalArgumentException if weekdays is shorter than packedDates
+     */
+    public static void getDaysOfTheWeek(final int[] packedDates,
+                                        final String[] weekdays)
+    {
+        if (weekdays.length < packedDates.length)
         {
-            stepZeroValue += stepZeroConstantJanFebLeapYear;
+            throw new IllegalArgumentException("Expected room for " +
+                    packedDates.length + " weekdays but got " + weekdays.length);
         }
 
-        if (year >= TWENTY_FIRST_CENTURY_START)
+        for (int i = 0; i < packedDates.length; i++)
         {
-            stepZeroValue += stepZeroConstant2000s;
+            weekdays[i] = WEEKDAY_NAMES[getDayOfWeekIndex(packedDates[i])];
         }
-        else if (year <= NINETEENTH_CENTURY_START)
+    }
+
+    /*
+    Sums the year code, month code, leap year adjustment and day, mod 7
+    returns SATURDAY..FRIDAY
+     */
+    private static int getDayOfWeekIndex(final int packed)
+    {
+        final int day;
+        final int month;
+        final int year;
+        final int yearCode;
+
+        day   = packedDay(packed);
+        month = packedMonth(packed);
+        year  = packedYear(packed);
+
+        if (year < MINIMUM_YEAR || year > LAST_CACHED_YEAR)
+        {
+            yearCode = computeYearCode(year, month);
+        }
+        else if (month <= FEBRUARY)
+        {
+            yearCode = JAN_FEB_YEAR_CODES[year - MINIMUM_YEAR];
+        }
+        else
         {
-            stepZeroValue += stepZeroConstant1800s;
+            yearCode = YEAR_CODES[year - MINIMUM_YEAR];
         }
 
-        findTensValue  = year % tensValueDivision;
+        return (yearCode + getMonthCode(month) + day) % DAYS_PER_WEEK;
+    }
+
+    /*
+    Century code, leap year adjustment and steps 1 to 3 of the day of the
+    week algorithm
+     */
+    private static int computeYearCode(final int year,
+                                       final int month)
+    {
+        final int lastTwoDigits;
+        final int twelves;
+        final int remainder;
+        final int fours;
+        final int centuryCode;
 
-        stepOneValue   = findTensValue / stepOneDivision;
-        stepTwoValue   = findTensValue % stepOneDivision;
-        stepThreeValue = stepTwoValue  / stepThreeDivision;
+        int code;
 
-        stepFourValue  = stepZeroValue +
-                         stepOneValue +
-                         stepTwoValue +
-                         stepThreeValue +
-                         day;
+        lastTwoDigits = year % YEARS_PER_CENTURY;
+        twelves       = lastTwoDigits / YEARS_PER_DOZEN;
+        remainder     = lastTwoDigits % YEARS_PER_DOZEN;
+        fours         = remainder / YEARS_PER_LEAP;
 
-        stepFiveValue  = stepFourValue +
-                         getMonthCode(month);
+        centuryCode   = (CENTURIES_PER_CYCLE - 1 -
+                         year / YEARS_PER_CENTURY % CENTURIES_PER_CYCLE) * CENTURY_CODE_STEP;
 
-        stepSixValue   = stepFiveValue % stepSixDivision;
+        code = centuryCode + twelves + remainder + fours;
 
-        finalValue     = getDayOfWeekName(stepSixValue);
+        if (month <= FEBRUARY && isLeapYear(year))
+        {
+            code += LEAP_YEAR_JAN_FEB_CODE;
+        }
 
-        return finalValue;
+        return code % DAYS_PER_WEEK;
     }
 
     /**
@@ -482,98 +888,46 @@ public final class Date
      * @return the month code as an int
      * @throws IllegalArgumentException if the month is not valid
      */
-    private int getMonthCode(final int month)
+    private static int getMonthCode(final int month)
     {
-        if (month == JANUARY)
-        {
-            return MONTH_CODE_JANUARY;
-        }
-        else if (month == FEBRUARY)
-        {
-            return MONTH_CODE_FEBRUARY;
-        }
-        else if (month == MARCH)
-        {
-            return MONTH_CODE_MARCH;
-        }
-        else if (month == APRIL)
-        {
-            return MONTH_CODE_APRIL;
-        }
-        else if (month == MAY)
-        {
-            return MONTH_CODE_MAY;
-        }
-        else if (month == JUNE)
-        {
-            return MONTH_CODE_JUNE;
-        }
-        else if (month == JULY)
-        {
-            return MONTH_CODE_JULY;
-        }
-        else if (month == AUGUST)
-        {
-            return MONTH_CODE_AUGUST;
-        }
-        else if (month == SEPTEMBER)
-        {
-            return MONTH_CODE_SEPTEMBER;
-        }
-        else if (month == OCTOBER)
-        {
-            return MONTH_CODE_OCTOBER;
-        }
-        else if (month == NOVEMBER)
-        {
-            return MONTH_CODE_NOVEMBER;
-        }
-        else if (month == DECEMBER)
+        if (month < JANUARY || month > DECEMBER)
         {
-            return MONTH_CODE_DECEMBER;
+            throw new IllegalArgumentException("Invalid month: " + month);
         }
 
-        throw new IllegalArgumentException("Invalid month: " + month);
+        return MONTH_CODES[month - JANUARY];
     }
 
     /**
-     * Returns the name of the day of the week.
+     * Checks if another object is a Date for the same day.
      *
-     * @param dayIndex the index of the day
-     * @return the name of the day of the week as a String
-     * @throws IllegalArgumentException if the day index does not correspond to
-     *                                  a valid day
+     * @param obj the object to compare with
+     * @return true if obj is a Date with the same day, month and year
      */
-    private String getDayOfWeekName(final int dayIndex)
+    @Override
+    public boolean equals(final Object obj)
     {
-        if (dayIndex == SATURDAY)
-        {
-            return "Saturday";
-        }
-        else if (dayIndex == SUNDAY)
-        {
-            return "Sunday";
-        }
-        else if (dayIndex == MONDAY)
+        if (this == obj)
         {
-            return "Monday";
+            return true;
         }
-        else if (dayIndex == TUESDAY)
-        {
-            return "Tuesday";
-        }
-        else if (dayIndex == WEDNESDAY)
-        {
-            return "Wednesday";
-        }
-        else if (dayIndex == THURSDAY)
-        {
-            return "Thursday";
-        }
-        else if (dayIndex == FRIDAY)
+
+        if (!(obj instanceof Date))
         {
-            return "Friday";
+            return false;
         }
-        throw new IllegalArgumentException("Invalid day index: " + dayIndex);
+
+        return packed == ((Date) obj).packed;
+    }
+
+    /**
+     * Returns a hash code based on the day, month and year.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode()
+    {
+        return Integer.hashCode(packed);
     }
 }
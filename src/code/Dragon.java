@@ -1,3 +1,6 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * Represents a dragon, which is a type of creature with a unique
  * firepower attribute and abilities.
@@ -21,9 +24,12 @@
  * <ul>
  *     <li>{@code int breatheFire()}: Attempts to use the dragon's fire breath,
  *     reducing {@code firePower} by {@link #FIRE_POWER_ACTIVATION} and
- *     returning {@link #FIRE_BREATH_DAMAGE}.
+ *     returning {@link #FIRE_BREATH_DAMAGE}, or a roll around it if the
+ *     dragon has a combat seed.
  *     Throws {@code LowFirePowerException} if {@code firePower}
  *     is insufficient.</li>
+ *     <li>{@code int tryBreatheFire()}: Same as {@code breatheFire()}, but
+ *     returns {@link #ABILITY_FAILED} instead of throwing.</li>
  *     <li>{@code void restoreFirePower(final int amount)}: Restores the
  *     dragon's {@code firePower} by the specified amount, not exceeding
  *     {@link #MAXIMUM_FIRE_POWER}.</li>
@@ -41,7 +47,28 @@ public class Dragon extends Creature
     public static final int FIRE_POWER_ACTIVATION = 10;
     public static final int FIRE_BREATH_DAMAGE    = 20;
 
-    private int firePower;
+    /**
+     * The least fire power a dragon can reach by breathing fire, below the
+     * {@value #MINIMUM_FIRE_POWER} a new dragon must start with.
+     */
+    static final int SPENT_FIRE_POWER = 0;
+
+    private static final VarHandle FIRE_POWER;
+
+    static
+    {
+        try
+        {
+            FIRE_POWER = MethodHandles.lookup()
+                    .findVarHandle(Dragon.class, "firePower", int.class);
+        }
+        catch (final ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile int firePower;
 
     /**
      * Constructs a new Dragon with the specified name, date of birth,
@@ -73,28 +100,65 @@ public class Dragon extends Creature
                   final Date dateOfBirth,
                   final int health,
                   final int firePower)
+    {
+        this(name, dateOfBirth, health, firePower, MINIMUM_FIRE_POWER);
+    }
+
+    private Dragon(final String name,
+                   final Date dateOfBirth,
+                   final int health,
+                   final int firePower,
+                   final int minimumFirePower)
     {
         super(name, dateOfBirth, health);
 
-        checkFirePower(firePower);
+        checkFirePower(firePower, minimumFirePower);
 
         this.firePower = firePower;
     }
 
+    /**
+     * Rebuilds a saved dragon. Unlike the public constructor, this accepts
+     * any fire power the dragon can reach at runtime, from
+     * {@value #SPENT_FIRE_POWER} up, so a dragon that has spent its fire
+     * power can be saved and loaded again.
+     *
+     * @param name        the name of the dragon
+     * @param dateOfBirth the date of birth of the dragon
+     * @param health      the health of the dragon
+     * @param firePower   the fire power, between {@value #SPENT_FIRE_POWER}
+     *                    and {@value #MAXIMUM_FIRE_POWER}
+     * @return the dragon
+     * @throws IllegalArgumentException if any value is out of range
+     */
+    static Dragon restore(final String name,
+                          final Date dateOfBirth,
+                          final int health,
+                          final int firePower)
+    {
+        return new Dragon(name, dateOfBirth, health, firePower, SPENT_FIRE_POWER);
+    }
+
     /*
     Check to see if firePower is between min and max constraints
     throws new IllegalArgumentException
      */
-    private void checkFirePower(final int firePower)
+    static void checkFirePower(final int firePower)
+    {
+        checkFirePower(firePower, MINIMUM_FIRE_POWER);
+    }
+
+    private static void checkFirePower(final int firePower,
+                                       final int minimumFirePower)
     {
-        if (firePower < MINIMUM_FIRE_POWER ||
+        if (firePower < minimumFirePower ||
             firePower > MAXIMUM_FIRE_POWER)
         {
             final StringBuilder errorMessage;
             errorMessage = new StringBuilder();
 
             errorMessage.append("Fire power must be between ");
-            errorMessage.append(MINIMUM_FIRE_POWER);
+            errorMessage.append(minimumFirePower);
             errorMessage.append(" and ");
             errorMessage.append(MAXIMUM_FIRE_POWER);
             errorMessage.append(".");
@@ -104,22 +168,30 @@ public class Dragon extends Creature
     }
 
     /**
-     * Returns the details of the dragon, including its firepower.
+     * Gets the dragon's current firepower.
      *
-     * @return the dragon's details
+     * @return current firepower.
      */
-    @Override
-    public String getDetails()
+    public int getFirePower()
     {
-        final StringBuilder detailsBuilder;
-        detailsBuilder = new StringBuilder();
+        return firePower;
+    }
 
-        detailsBuilder.append(super.getDetails());
+    /**
+     * Appends the details of the dragon, including its firepower.
+     *
+     * @param detailsBuilder the builder to append to
+     * @return the same builder
+     */
+    @Override
+    public StringBuilder appendDetails(final StringBuilder detailsBuilder)
+    {
+        super.appendDetails(detailsBuilder);
         detailsBuilder.append("Fire Power: ");
         detailsBuilder.append(firePower);
         detailsBuilder.append("\n");
 
-        return detailsBuilder.toString();
+        return detailsBuilder;
     }
 
     /**
@@ -131,15 +203,61 @@ public class Dragon extends Creature
      */
     public int breatheFire() throws LowFirePowerException
     {
-        if (firePower < FIRE_POWER_ACTIVATION)
+        final int damage;
+
+        damage = tryBreatheFire();
+
+        if (damage == ABILITY_FAILED)
         {
             throw new LowFirePowerException("Fire power must be at least " +
                     FIRE_POWER_ACTIVATION);
         }
 
-        firePower -= FIRE_POWER_ACTIVATION;
+        return damage;
+    }
+
+    /**
+     * Attempts to use dragon's fire breath without throwing.
+     * Costs {@value FIRE_POWER_ACTIVATION} amount each cast.
+     *
+     * @return {@value #FIRE_BREATH_DAMAGE}, or a roll around it if the
+     *         dragon has a combat seed, or {@value #ABILITY_FAILED}
+     *         if firePower is insufficient for cast cost.
+     */
+    public int tryBreatheFire()
+    {
+        final long startNanos;
+
+        int current;
+
+        startNanos = CreatureMetrics.start();
+
+        do
+        {
+            current = firePower;
+
+            if (current < FIRE_POWER_ACTIVATION)
+            {
+                if (CreatureMetrics.ENABLED)
+                {
+                    CreatureMetrics.record(CreatureListener.BREATHE_FIRE, true, startNanos);
+                }
+
+                return ABILITY_FAILED;
+            }
+        }
+        while (!FIRE_POWER.compareAndSet(this, current,
+                                         current - FIRE_POWER_ACTIVATION));
+
+        notifyListeners(CreatureListener.BREATHE_FIRE, current,
+                        current - FIRE_POWER_ACTIVATION);
+
+        if (CreatureMetrics.ENABLED)
+        {
+            CreatureMetrics.record(CreatureListener.BREATHE_FIRE, false, startNanos);
+        }
 
-        return FIRE_BREATH_DAMAGE;
+        return rollDamage(FIRE_BREATH_DAMAGE);
     }
 
     /**
@@ -150,11 +268,26 @@ public class Dragon extends Creature
      */
     public void restoreFirePower(final int amount)
     {
-        firePower += amount;
+        final long startNanos;
+
+        int current;
+        int updated;
+
+        startNanos = CreatureMetrics.start();
+
+        do
+        {
+            current = firePower;
+            updated = Math.min(current + amount, MAXIMUM_FIRE_POWER);
+        }
+        while (!FIRE_POWER.compareAndSet(this, current, updated));
+
+        notifyListeners(CreatureListener.RESTORE_FIRE_POWER, current, updated);
 
-        if (firePower > MAXIMUM_FIRE_POWER)
+        if (CreatureMetrics.ENABLED)
         {
-            firePower = MAXIMUM_FIRE_POWER;
+            CreatureMetrics.record(CreatureListener.RESTORE_FIRE_POWER,
+                                   current + amount > MAXIMUM_FIRE_POWER, startNanos);
         }
     }
 }
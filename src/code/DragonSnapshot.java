@@ -0,0 +1,28 @@
+/**
+ * An immutable snapshot of a {@link Dragon}, with its fire power.
+ *
+ * @param name        the name
+ * @param dateOfBirth the date of birth
+ * @param health      the health when the snapshot was taken
+ * @param firePower   the fire power when the snapshot was taken
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public record DragonSnapshot(String name,
+                             Date dateOfBirth,
+                             int health,
+                             int firePower) implements CreatureSnapshot
+{
+    /**
+     * Gets the fire power.
+     *
+     * @return fire power
+     */
+    @Override
+    public int resource()
+    {
+        return firePower;
+    }
+}
@@ -1,3 +1,6 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * Represents an Elf, a type of {@link Creature} that uses mana to cast spells.
  * An Elf has a name, date of birth, health, and mana. Mana is used to cast spells,
@@ -10,12 +13,27 @@
  */
 public class Elf extends Creature
 {
-    private static final int MINIMUM_MANA = 0;
-    private static final int MAXIMUM_MANA = 50;
-    private static final int SPELL_COST   = 5;
-    private static final int SPELL_DAMAGE = 10;
+    static final int MINIMUM_MANA = 0;
+    static final int MAXIMUM_MANA = 50;
+    static final int SPELL_COST   = 5;
+    static final int SPELL_DAMAGE = 10;
+
+    private static final VarHandle MANA;
+
+    static
+    {
+        try
+        {
+            MANA = MethodHandles.lookup()
+                    .findVarHandle(Elf.class, "mana", int.class);
+        }
+        catch (final ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
-    private int mana;
+    private volatile int mana;
 
     /**
      * Constructs a new Elf with the specified name, date of birth,
@@ -48,7 +66,7 @@ public class Elf extends Creature
      * @throws IllegalArgumentException if mana is less than
      *         {@value #MINIMUM_MANA} or greater than {@value #MAXIMUM_MANA}
      */
-    private void checkMana(final int mana)
+    static void checkMana(final int mana)
     {
         if (mana < MINIMUM_MANA || mana > MAXIMUM_MANA)
         {
@@ -66,14 +84,28 @@ public class Elf extends Creature
     }
 
     /**
-     * Returns the details of the Elf, including mana.
+     * Gets the Elf's current mana.
+     *
+     * @return current mana.
+     */
+    public int getMana()
+    {
+        return mana;
+    }
+
+    /**
+     * Appends the details of the Elf, including mana.
      *
-     * @return a string with the Elf's details and current mana
+     * @param detailsBuilder the builder to append to
+     * @return the same builder, holding the Elf's details and current mana
      */
     @Override
-    public String getDetails()
+    public StringBuilder appendDetails(final StringBuilder detailsBuilder)
     {
-        return super.getDetails() + "Mana: " + mana + "\n";
+        return super.appendDetails(detailsBuilder)
+                .append("Mana: ")
+                .append(mana)
+                .append("\n");
     }
 
     /**
@@ -82,20 +114,65 @@ public class Elf extends Creature
      * If there is not enough mana, a {@link LowManaException} is thrown.
      *
      * @return the amount of damage dealt by the spell, which
-     *         is {@value #SPELL_DAMAGE}
+     *         is {@value #SPELL_DAMAGE}, or a roll around it if the Elf
+     *         has a combat seed
      * @throws LowManaException if the Elf does not have at least
      *         {@value #SPELL_COST} mana
      */
     public int castSpell() throws LowManaException
     {
-        if (mana < SPELL_COST)
+        final int damage;
+
+        damage = tryCastSpell();
+
+        if (damage == ABILITY_FAILED)
         {
             throw new LowManaException("Not enough mana to cast a spell.");
         }
 
-        mana -= SPELL_COST;
+        return damage;
+    }
+
+    /**
+     * Attempts to cast a spell without throwing, reducing mana by
+     * {@value #SPELL_COST} on success.
+     *
+     * @return {@value #SPELL_DAMAGE}, or a roll around it if the Elf has
+     *         a combat seed, or {@value #ABILITY_FAILED} if the Elf does
+     *         not have at least {@value #SPELL_COST} mana
+     */
+    public int tryCastSpell()
+    {
+        final long startNanos;
+
+        int current;
+
+        startNanos = CreatureMetrics.start();
+
+        do
+        {
+            current = mana;
+
+            if (current < SPELL_COST)
+            {
+                if (CreatureMetrics.ENABLED)
+                {
+                    CreatureMetrics.record(CreatureListener.CAST_SPELL, true, startNanos);
+                }
+
+                return ABILITY_FAILED;
+            }
+        }
+        while (!MANA.compareAndSet(this, current, current - SPELL_COST));
+
+        notifyListeners(CreatureListener.CAST_SPELL, current, current - SPELL_COST);
 
-        return SPELL_DAMAGE;
+        if (CreatureMetrics.ENABLED)
+        {
+            CreatureMetrics.record(CreatureListener.CAST_SPELL, false, startNanos);
+        }
+
+        return rollDamage(SPELL_DAMAGE);
     }
 
     /**
@@ -106,11 +183,26 @@ public class Elf extends Creature
      */
     public void restoreMana(final int amount)
     {
-        mana += amount;
+        final long startNanos;
+
+        int current;
+        int updated;
+
+        startNanos = CreatureMetrics.start();
+
+        do
+        {
+            current = mana;
+            updated = Math.min(current + amount, MAXIMUM_MANA);
+        }
+        while (!MANA.compareAndSet(this, current, updated));
+
+        notifyListeners(CreatureListener.RESTORE_MANA, current, updated);
 
-        if (mana > MAXIMUM_MANA)
+        if (CreatureMetrics.ENABLED)
         {
-            mana = MAXIMUM_MANA;
+            CreatureMetrics.record(CreatureListener.RESTORE_MANA,
+                                   current + amount > MAXIMUM_MANA, startNanos);
         }
     }
 }
\ No newline at end of file
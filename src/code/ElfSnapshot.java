@@ -0,0 +1,28 @@
+/**
+ * An immutable snapshot of an {@link Elf}, with its mana.
+ *
+ * @param name        the name
+ * @param dateOfBirth the date of birth
+ * @param health      the health when the snapshot was taken
+ * @param mana        the mana when the snapshot was taken
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public record ElfSnapshot(String name,
+                          Date dateOfBirth,
+                          int health,
+                          int mana) implements CreatureSnapshot
+{
+    /**
+     * Gets the mana.
+     *
+     * @return mana
+     */
+    @Override
+    public int resource()
+    {
+        return mana;
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.Arrays;
+
+/**
+ * Orders creatures by {@link Creature#getCurrentHealth()} without boxing,
+ * for queries such as the weakest enemies in range.
+ * <p>
+ * Creatures are named by their slot in a Creature array, held in an
+ * {@link IntList}. Health is always between {@value Creature#MIN_HEALTH}
+ * and {@value Creature#MAX_HEALTH}, so the sorter counts slots per health
+ * value and places them in one more pass. Both sorting and finding the
+ * weakest few cost O(n) with no comparisons. Each health is read once, so
+ * a creature damaged during a query is placed by the health it had when
+ * it was read. Sorting is stable: slots with equal health keep their
+ * order.
+ * </p>
+ * <p>
+ * A sorter keeps its scratch arrays between calls, so repeated queries
+ * allocate nothing. Not thread-safe; use one sorter per thread.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class HealthSorter
+{
+    private static final int HEALTH_VALUES = Creature.MAX_HEALTH - Creature.MIN_HEALTH + 1;
+    private static final int DEAD          = 0;
+
+    private final int[] counts;
+
+    private int[] healths;
+    private int[] sorted;
+
+    /**
+     * Constructs a sorter with empty scratch arrays.
+     */
+    public HealthSorter()
+    {
+        counts  = new int[HEALTH_VALUES];
+        healths = new int[0];
+        sorted  = new int[0];
+    }
+
+    /**
+     * Sorts slots from the least to the most health.
+     *
+     * @param creatures the creatures the slots refer to
+     * @param slots     the slots to sort, in place
+     */
+    public void sortByHealth(final Creature[] creatures,
+                             final IntList slots)
+    {
+        final int size;
+
+        size = slots.size();
+
+        readHealths(creatures, slots, size);
+        Arrays.fill(counts, 0);
+
+        for (int i = 0; i < size; i++)
+        {
+            counts[healths[i]]++;
+        }
+
+        toOffsets(HEALTH_VALUES - 1);
+
+        for (int i = 0; i < size; i++)
+        {
+            sorted[counts[healths[i]]++] = slots.get(i);
+        }
+
+        for (int i = 0; i < size; i++)
+        {
+            slots.set(i, sorted[i]);
+        }
+    }
+
+    /**
+     * Finds the living creatures with the least health, weakest first.
+     * Creatures with equal health are taken in slot list order.
+     *
+     * @param creatures the creatures the slots refer to
+     * @param slots     the slots to search
+     * @param limit     the most slots to find
+     * @param into      the list the weakest slots are added to
+     * @return the number of slots added, at most limit
+     * @throws IllegalArgumentException if limit is negative
+     */
+    public int weakest(final Creature[] creatures,
+                       final IntList slots,
+                       final int limit,
+                       final IntList into)
+    {
+        final int size;
+        final int taken;
+
+        int alive;
+        int threshold;
+        int below;
+
+        if (limit < 0)
+        {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+
+        size = slots.size();
+
+        readHealths(creatures, slots, size);
+        Arrays.fill(counts, 0);
+        alive = 0;
+
+        for (int i = 0; i < size; i++)
+        {
+            if (healths[i] != DEAD)
+            {
+                counts[healths[i]]++;
+                alive++;
+            }
+        }
+
+        // The health at which the weakest limit creatures run out
+        threshold = DEAD;
+        below     = 0;
+
+        while (threshold < HEALTH_VALUES - 1 && below + counts[threshold] < limit)
+        {
+            below += counts[threshold];
+            threshold++;
+        }
+
+        toOffsets(threshold);
+
+        for (int i = 0; i < size; i++)
+        {
+            final int health;
+
+            health = healths[i];
+
+            // Ties at the threshold fill the places left, in list order
+            if (health != DEAD && health <= threshold && counts[health] < limit)
+            {
+                sorted[counts[health]++] = slots.get(i);
+            }
+        }
+
+        taken = Math.min(alive, limit);
+
+        for (int i = 0; i < taken; i++)
+        {
+            into.add(sorted[i]);
+        }
+
+        return taken;
+    }
+
+    /*
+    Reads each slot's health once, as an index from MIN_HEALTH
+     */
+    private void readHealths(final Creature[] creatures,
+                             final IntList slots,
+                             final int size)
+    {
+        if (healths.length < size)
+        {
+            healths = new int[size];
+            sorted  = new int[size];
+        }
+
+        for (int i = 0; i < size; i++)
+        {
+            healths[i] = creatures[slots.get(i)].getCurrentHealth() - Creature.MIN_HEALTH;
+        }
+    }
+
+    /*
+    Turns the counts of each health up to last into the first output index
+    for that health
+     */
+    private void toOffsets(final int last)
+    {
+        int next;
+
+        next = 0;
+
+        for (int health = 0; health <= last; health++)
+        {
+            final int count;
+
+            count          = counts[health];
+            counts[health] = next;
+            next          += count;
+        }
+    }
+}
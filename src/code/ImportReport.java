@@ -0,0 +1,89 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summary of a {@link CreatureImporter} run: how many rows were accepted
+ * and rejected, and why the first rejected rows failed.
+ * <p>
+ * Only the first {@value #MAXIMUM_SAMPLES} rejections are kept in full so
+ * the report stays the same size for any input. The report is safe to
+ * update from several worker threads.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class ImportReport
+{
+    public static final int MAXIMUM_SAMPLES = 100;
+
+    private final List<String> samples;
+
+    private long accepted;
+    private long rejected;
+
+    /**
+     * Constructs an empty ImportReport.
+     */
+    ImportReport()
+    {
+        samples  = new ArrayList<>();
+        accepted = 0;
+        rejected = 0;
+    }
+
+    /*
+    Counts one accepted row
+     */
+    synchronized void accept()
+    {
+        accepted++;
+    }
+
+    /*
+    Counts one rejected row, keeping its reason while there is room
+     */
+    synchronized void reject(final long lineNumber,
+                             final String reason)
+    {
+        rejected++;
+
+        if (samples.size() < MAXIMUM_SAMPLES)
+        {
+            samples.add("Line " + lineNumber + ": " + reason);
+        }
+    }
+
+    /**
+     * Gets the number of rows that became creatures.
+     *
+     * @return the accepted row count
+     */
+    public synchronized long getAccepted()
+    {
+        return accepted;
+    }
+
+    /**
+     * Gets the number of rows that were rejected.
+     *
+     * @return the rejected row count
+     */
+    public synchronized long getRejected()
+    {
+        return rejected;
+    }
+
+    /**
+     * Gets the reasons for the first {@value #MAXIMUM_SAMPLES} rejections,
+     * each prefixed with its line number.
+     *
+     * @return an unmodifiable copy of the rejection samples
+     */
+    public synchronized List<String> getRejectSamples()
+    {
+        return Collections.unmodifiableList(new ArrayList<>(samples));
+    }
+}
@@ -0,0 +1,387 @@
+import java.util.Arrays;
+
+/**
+ * A map from int keys to int values that never boxes, for looking up a
+ * creature's slot from its id.
+ * <p>
+ * Keys and values sit in two parallel arrays and collisions are resolved
+ * by linear probing, so a lookup is usually one or two reads from the
+ * same cache line. Removal shifts later entries back instead of leaving
+ * tombstones, so the table does not slow down after many removals. The
+ * table doubles when it is half full.
+ * </p>
+ * <p>
+ * Key 0 marks an empty slot in the table, so it is kept in a field of its
+ * own. Not thread-safe.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class IntIntHashMap
+{
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private static final int EMPTY_KEY     = 0;
+    private static final int MINIMUM_SLOTS = 2;
+    private static final int LOAD_FACTOR   = 2;
+    private static final int MAXIMUM_SLOTS = 1 << 30;
+    private static final int GOLDEN_RATIO  = 0x9E3779B9;
+
+    private int[]   keys;
+    private int[]   values;
+    private int     mask;
+    private int     size;
+    private boolean hasZeroKey;
+    private int     zeroValue;
+
+    /**
+     * Constructs an empty map with room for {@value #DEFAULT_CAPACITY}
+     * entries.
+     */
+    public IntIntHashMap()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty map with room for the given number of entries
+     * before it has to grow.
+     *
+     * @param capacity the expected number of entries
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public IntIntHashMap(final int capacity)
+    {
+        final int slots;
+
+        if (capacity < 0)
+        {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+
+        slots      = tableSize(capacity);
+        keys       = new int[slots];
+        values     = new int[slots];
+        mask       = slots - 1;
+        size       = 0;
+        hasZeroKey = false;
+        zeroValue  = 0;
+    }
+
+    /**
+     * Maps a key to a value, replacing any earlier value.
+     *
+     * @param key     the key
+     * @param value   the value
+     * @param missing the value to return if the key was not mapped
+     * @return the earlier value, or missing
+     * @throws IllegalStateException if the key is new and the table is
+     *                               already at its largest size
+     */
+    public int put(final int key,
+                   final int value,
+                   final int missing)
+    {
+        final int previous;
+
+        int slot;
+
+        if (key == EMPTY_KEY)
+        {
+            previous = hasZeroKey ? zeroValue : missing;
+
+            if (!hasZeroKey)
+            {
+                hasZeroKey = true;
+                size++;
+            }
+
+            zeroValue = value;
+            return previous;
+        }
+
+        slot = slotOf(key);
+
+        while (keys[slot] != EMPTY_KEY)
+        {
+            if (keys[slot] == key)
+            {
+                previous     = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        // Checked before doubling, which would overflow at the largest size
+        if ((size + 1) * LOAD_FACTOR > keys.length && keys.length == MAXIMUM_SLOTS)
+        {
+            throw new IllegalStateException("Map is full");
+        }
+
+        keys[slot]   = key;
+        values[slot] = value;
+        size++;
+
+        if (size * LOAD_FACTOR > keys.length)
+        {
+            rehash(keys.length * 2);
+        }
+
+        return missing;
+    }
+
+    /**
+     * Gets the value mapped to a key.
+     *
+     * @param key     the key
+     * @param missing the value to return if the key is not mapped
+     * @return the key's value, or missing
+     */
+    public int get(final int key,
+                   final int missing)
+    {
+        int slot;
+
+        if (key == EMPTY_KEY)
+        {
+            return hasZeroKey ? zeroValue : missing;
+        }
+
+        slot = slotOf(key);
+
+        while (keys[slot] != EMPTY_KEY)
+        {
+            if (keys[slot] == key)
+            {
+                return values[slot];
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return missing;
+    }
+
+    /**
+     * Checks if a key is mapped.
+     *
+     * @param key the key
+     * @return true if the key has a value
+     */
+    public boolean containsKey(final int key)
+    {
+        int slot;
+
+        if (key == EMPTY_KEY)
+        {
+            return hasZeroKey;
+        }
+
+        slot = slotOf(key);
+
+        while (keys[slot] != EMPTY_KEY)
+        {
+            if (keys[slot] == key)
+            {
+                return true;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key     the key
+     * @param missing the value to return if the key was not mapped
+     * @return the key's value, or missing
+     */
+    public int remove(final int key,
+                      final int missing)
+    {
+        final int removed;
+
+        int slot;
+
+        if (key == EMPTY_KEY)
+        {
+            if (!hasZeroKey)
+            {
+                return missing;
+            }
+
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+
+        slot = slotOf(key);
+
+        while (keys[slot] != EMPTY_KEY)
+        {
+            if (keys[slot] == key)
+            {
+                removed = values[slot];
+                shiftBack(slot);
+                size--;
+                return removed;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return missing;
+    }
+
+    /**
+     * Gets the number of mapped keys.
+     *
+     * @return the number of entries
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Checks if the map has no entries.
+     *
+     * @return true if the map is empty
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Removes every entry, keeping the table's capacity.
+     */
+    public void clear()
+    {
+        Arrays.fill(keys, EMPTY_KEY);
+        size       = 0;
+        hasZeroKey = false;
+    }
+
+    /**
+     * Adds every key to a list, in no particular order.
+     *
+     * @param into the list to add to
+     * @return the same list
+     */
+    public IntList keys(final IntList into)
+    {
+        if (hasZeroKey)
+        {
+            into.add(EMPTY_KEY);
+        }
+
+        for (final int key : keys)
+        {
+            if (key != EMPTY_KEY)
+            {
+                into.add(key);
+            }
+        }
+
+        return into;
+    }
+
+    /*
+    Fills the hole left at slot by moving back any later entry that probed
+    past it, so lookups never need tombstones
+     */
+    private void shiftBack(final int removedSlot)
+    {
+        int hole;
+        int slot;
+
+        hole = removedSlot;
+        slot = (hole + 1) & mask;
+
+        while (keys[slot] != EMPTY_KEY)
+        {
+            final int home;
+
+            home = slotOf(keys[slot]);
+
+            // Move the entry if its home is not cyclically within (hole, slot]
+            if (((slot - home) & mask) >= ((slot - hole) & mask))
+            {
+                keys[hole]   = keys[slot];
+                values[hole] = values[slot];
+                hole         = slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        keys[hole] = EMPTY_KEY;
+    }
+
+    /*
+    Rebuilds the table at a new power-of-two size
+     */
+    private void rehash(final int slots)
+    {
+        final int[] oldKeys;
+        final int[] oldValues;
+
+        oldKeys   = keys;
+        oldValues = values;
+        keys      = new int[slots];
+        values    = new int[slots];
+        mask      = slots - 1;
+
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldKeys[i] != EMPTY_KEY)
+            {
+                int slot;
+
+                slot = slotOf(oldKeys[i]);
+
+                while (keys[slot] != EMPTY_KEY)
+                {
+                    slot = (slot + 1) & mask;
+                }
+
+                keys[slot]   = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /*
+    Fibonacci hashing, so sequential ids spread over the whole table
+     */
+    private int slotOf(final int key)
+    {
+        final int hash;
+
+        hash = key * GOLDEN_RATIO;
+
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static int tableSize(final int capacity)
+    {
+        final long wanted;
+
+        wanted = Math.max((long) capacity * LOAD_FACTOR, MINIMUM_SLOTS);
+
+        if (wanted > MAXIMUM_SLOTS)
+        {
+            throw new IllegalArgumentException("Capacity is too large: " + capacity);
+        }
+
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+}
@@ -0,0 +1,168 @@
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A growable list of ints, such as creature ids or slots, that never
+ * boxes.
+ * <p>
+ * The backing array doubles when full. Not thread-safe.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class IntList
+{
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private int[] elements;
+    private int   size;
+
+    /**
+     * Constructs an empty list with room for {@value #DEFAULT_CAPACITY}
+     * ints.
+     */
+    public IntList()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty list with room for the given number of ints.
+     *
+     * @param capacity the expected number of ints
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public IntList(final int capacity)
+    {
+        if (capacity < 0)
+        {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+
+        elements = new int[capacity];
+        size     = 0;
+    }
+
+    /**
+     * Adds an int at the end of the list.
+     *
+     * @param value the int to add
+     */
+    public void add(final int value)
+    {
+        if (size == elements.length)
+        {
+            elements = Arrays.copyOf(elements, Math.max(elements.length * 2, DEFAULT_CAPACITY));
+        }
+
+        elements[size] = value;
+        size++;
+    }
+
+    /**
+     * Gets the int at an index.
+     *
+     * @param index the index, from 0 up to {@link #size()}
+     * @return the int at index
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public int get(final int index)
+    {
+        return elements[checkIndex(index)];
+    }
+
+    /**
+     * Replaces the int at an index.
+     *
+     * @param index the index, from 0 up to {@link #size()}
+     * @param value the new int
+     * @return the int that was replaced
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public int set(final int index,
+                   final int value)
+    {
+        final int previous;
+
+        previous = elements[checkIndex(index)];
+        elements[index] = value;
+
+        return previous;
+    }
+
+    /**
+     * Removes the int at an index by moving the last int into its place.
+     * The order of the list is not kept.
+     *
+     * @param index the index, from 0 up to {@link #size()}
+     * @return the int that was removed
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public int swapRemove(final int index)
+    {
+        final int removed;
+
+        removed = elements[checkIndex(index)];
+        size--;
+        elements[index] = elements[size];
+
+        return removed;
+    }
+
+    /**
+     * Gets the number of ints in the list.
+     *
+     * @return the size
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Checks if the list has no ints.
+     *
+     * @return true if the list is empty
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Removes every int, keeping the capacity.
+     */
+    public void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * Sorts the list in ascending order.
+     */
+    public void sort()
+    {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * Copies the list into a new array.
+     *
+     * @return the ints in order
+     */
+    public int[] toArray()
+    {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /*
+    Checks an index against the size rather than the capacity
+    throws new IndexOutOfBoundsException
+     */
+    private int checkIndex(final int index)
+    {
+        return Objects.checkIndex(index, size);
+    }
+}
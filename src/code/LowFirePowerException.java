@@ -7,6 +7,14 @@
  */
 public class LowFirePowerException extends Exception
 {
+    /**
+     * Shared instance with no stack trace and no suppressed exceptions,
+     * for callers that throw on every failed attempt.
+     */
+    public static final LowFirePowerException STACKLESS =
+            new LowFirePowerException("Fire power must be at least " +
+                    Dragon.FIRE_POWER_ACTIVATION, false);
+
     /**
      * LowFirePowerException constructor.
      * @param message the message to display.
@@ -15,4 +23,15 @@ public class LowFirePowerException extends Exception
     {
         super(message);
     }
+
+    /**
+     * LowFirePowerException constructor that can skip filling in the stack trace.
+     * @param message            the message to display.
+     * @param writableStackTrace whether the stack trace should be filled in.
+     */
+    public LowFirePowerException(final String message,
+                                 final boolean writableStackTrace)
+    {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -7,6 +7,13 @@
  */
 public class LowManaException extends Exception
 {
+    /**
+     * Shared instance with no stack trace and no suppressed exceptions,
+     * for callers that throw on every failed attempt.
+     */
+    public static final LowManaException STACKLESS =
+            new LowManaException("Not enough mana to cast a spell.", false);
+
     /**
      * LowManaException constructor.
      * @param message the message to display.
@@ -16,4 +23,14 @@ public class LowManaException extends Exception
         super(message);
     }
 
+    /**
+     * LowManaException constructor that can skip filling in the stack trace.
+     * @param message            the message to display.
+     * @param writableStackTrace whether the stack trace should be filled in.
+     */
+    public LowManaException(final String message,
+                            final boolean writableStackTrace)
+    {
+        super(message, null, false, writableStackTrace);
+    }
 }
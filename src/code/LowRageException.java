@@ -7,6 +7,13 @@
  */
 public class LowRageException extends RuntimeException
 {
+    /**
+     * Shared instance with no stack trace and no suppressed exceptions,
+     * for callers that throw on every failed attempt.
+     */
+    public static final LowRageException STACKLESS =
+            new LowRageException("Rage is too low to go berserk.", false);
+
     /**
      * LowRageException constructor.
      * @param message the message to display.
@@ -15,4 +22,15 @@ public class LowRageException extends RuntimeException
     {
         super(message);
     }
+
+    /**
+     * LowRageException constructor that can skip filling in the stack trace.
+     * @param message            the message to display.
+     * @param writableStackTrace whether the stack trace should be filled in.
+     */
+    public LowRageException(final String message,
+                            final boolean writableStackTrace)
+    {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,496 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A creature snapshot file, in the layout of {@link CreatureRecordFormat},
+ * mapped into memory and used in place.
+ * <p>
+ * Opening a world only maps the record region, so it takes the same time
+ * for any population size, and processes mapping the same file share its
+ * pages. Creatures are read and updated through {@link Cursor}s: reusable
+ * views that point at one record at a time and apply the same rules as
+ * {@link Creature}, {@link Dragon}, {@link Elf} and {@link Orc} directly to
+ * the mapped bytes. Changes are written to the file by the operating
+ * system, or immediately with {@link #force()}.
+ * </p>
+ * <p>
+ * The record region is mapped in segments so worlds larger than 2 GB are
+ * supported. A cursor is not thread-safe; each thread should use its own.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class MappedCreatureWorld implements Closeable
+{
+    private static final int RECORDS_PER_SEGMENT = 1 << 25;
+
+    private final FileChannel        channel;
+    private final MappedByteBuffer[] segments;
+    private final long               count;
+
+    private MappedCreatureWorld(final FileChannel channel,
+                                final MappedByteBuffer[] segments,
+                                final long count)
+    {
+        this.channel  = channel;
+        this.segments = segments;
+        this.count    = count;
+    }
+
+    /**
+     * Maps a snapshot file written by {@link CreatureRecordWriter} for
+     * reading and writing.
+     *
+     * @param path the file to map
+     * @return the mapped world
+     * @throws IOException if the file cannot be mapped, is not a snapshot,
+     *                     or is shorter than its header or than its header
+     *                     says
+     */
+    public static MappedCreatureWorld open(final Path path) throws IOException
+    {
+        final FileChannel channel;
+        final ByteBuffer header;
+        final long count;
+        final int segmentCount;
+        final MappedByteBuffer[] segments;
+
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try
+        {
+            // The header is read rather than mapped: mapping a region past
+            // the end of a channel opened for writing would grow the file
+            header = ByteBuffer.allocate(CreatureRecordFormat.HEADER_SIZE);
+
+            while (header.hasRemaining())
+            {
+                if (channel.read(header, header.position()) < 0)
+                {
+                    throw new IOException("Too short to be a creature snapshot: " + path);
+                }
+            }
+
+            if (header.getInt(CreatureRecordFormat.MAGIC_POSITION) != CreatureRecordFormat.MAGIC ||
+                header.getInt(CreatureRecordFormat.VERSION_POSITION) != CreatureRecordFormat.VERSION)
+            {
+                throw new IOException("Not a supported creature snapshot: " + path);
+            }
+
+            count = header.getLong(CreatureRecordFormat.COUNT_POSITION);
+
+            // The same applies to the record segments
+            if (count < 0 ||
+                count > (channel.size() - CreatureRecordFormat.HEADER_SIZE) /
+                        CreatureRecordFormat.RECORD_SIZE)
+            {
+                throw new IOException("Record count " + count +
+                        " does not fit in the file: " + path);
+            }
+
+            segmentCount = (int) ((count + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT);
+            segments     = new MappedByteBuffer[segmentCount];
+
+            for (int i = 0; i < segmentCount; i++)
+            {
+                final long firstRecord;
+                final long records;
+
+                firstRecord = (long) i * RECORDS_PER_SEGMENT;
+                records     = Math.min(RECORDS_PER_SEGMENT, count - firstRecord);
+
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                                          CreatureRecordFormat.HEADER_SIZE +
+                                          firstRecord * CreatureRecordFormat.RECORD_SIZE,
+                                          records * CreatureRecordFormat.RECORD_SIZE);
+            }
+        }
+        catch (final IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+
+        return new MappedCreatureWorld(channel, segments, count);
+    }
+
+    /**
+     * Gets the number of creatures in the world.
+     *
+     * @return the number of creatures
+     */
+    public long size()
+    {
+        return count;
+    }
+
+    /**
+     * Creates a new cursor positioned on the first creature.
+     *
+     * @return a new cursor
+     * @throws IllegalStateException if the world has no creatures
+     */
+    public Cursor cursor()
+    {
+        if (count == 0)
+        {
+            throw new IllegalStateException("The world has no creatures");
+        }
+
+        return new Cursor();
+    }
+
+    /**
+     * Writes every change made through cursors to the file.
+     */
+    public void force()
+    {
+        for (final MappedByteBuffer segment : segments)
+        {
+            segment.force();
+        }
+    }
+
+    /**
+     * Flushes changes and closes the file. Cursors must not be used after
+     * the world is closed.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        force();
+        channel.close();
+    }
+
+    /**
+     * A reusable view of one creature record. Move it with
+     * {@link #moveTo(long)}; no objects are created per creature.
+     */
+    public final class Cursor
+    {
+        private ByteBuffer segment;
+        private int        offset;
+        private long       index;
+
+        private Cursor()
+        {
+            moveTo(0);
+        }
+
+        /**
+         * Points this cursor at the creature with the given index.
+         *
+         * @param index the index of the creature, in file order
+         * @return this cursor
+         * @throws IllegalArgumentException if index is out of range
+         */
+        public Cursor moveTo(final long index)
+        {
+            if (index < 0 || index >= count)
+            {
+                throw new IllegalArgumentException("Unknown creature index: " + index);
+            }
+
+            this.segment = segments[(int) (index / RECORDS_PER_SEGMENT)];
+            this.offset  = (int) (index % RECORDS_PER_SEGMENT) *
+                           CreatureRecordFormat.RECORD_SIZE;
+            this.index   = index;
+
+            return this;
+        }
+
+        /**
+         * Gets the index of the current creature.
+         *
+         * @return the current index
+         */
+        public long getIndex()
+        {
+            return index;
+        }
+
+        /**
+         * Gets the type tag of the current creature.
+         *
+         * @return {@link CreatureStore#TYPE_DRAGON},
+         *         {@link CreatureStore#TYPE_ELF} or {@link CreatureStore#TYPE_ORC}
+         */
+        public int getType()
+        {
+            return segment.getInt(offset + CreatureRecordFormat.TYPE_POSITION);
+        }
+
+        /**
+         * Gets the current creature's health.
+         *
+         * @return current health
+         */
+        public int getCurrentHealth()
+        {
+            return segment.getInt(offset + CreatureRecordFormat.HEALTH_POSITION);
+        }
+
+        /**
+         * Checks if the current creature is alive.
+         *
+         * @return true if health is greater than the minimum health
+         */
+        public boolean isAlive()
+        {
+            return getCurrentHealth() > Creature.MIN_HEALTH;
+        }
+
+        /**
+         * Gets the current creature's date of birth.
+         *
+         * @return the canonical Date
+         */
+        public Date getDateOfBirth()
+        {
+            return Date.ofPacked(getPackedBirthDate());
+        }
+
+        /**
+         * Calculates the current creature's age in years.
+         *
+         * @return the age; unit: years
+         */
+        public int getAgeYears()
+        {
+            return WorldClock.getYear() - Date.packedYear(getPackedBirthDate());
+        }
+
+        /**
+         * Gets the current dragon's fire power.
+         *
+         * @return current fire power
+         * @throws IllegalStateException if the creature is not a dragon
+         */
+        public int getFirePower()
+        {
+            checkType(CreatureStore.TYPE_DRAGON);
+
+            return getResource();
+        }
+
+        /**
+         * Gets the current elf's mana.
+         *
+         * @return current mana
+         * @throws IllegalStateException if the creature is not an elf
+         */
+        public int getMana()
+        {
+            checkType(CreatureStore.TYPE_ELF);
+
+            return getResource();
+        }
+
+        /**
+         * Gets the current orc's rage.
+         *
+         * @return current rage
+         * @throws IllegalStateException if the creature is not an orc
+         */
+        public int getRage()
+        {
+            checkType(CreatureStore.TYPE_ORC);
+
+            return getResource();
+        }
+
+        /**
+         * Reduces the current creature's health, as
+         * {@link Creature#takeDamage(int)} does.
+         *
+         * @param damageTaken the amount of damage taken
+         * @throws DamageException if damageTaken is negative
+         */
+        public void takeDamage(final int damageTaken)
+        {
+            if (damageTaken < Creature.MIN_DAMAGE_ALLOWED)
+            {
+                throw new DamageException("Damage cannot be below " +
+                        Creature.MIN_DAMAGE_ALLOWED);
+            }
+
+            setHealth(Math.max(getCurrentHealth() - damageTaken, Creature.MIN_HEALTH));
+        }
+
+        /**
+         * Heals the current creature, as {@link Creature#heal(int)} does.
+         *
+         * @param healAmount the amount to heal
+         * @throws HealingException if healAmount is below the minimum heal
+         */
+        public void heal(final int healAmount)
+        {
+            if (healAmount < Creature.MIN_HEAL_ALLOWED)
+            {
+                throw new HealingException("Cannot heal less than " +
+                        Creature.MIN_HEAL_ALLOWED);
+            }
+
+            setHealth(Math.min(getCurrentHealth() + healAmount, Creature.MAX_HEALTH));
+        }
+
+        /**
+         * Uses the current dragon's fire breath, as
+         * {@link Dragon#tryBreatheFire()} does.
+         *
+         * @return the damage dealt, or {@link Creature#ABILITY_FAILED}
+         * @throws IllegalStateException if the creature is not a dragon
+         */
+        public int tryBreatheFire()
+        {
+            final int firePower;
+
+            firePower = getFirePower();
+
+            if (firePower < Dragon.FIRE_POWER_ACTIVATION)
+            {
+                return Creature.ABILITY_FAILED;
+            }
+
+            setResource(firePower - Dragon.FIRE_POWER_ACTIVATION);
+
+            return Dragon.FIRE_BREATH_DAMAGE;
+        }
+
+        /**
+         * Restores the current dragon's fire power, as
+         * {@link Dragon#restoreFirePower(int)} does.
+         *
+         * @param amount the amount to restore fire power by
+         * @throws IllegalStateException if the creature is not a dragon
+         */
+        public void restoreFirePower(final int amount)
+        {
+            setResource(Math.min(getFirePower() + amount, Dragon.MAXIMUM_FIRE_POWER));
+        }
+
+        /**
+         * Casts the current elf's spell, as {@link Elf#tryCastSpell()} does.
+         *
+         * @return the damage dealt, or {@link Creature#ABILITY_FAILED}
+         * @throws IllegalStateException if the creature is not an elf
+         */
+        public int tryCastSpell()
+        {
+            final int mana;
+
+            mana = getMana();
+
+            if (mana < Elf.SPELL_COST)
+            {
+                return Creature.ABILITY_FAILED;
+            }
+
+            setResource(mana - Elf.SPELL_COST);
+
+            return Elf.SPELL_DAMAGE;
+        }
+
+        /**
+         * Restores the current elf's mana, as {@link Elf#restoreMana(int)}
+         * does.
+         *
+         * @param amount amount of mana to restore
+         * @throws IllegalStateException if the creature is not an elf
+         */
+        public void restoreMana(final int amount)
+        {
+            setResource(Math.min(getMana() + amount, Elf.MAXIMUM_MANA));
+        }
+
+        /**
+         * Performs the current orc's berserk attack, as
+         * {@link Orc#tryBerserk()} does.
+         *
+         * @return the damage dealt, or {@link Creature#ABILITY_FAILED}
+         * @throws IllegalStateException if the creature is not an orc
+         */
+        public int tryBerserk()
+        {
+            final int rage;
+
+            rage = getRage();
+
+            if (rage < Orc.BERSERK_COST)
+            {
+                return Creature.ABILITY_FAILED;
+            }
+
+            setResource(Math.min(rage + Orc.BERSERK_INCREASE_RAGE_POINTS,
+                                 Orc.MAX_RAGE_POINTS));
+
+            if (getResource() > Orc.RAGE_THRESHOLD_POINTS)
+            {
+                return Orc.DAMAGE_DOUBLE_HP_POINTS;
+            }
+            else
+            {
+                return Orc.DAMAGE_NORMAL_HP_POINTS;
+            }
+        }
+
+        /**
+         * Rebuilds the current record as a heap {@link Creature} with the
+         * given name, for callers that need the full object.
+         *
+         * @param name the creature's name
+         * @return a new Dragon, Elf or Orc
+         * @throws IOException if the record's type tag is unknown
+         */
+        public Creature toCreature(final String name) throws IOException
+        {
+            return CreatureRecordFormat.toCreature(getType(),
+                                                   name,
+                                                   getPackedBirthDate(),
+                                                   getCurrentHealth(),
+                                                   getResource());
+        }
+
+        private int getPackedBirthDate()
+        {
+            return segment.getInt(offset + CreatureRecordFormat.BIRTH_DATE_POSITION);
+        }
+
+        private int getResource()
+        {
+            return segment.getInt(offset + CreatureRecordFormat.RESOURCE_POSITION);
+        }
+
+        private void setHealth(final int health)
+        {
+            segment.putInt(offset + CreatureRecordFormat.HEALTH_POSITION, health);
+        }
+
+        private void setResource(final int resource)
+        {
+            segment.putInt(offset + CreatureRecordFormat.RESOURCE_POSITION, resource);
+        }
+
+        /*
+        Checks that the current creature has the given type
+        throws new IllegalStateException
+         */
+        private void checkType(final int type)
+        {
+            if (getType() != type)
+            {
+                throw new IllegalStateException("Creature " + index +
+                        " cannot use this ability");
+            }
+        }
+    }
+}
@@ -0,0 +1,445 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Interns creature names into an off-heap UTF-8 arena and hands out an int
+ * id for each distinct name.
+ * <p>
+ * Spawned creatures mostly reuse a few thousand template names, so a
+ * creature whose name has been pooled with {@link Creature#poolName}
+ * keeps the id of its name instead of its own String. Each name
+ * is checked and stored once, the first time it is interned; later
+ * interns of the same name only look it up. Names are decoded back into
+ * Strings when asked for, and {@link #appendTo} copies a name into a
+ * builder without creating a String at all.
+ * </p>
+ * <p>
+ * Names are stored in direct buffers of {@value #CHUNK_SIZE} bytes, each
+ * as a two-byte length followed by its UTF-8 bytes. The on-heap cost of a
+ * name is two ints plus its hash table slots. Names are never removed, so
+ * a pool suits names that repeat, not names unique to every creature.
+ * </p>
+ * <p>
+ * Lookups do not lock. Adding a new name locks the pool.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class NamePool
+{
+    public static final int MAXIMUM_NAME_BYTES = 0xFFFF;
+
+    /**
+     * Returned by {@link #find(String)} for a name not in the pool.
+     */
+    public static final int NOT_FOUND = -1;
+
+    private static final int CHUNK_BITS     = 20;
+    private static final int CHUNK_SIZE     = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK     = CHUNK_SIZE - 1;
+    private static final int MAXIMUM_CHUNKS = 1 << (Integer.SIZE - 1 - CHUNK_BITS);
+    private static final int LENGTH_SIZE    = Short.BYTES;
+    private static final int INITIAL_NAMES  = 1024;
+    private static final int LOAD_FACTOR    = 2;
+    private static final int ASCII_LIMIT    = 0x80;
+    private static final int BYTE_MASK      = 0xFF;
+    private static final int SHORT_MASK     = 0xFFFF;
+    private static final int EMPTY          = 0;
+
+    // Written under the lock, published by the release store into table
+    private volatile AtomicIntegerArray table;
+    private volatile int[]              starts;
+    private volatile int[]              hashes;
+    private volatile ByteBuffer[]       chunks;
+
+    private volatile int size;
+
+    private int chunkCount;
+    private int chunkPosition;
+    private long arenaBytes;
+
+    /**
+     * Constructs an empty pool.
+     */
+    public NamePool()
+    {
+        table         = new AtomicIntegerArray(INITIAL_NAMES * LOAD_FACTOR);
+        starts        = new int[INITIAL_NAMES];
+        hashes        = new int[INITIAL_NAMES];
+        chunks        = new ByteBuffer[1];
+        size          = 0;
+        chunkCount    = 0;
+        chunkPosition = CHUNK_SIZE;
+        arenaBytes    = 0;
+    }
+
+    /**
+     * Gets the id of a name, adding the name to the pool if it is new.
+     *
+     * @param name the name to intern
+     * @return the name's id, from 0 up
+     * @throws IllegalArgumentException if name is null or blank, or longer
+     *                                  than {@value #MAXIMUM_NAME_BYTES}
+     *                                  bytes in UTF-8
+     */
+    public int intern(final String name)
+    {
+        final int id;
+
+        if (name == null)
+        {
+            throw new IllegalArgumentException("Name cannot be null or empty");
+        }
+
+        id = find(table, name, name.hashCode());
+
+        return id != NOT_FOUND ? id : add(name);
+    }
+
+    /**
+     * Gets the id of a name if it is already in the pool, without adding
+     * it.
+     *
+     * @param name the name to look up
+     * @return the name's id, or {@value #NOT_FOUND}
+     */
+    public int find(final String name)
+    {
+        return find(table, name, name.hashCode());
+    }
+
+    /**
+     * Gets the name with the given id, decoded into a new String.
+     *
+     * @param id an id returned by {@link #intern}
+     * @return the name
+     * @throws IllegalArgumentException if id is not in this pool
+     */
+    public String get(final int id)
+    {
+        final ByteBuffer chunk;
+        final int offset;
+        final int length;
+        final byte[] bytes;
+
+        chunk  = chunkOf(checkId(id));
+        offset = starts[id] & CHUNK_MASK;
+        length = chunk.getShort(offset) & SHORT_MASK;
+        bytes  = new byte[length];
+
+        chunk.get(offset + LENGTH_SIZE, bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends the name with the given id to a builder. ASCII names are
+     * copied a character at a time without creating a String.
+     *
+     * @param id      an id returned by {@link #intern}
+     * @param builder the builder to append to
+     * @return the same builder
+     * @throws IllegalArgumentException if id is not in this pool
+     */
+    public StringBuilder appendTo(final int id,
+                                  final StringBuilder builder)
+    {
+        final ByteBuffer chunk;
+        final int offset;
+        final int length;
+        final int mark;
+
+        chunk  = chunkOf(checkId(id));
+        offset = (starts[id] & CHUNK_MASK) + LENGTH_SIZE;
+        length = chunk.getShort(offset - LENGTH_SIZE) & SHORT_MASK;
+        mark   = builder.length();
+
+        for (int i = 0; i < length; i++)
+        {
+            final byte b;
+
+            b = chunk.get(offset + i);
+
+            if (b < 0)
+            {
+                // Not ASCII; let the decoder handle multi-byte characters
+                builder.setLength(mark);
+                return builder.append(get(id));
+            }
+
+            builder.append((char) b);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Gets the number of distinct names in the pool.
+     *
+     * @return the number of names
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Gets the number of arena bytes used by names and their lengths.
+     *
+     * @return the arena bytes in use
+     */
+    public synchronized long getArenaBytes()
+    {
+        return arenaBytes;
+    }
+
+    /*
+    Adds a name after checking again under the lock; the name is validated
+    here, once per distinct name
+    throws new IllegalArgumentException
+     */
+    private synchronized int add(final String name)
+    {
+        final int hash;
+        final int existing;
+        final byte[] bytes;
+        final int id;
+
+        hash     = name.hashCode();
+        existing = find(table, name, hash);
+
+        if (existing != NOT_FOUND)
+        {
+            return existing;
+        }
+
+        if (name.isBlank())
+        {
+            throw new IllegalArgumentException("Name cannot be null or empty");
+        }
+
+        bytes = name.getBytes(StandardCharsets.UTF_8);
+
+        if (bytes.length > MAXIMUM_NAME_BYTES)
+        {
+            throw new IllegalArgumentException("Name cannot be longer than " +
+                    MAXIMUM_NAME_BYTES + " bytes");
+        }
+
+        if (size == starts.length)
+        {
+            grow();
+        }
+
+        id = size;
+        starts[id] = store(bytes);
+        hashes[id] = hash;
+        size       = id + 1;
+
+        insert(table, id, hash);
+
+        return id;
+    }
+
+    /*
+    Copies a name into the arena and returns its address
+    throws new IllegalStateException
+     */
+    private int store(final byte[] bytes)
+    {
+        final ByteBuffer chunk;
+        final int start;
+
+        if (chunkPosition + LENGTH_SIZE + bytes.length > CHUNK_SIZE)
+        {
+            if (chunkCount == MAXIMUM_CHUNKS)
+            {
+                throw new IllegalStateException("Name pool is full");
+            }
+
+            if (chunkCount == chunks.length)
+            {
+                final ByteBuffer[] grown;
+
+                grown = new ByteBuffer[chunks.length * 2];
+                System.arraycopy(chunks, 0, grown, 0, chunkCount);
+                chunks = grown;
+            }
+
+            chunks[chunkCount] = ByteBuffer.allocateDirect(CHUNK_SIZE);
+            chunkCount++;
+            chunkPosition = 0;
+        }
+
+        chunk = chunks[chunkCount - 1];
+        start = (chunkCount - 1) << CHUNK_BITS | chunkPosition;
+
+        chunk.putShort(chunkPosition, (short) bytes.length);
+        chunk.put(chunkPosition + LENGTH_SIZE, bytes);
+
+        chunkPosition += LENGTH_SIZE + bytes.length;
+        arenaBytes    += LENGTH_SIZE + bytes.length;
+
+        return start;
+    }
+
+    /*
+    Doubles the id arrays and rebuilds the hash table at twice the size
+     */
+    private void grow()
+    {
+        final int[] grownStarts;
+        final int[] grownHashes;
+        final AtomicIntegerArray grownTable;
+
+        grownStarts = new int[starts.length * 2];
+        grownHashes = new int[hashes.length * 2];
+        grownTable  = new AtomicIntegerArray(table.length() * 2);
+
+        System.arraycopy(starts, 0, grownStarts, 0, size);
+        System.arraycopy(hashes, 0, grownHashes, 0, size);
+
+        for (int id = 0; id < size; id++)
+        {
+            insert(grownTable, id, grownHashes[id]);
+        }
+
+        starts = grownStarts;
+        hashes = grownHashes;
+        table  = grownTable;
+    }
+
+    private static void insert(final AtomicIntegerArray into,
+                               final int id,
+                               final int hash)
+    {
+        final int mask;
+
+        int slot;
+
+        mask = into.length() - 1;
+        slot = spread(hash) & mask;
+
+        while (into.getPlain(slot) != EMPTY)
+        {
+            slot = (slot + 1) & mask;
+        }
+
+        // Ids are stored plus one so that zero means empty
+        into.setRelease(slot, id + 1);
+    }
+
+    /*
+    Linear probe for a name; returns NOT_FOUND if it is not in the table
+     */
+    private int find(final AtomicIntegerArray in,
+                     final String name,
+                     final int hash)
+    {
+        final int mask;
+
+        int slot;
+        int entry;
+
+        mask = in.length() - 1;
+        slot = spread(hash) & mask;
+
+        while ((entry = in.getAcquire(slot)) != EMPTY)
+        {
+            if (hashes[entry - 1] == hash && matches(entry - 1, name))
+            {
+                return entry - 1;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return NOT_FOUND;
+    }
+
+    /*
+    Compares a stored name with a String, byte for byte while it is ASCII
+     */
+    private boolean matches(final int id,
+                            final String name)
+    {
+        final ByteBuffer chunk;
+        final int offset;
+        final int length;
+
+        chunk  = chunkOf(id);
+        offset = (starts[id] & CHUNK_MASK) + LENGTH_SIZE;
+        length = chunk.getShort(offset - LENGTH_SIZE) & SHORT_MASK;
+
+        for (int i = 0; i < name.length(); i++)
+        {
+            final char c;
+
+            c = name.charAt(i);
+
+            if (c >= ASCII_LIMIT)
+            {
+                return matchesBytes(chunk, offset, length,
+                                    name.getBytes(StandardCharsets.UTF_8));
+            }
+
+            if (i >= length || (chunk.get(offset + i) & BYTE_MASK) != c)
+            {
+                return false;
+            }
+        }
+
+        return length == name.length();
+    }
+
+    private static boolean matchesBytes(final ByteBuffer chunk,
+                                        final int offset,
+                                        final int length,
+                                        final byte[] bytes)
+    {
+        if (bytes.length != length)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++)
+        {
+            if (chunk.get(offset + i) != bytes[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private ByteBuffer chunkOf(final int id)
+    {
+        return chunks[starts[id] >>> CHUNK_BITS];
+    }
+
+    /*
+    Checks that an id has been handed out by this pool
+    throws new IllegalArgumentException
+     */
+    private int checkId(final int id)
+    {
+        if (id < 0 || id >= size)
+        {
+            throw new IllegalArgumentException("Unknown name id: " + id);
+        }
+
+        return id;
+    }
+
+    /*
+    Mixes the high bits of String.hashCode into the low bits used for slots
+     */
+    private static int spread(final int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+}
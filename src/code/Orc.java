@@ -1,3 +1,6 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * Represents an Orc, a type of Creature with a rage attribute.
  * Provides methods to access details and perform berserk attacks.
@@ -8,15 +11,30 @@
  */
 public class Orc extends Creature
 {
-    private static final int BERSERK_INCREASE_RAGE_POINTS = 5;
-    private static final int BERSERK_COST                 = 5;
-    private static final int MIN_RAGE_POINTS              = 0;
-    private static final int MAX_RAGE_POINTS              = 30;
-    private static final int RAGE_THRESHOLD_POINTS        = 20;
-    private static final int DAMAGE_NORMAL_HP_POINTS      = 15;
-    private static final int DAMAGE_DOUBLE_HP_POINTS      = 30;
+    static final int BERSERK_INCREASE_RAGE_POINTS = 5;
+    static final int BERSERK_COST                 = 5;
+    static final int MIN_RAGE_POINTS              = 0;
+    static final int MAX_RAGE_POINTS              = 30;
+    static final int RAGE_THRESHOLD_POINTS        = 20;
+    static final int DAMAGE_NORMAL_HP_POINTS      = 15;
+    static final int DAMAGE_DOUBLE_HP_POINTS      = 30;
+
+    private static final VarHandle RAGE;
+
+    static
+    {
+        try
+        {
+            RAGE = MethodHandles.lookup()
+                    .findVarHandle(Orc.class, "rage", int.class);
+        }
+        catch (final ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
-    private int rage;
+    private volatile int rage;
 
     /**
      * Constructs an Orc with the specified name, date of birth, health, and rage.
@@ -41,7 +59,7 @@ public class Orc extends Creature
     Check rage for out of min max bounds
     throw new IllegalArgumentException
      */
-    private void checkRage(final int rage)
+    static void checkRage(final int rage)
     {
         if (rage < MIN_RAGE_POINTS || rage > MAX_RAGE_POINTS)
         {
@@ -50,14 +68,28 @@ public class Orc extends Creature
     }
 
     /**
-     * Returns the details of the orc, including rage.
+     * Gets the orc's current rage.
+     *
+     * @return current rage.
+     */
+    public int getRage()
+    {
+        return rage;
+    }
+
+    /**
+     * Appends the details of the orc, including rage.
      *
-     * @return a String containing the orc's details and rage value
+     * @param detailsBuilder the builder to append to
+     * @return the same builder, holding the orc's details and rage value
      */
     @Override
-    public final String getDetails()
+    public final StringBuilder appendDetails(final StringBuilder detailsBuilder)
     {
-        return super.getDetails() + "Rage: " + rage + "\n";
+        return super.appendDetails(detailsBuilder)
+                .append("Rage: ")
+                .append(rage)
+                .append("\n");
     }
 
     /**
@@ -66,6 +98,7 @@ public class Orc extends Creature
      * Deals {@value DAMAGE_DOUBLE_HP_POINTS} health points to the target
      * creature if Orc has {@value BERSERK_COST} or more rage. Otherwise, the orc
      * deals normal damage ({@value DAMAGE_NORMAL_HP_POINTS} health points).
+     * An orc with a combat seed rolls its damage around these values.
      * <p>
      *
      * @throws LowRageException if the resulting rage is less
@@ -74,25 +107,98 @@ public class Orc extends Creature
      */
     public final int berserk() throws LowRageException
     {
-        if (rage < BERSERK_COST)
+        final int damage;
+
+        damage = tryBerserk();
+
+        if (damage == ABILITY_FAILED)
         {
             throw new LowRageException("Rage is too low to go berserk.");
         }
 
-        rage += BERSERK_INCREASE_RAGE_POINTS;
+        return damage;
+    }
+
+    /**
+     * Performs a berserk attack without throwing.
+     * Follows the same rules as {@link #berserk()}.
+     *
+     * @return the damage the orc will deal, or {@value #ABILITY_FAILED}
+     *         if the orc has less than {@value BERSERK_COST} rage.
+     */
+    public final int tryBerserk()
+    {
+        final long startNanos;
+
+        int current;
+        int updated;
 
-        if (rage > MAX_RAGE_POINTS)
+        startNanos = CreatureMetrics.start();
+
+        do
+        {
+            current = rage;
+
+            if (current < BERSERK_COST)
+            {
+                if (CreatureMetrics.ENABLED)
+                {
+                    CreatureMetrics.record(CreatureListener.BERSERK, true, startNanos);
+                }
+
+                return ABILITY_FAILED;
+            }
+
+            updated = Math.min(current + BERSERK_INCREASE_RAGE_POINTS,
+                               MAX_RAGE_POINTS);
+        }
+        while (!RAGE.compareAndSet(this, current, updated));
+
+        notifyListeners(CreatureListener.BERSERK, current, updated);
+
+        if (CreatureMetrics.ENABLED)
         {
-            rage = MAX_RAGE_POINTS;
+            CreatureMetrics.record(CreatureListener.BERSERK, false, startNanos);
         }
 
-        if (rage > RAGE_THRESHOLD_POINTS)
+        if (updated > RAGE_THRESHOLD_POINTS)
         {
-            return DAMAGE_DOUBLE_HP_POINTS;
+            return rollDamage(DAMAGE_DOUBLE_HP_POINTS);
         }
         else
         {
-            return DAMAGE_NORMAL_HP_POINTS;
+            return rollDamage(DAMAGE_NORMAL_HP_POINTS);
+        }
+    }
+
+    /**
+     * Restores the orc's rage.
+     * Cannot exceed {@value MAX_RAGE_POINTS}.
+     *
+     * @param amount the amount to restore rage by
+     */
+    public final void restoreRage(final int amount)
+    {
+        final long startNanos;
+
+        int current;
+        int updated;
+
+        startNanos = CreatureMetrics.start();
+
+        do
+        {
+            current = rage;
+            updated = Math.min(current + amount, MAX_RAGE_POINTS);
+        }
+        while (!RAGE.compareAndSet(this, current, updated));
+
+        notifyListeners(CreatureListener.RESTORE_RAGE, current, updated);
+
+        if (CreatureMetrics.ENABLED)
+        {
+            CreatureMetrics.record(CreatureListener.RESTORE_RAGE,
+                                   current + amount > MAX_RAGE_POINTS, startNanos);
         }
     }
 }
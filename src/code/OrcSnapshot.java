@@ -0,0 +1,28 @@
+/**
+ * An immutable snapshot of an {@link Orc}, with its rage.
+ *
+ * @param name        the name
+ * @param dateOfBirth the date of birth
+ * @param health      the health when the snapshot was taken
+ * @param rage        the rage when the snapshot was taken
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public record OrcSnapshot(String name,
+                          Date dateOfBirth,
+                          int health,
+                          int rage) implements CreatureSnapshot
+{
+    /**
+     * Gets the rage.
+     *
+     * @return rage
+     */
+    @Override
+    public int resource()
+    {
+        return rage;
+    }
+}
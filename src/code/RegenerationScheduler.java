@@ -0,0 +1,375 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Regenerates fire power, mana and rage on a schedule, touching only the
+ * creatures that are below their maximum.
+ * <p>
+ * Each registered creature restores a fixed amount every few ticks. Due
+ * regenerations are kept in a hierarchical timing wheel of
+ * {@value #LEVELS} levels of {@value #SLOTS} slots. The first level holds
+ * regenerations due within {@value #SLOTS} ticks, and each later level
+ * covers {@value #SLOTS} times the span of the one before. Each call to
+ * {@link #tick()} runs the regenerations in one slot as a batch. Every
+ * {@value #SLOTS} ticks it also spreads the next slot of a higher level
+ * down into finer slots. Scheduling and expiry cost O(1) per regeneration.
+ * </p>
+ * <p>
+ * A creature that reaches its maximum leaves the wheel and costs nothing
+ * while it stays full. A {@link CreatureListener} wakes it when its
+ * resource drops again, from whichever thread used the ability. The wake
+ * is queued, and the next tick puts it back in the wheel. A tick's cost
+ * therefore follows the number of creatures regenerating, not the
+ * population.
+ * </p>
+ * <p>
+ * {@link #tick()} must be called from one thread at a time. Creatures can
+ * be registered, unregistered and used from any thread.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class RegenerationScheduler
+{
+    private static final int SLOT_BITS      = 8;
+    private static final int SLOTS          = 1 << SLOT_BITS;
+    private static final int SLOT_MASK      = SLOTS - 1;
+    private static final int LEVELS         = 4;
+    private static final int MINIMUM_PERIOD = 1;
+    private static final int MINIMUM_AMOUNT = 1;
+
+    private static final int DORMANT   = 0;
+    private static final int SCHEDULED = 1;
+    private static final int CANCELLED = 2;
+
+    private static final VarHandle STATE;
+
+    static
+    {
+        try
+        {
+            STATE = MethodHandles.lookup()
+                    .findVarHandle(Entry.class, "state", int.class);
+        }
+        catch (final ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Entry[][]            wheel;
+    private final Queue<Entry>         woken;
+    private final Map<Creature, Entry> entries;
+
+    private long now;
+    private long regenerations;
+    private int  scheduled;
+
+    /**
+     * Constructs a scheduler at tick 0 with no creatures.
+     */
+    public RegenerationScheduler()
+    {
+        wheel         = new Entry[LEVELS][SLOTS];
+        woken         = new ConcurrentLinkedQueue<>();
+        entries       = new ConcurrentHashMap<>();
+        now           = 0;
+        regenerations = 0;
+        scheduled     = 0;
+    }
+
+    /**
+     * Regenerates a creature's resource by amount every period ticks until
+     * it is full, and again whenever it is spent.
+     *
+     * @param creature the Dragon, Elf or Orc to regenerate
+     * @param period   the number of ticks between regenerations
+     * @param amount   the amount restored each time
+     * @throws IllegalArgumentException if the creature is already
+     *                                  registered, its type is not
+     *                                  supported, or period or amount is
+     *                                  below 1
+     */
+    public void register(final Creature creature,
+                         final int period,
+                         final int amount)
+    {
+        final Entry entry;
+
+        if (period < MINIMUM_PERIOD || amount < MINIMUM_AMOUNT)
+        {
+            throw new IllegalArgumentException("Period and amount must be at least 1");
+        }
+
+        entry = new Entry(creature, CreatureRecordFormat.typeOf(creature), period, amount);
+
+        if (entries.putIfAbsent(creature, entry) != null)
+        {
+            throw new IllegalArgumentException(creature.getName() + " is already registered");
+        }
+
+        creature.addListener(entry);
+        entry.wake();
+    }
+
+    /**
+     * Stops regenerating a creature.
+     *
+     * @param creature the creature to stop
+     * @return true if the creature was registered
+     */
+    public boolean unregister(final Creature creature)
+    {
+        final Entry entry;
+
+        entry = entries.remove(creature);
+
+        if (entry == null)
+        {
+            return false;
+        }
+
+        creature.removeListener(entry);
+        STATE.setVolatile(entry, CANCELLED);
+
+        return true;
+    }
+
+    /**
+     * Advances one tick and runs every regeneration now due.
+     *
+     * @return the number of creatures regenerated
+     */
+    public int tick()
+    {
+        Entry entry;
+        int ran;
+
+        now++;
+
+        while ((entry = woken.poll()) != null)
+        {
+            schedule(entry, now + entry.period - 1);
+        }
+
+        // Spread each higher level's current slot down once the level below wraps
+        for (int level = 1; level < LEVELS; level++)
+        {
+            if ((now & ((1L << (SLOT_BITS * level)) - 1)) != 0)
+            {
+                break;
+            }
+
+            cascade(level);
+        }
+
+        entry = wheel[0][(int) (now & SLOT_MASK)];
+        wheel[0][(int) (now & SLOT_MASK)] = null;
+        ran   = 0;
+
+        while (entry != null)
+        {
+            final Entry next;
+
+            next       = entry.next;
+            entry.next = null;
+            scheduled--;
+
+            if (entry.state == SCHEDULED)
+            {
+                entry.regenerate();
+                ran++;
+            }
+
+            entry = next;
+        }
+
+        regenerations += ran;
+
+        return ran;
+    }
+
+    /**
+     * Gets the current tick.
+     *
+     * @return the number of ticks run
+     */
+    public long getTick()
+    {
+        return now;
+    }
+
+    /**
+     * Gets the number of regenerations waiting in the wheel.
+     *
+     * @return the number of scheduled regenerations
+     */
+    public int getScheduledCount()
+    {
+        return scheduled;
+    }
+
+    /**
+     * Gets the number of regenerations run so far.
+     *
+     * @return the number of regenerations
+     */
+    public long getRegenerations()
+    {
+        return regenerations;
+    }
+
+    /*
+    Puts an entry in the slot for its deadline: the finest level whose span
+    covers the time left
+     */
+    private void schedule(final Entry entry,
+                          final long deadline)
+    {
+        final long delay;
+
+        int level;
+
+        delay = Math.max(deadline - now, 0);
+        level = 0;
+
+        while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1)))
+        {
+            level++;
+        }
+
+        entry.deadline = deadline;
+        entry.next     = wheel[level][(int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        wheel[level][(int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK)] = entry;
+        scheduled++;
+    }
+
+    private void cascade(final int level)
+    {
+        final int slot;
+
+        Entry entry;
+
+        slot  = (int) ((now >>> (SLOT_BITS * level)) & SLOT_MASK);
+        entry = wheel[level][slot];
+        wheel[level][slot] = null;
+
+        while (entry != null)
+        {
+            final Entry next;
+
+            next       = entry.next;
+            entry.next = null;
+            scheduled--;
+            schedule(entry, entry.deadline);
+            entry = next;
+        }
+    }
+
+    /*
+    One registered creature; it is either in the wheel or the wake queue
+    (SCHEDULED), resting at full (DORMANT), or unregistered (CANCELLED)
+     */
+    private final class Entry implements CreatureListener
+    {
+        private final Creature creature;
+        private final int      type;
+        private final int      period;
+        private final int      amount;
+
+        private volatile int state;
+
+        // Only used by the ticking thread
+        private long  deadline;
+        private Entry next;
+
+        private Entry(final Creature creature,
+                      final int type,
+                      final int period,
+                      final int amount)
+        {
+            this.creature = creature;
+            this.type     = type;
+            this.period   = period;
+            this.amount   = amount;
+            this.state    = DORMANT;
+        }
+
+        @Override
+        public void creatureChanged(final Creature changed,
+                                    final int action,
+                                    final int oldValue,
+                                    final int newValue)
+        {
+            if (action != TAKE_DAMAGE && action != HEAL && newValue < maximum())
+            {
+                wake();
+            }
+        }
+
+        /*
+        Queues the entry for the wheel if it is resting and not full
+         */
+        private void wake()
+        {
+            if (state == DORMANT && resource() < maximum() &&
+                STATE.compareAndSet(this, DORMANT, SCHEDULED))
+            {
+                woken.add(this);
+            }
+        }
+
+        /*
+        Restores once, then either schedules the next regeneration or rests
+         */
+        private void regenerate()
+        {
+            switch (type)
+            {
+                case CreatureStore.TYPE_DRAGON:
+                    ((Dragon) creature).restoreFirePower(amount);
+                    break;
+                case CreatureStore.TYPE_ELF:
+                    ((Elf) creature).restoreMana(amount);
+                    break;
+                default:
+                    ((Orc) creature).restoreRage(amount);
+                    break;
+            }
+
+            if (resource() < maximum())
+            {
+                schedule(this, now + period);
+            }
+            else if (STATE.compareAndSet(this, SCHEDULED, DORMANT))
+            {
+                // An ability used since the check would not have woken us
+                wake();
+            }
+        }
+
+        private int resource()
+        {
+            return CreatureRecordFormat.resourceOf(creature);
+        }
+
+        private int maximum()
+        {
+            switch (type)
+            {
+                case CreatureStore.TYPE_DRAGON:
+                    return Dragon.MAXIMUM_FIRE_POWER;
+                case CreatureStore.TYPE_ELF:
+                    return Elf.MAXIMUM_MANA;
+                default:
+                    return Orc.MAX_RAGE_POINTS;
+            }
+        }
+    }
+}
@@ -0,0 +1,327 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Publishes immutable, versioned snapshots of a roster of creatures for
+ * readers such as leaderboards, user interfaces and spectators.
+ * <p>
+ * Combat threads change creatures as usual and never wait for readers. A
+ * {@link CreatureListener} marks each changed creature dirty. Each call to
+ * {@link #publish()} takes new {@link CreatureSnapshot}s of the dirty
+ * creatures only, copies the previous roster with those replaced, and
+ * stores the new {@link Roster} in a volatile field. A reader gets a whole
+ * roster with one volatile read through {@link #current()}. A roster never
+ * changes once published, so readers can iterate it, sort copies of it or
+ * hand it to other threads without locking, and two reads of the same
+ * version always agree.
+ * </p>
+ * <p>
+ * How fresh the rosters are is up to the caller: a game loop can publish
+ * once per tick, or a separate thread can publish on a timer. Adding,
+ * removing and publishing lock the publisher; reading does not.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class RosterPublisher
+{
+    private static final CreatureSnapshot[] NO_SNAPSHOTS = new CreatureSnapshot[0];
+
+    private static final VarHandle DIRTY;
+
+    static
+    {
+        try
+        {
+            DIRTY = MethodHandles.lookup()
+                    .findVarHandle(Entry.class, "dirty", boolean.class);
+        }
+        catch (final ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Map<Creature, Entry> entries;
+    private final List<Entry>          slots;
+    private final Queue<Entry>         dirtyEntries;
+
+    private CreatureSnapshot[] latest;
+    private boolean            membershipChanged;
+
+    private volatile Roster roster;
+
+    /**
+     * Constructs a publisher with an empty roster at version 0.
+     */
+    public RosterPublisher()
+    {
+        entries           = new IdentityHashMap<>();
+        slots             = new ArrayList<>();
+        dirtyEntries      = new ConcurrentLinkedQueue<>();
+        latest            = NO_SNAPSHOTS;
+        membershipChanged = false;
+        roster            = new Roster(0, NO_SNAPSHOTS);
+    }
+
+    /**
+     * Adds a creature to the roster, from the next {@link #publish()}.
+     *
+     * @param creature the Dragon, Elf or Orc to add
+     * @throws IllegalArgumentException if the creature is already in the
+     *                                  roster or its type is not supported
+     */
+    public synchronized void add(final Creature creature)
+    {
+        final Entry entry;
+
+        if (!(creature instanceof Dragon || creature instanceof Elf || creature instanceof Orc))
+        {
+            throw new IllegalArgumentException("Unsupported creature type: " +
+                    (creature == null ? null : creature.getClass().getName()));
+        }
+
+        if (entries.containsKey(creature))
+        {
+            throw new IllegalArgumentException(creature.getName() + " is already in the roster");
+        }
+
+        entry = new Entry(creature, slots.size());
+
+        entries.put(creature, entry);
+        slots.add(entry);
+
+        if (latest.length < slots.size())
+        {
+            latest = Arrays.copyOf(latest, Math.max(latest.length * 2, slots.size()));
+        }
+
+        creature.addListener(entry);
+        membershipChanged = true;
+        entry.markDirty();
+    }
+
+    /**
+     * Removes a creature from the roster, from the next {@link #publish()}.
+     *
+     * @param creature the creature to remove
+     * @return true if the creature was in the roster
+     */
+    public synchronized boolean remove(final Creature creature)
+    {
+        final Entry entry;
+        final Entry last;
+
+        entry = entries.remove(creature);
+
+        if (entry == null)
+        {
+            return false;
+        }
+
+        creature.removeListener(entry);
+        entry.removed = true;
+
+        // Move the last creature into the freed slot
+        last = slots.remove(slots.size() - 1);
+
+        if (last != entry)
+        {
+            slots.set(entry.slot, last);
+            latest[entry.slot] = latest[last.slot];
+            last.slot          = entry.slot;
+        }
+
+        latest[slots.size()] = null;
+        membershipChanged    = true;
+
+        return true;
+    }
+
+    /**
+     * Takes new snapshots of every creature changed since the last call and
+     * publishes them as the next roster version. If nothing has changed,
+     * the current roster is kept.
+     *
+     * @return the roster now published
+     */
+    public synchronized Roster publish()
+    {
+        final Roster published;
+
+        Entry entry;
+        boolean changed;
+
+        changed = membershipChanged;
+
+        while ((entry = dirtyEntries.poll()) != null)
+        {
+            if (!entry.removed)
+            {
+                // Clear first, so a change made while copying marks it again
+                DIRTY.setVolatile(entry, false);
+                latest[entry.slot] = CreatureSnapshot.of(entry.creature);
+                changed = true;
+            }
+        }
+
+        if (!changed)
+        {
+            return roster;
+        }
+
+        published         = new Roster(roster.version + 1, Arrays.copyOf(latest, slots.size()));
+        roster            = published;
+        membershipChanged = false;
+
+        return published;
+    }
+
+    /**
+     * Gets the latest published roster. Never blocks.
+     *
+     * @return the current roster
+     */
+    public Roster current()
+    {
+        return roster;
+    }
+
+    /**
+     * Gets the number of creatures in the roster, including any not yet
+     * published.
+     *
+     * @return the number of creatures
+     */
+    public synchronized int size()
+    {
+        return slots.size();
+    }
+
+    /**
+     * One published version of a roster. Immutable.
+     * <p>
+     * A version is consistent per creature only, and only in the sense of
+     * {@link CreatureSnapshot}: creatures are copied one at a time while
+     * writers keep running, so a version is not the state of the whole
+     * roster at one instant. What a version does guarantee:
+     * <ul>
+     *     <li>Every change whose listeners had returned before
+     *     {@link RosterPublisher#publish()} was called is reflected in
+     *     it.</li>
+     *     <li>A change made while {@link RosterPublisher#publish()} runs
+     *     is reflected in it or in the next version.</li>
+     *     <li>Versions only move forward: a creature's snapshot in a later
+     *     version was taken no earlier than in an earlier one.</li>
+     * </ul>
+     * </p>
+     */
+    public static final class Roster
+    {
+        private final long               version;
+        private final CreatureSnapshot[] snapshots;
+
+        private Roster(final long version,
+                       final CreatureSnapshot[] snapshots)
+        {
+            this.version   = version;
+            this.snapshots = snapshots;
+        }
+
+        /**
+         * Gets the version, which goes up by one with each publication.
+         *
+         * @return the version
+         */
+        public long getVersion()
+        {
+            return version;
+        }
+
+        /**
+         * Gets the number of creatures in this version.
+         *
+         * @return the number of snapshots
+         */
+        public int size()
+        {
+            return snapshots.length;
+        }
+
+        /**
+         * Gets one creature's snapshot. Positions are stable between
+         * versions except where creatures were removed.
+         *
+         * @param index the position, from 0 up to {@link #size()}
+         * @return the snapshot
+         * @throws IndexOutOfBoundsException if index is out of range
+         */
+        public CreatureSnapshot get(final int index)
+        {
+            return snapshots[index];
+        }
+
+        /**
+         * Gets every snapshot as a read-only list, without copying.
+         *
+         * @return the snapshots
+         */
+        public List<CreatureSnapshot> asList()
+        {
+            return Collections.unmodifiableList(Arrays.asList(snapshots));
+        }
+    }
+
+    /*
+    One creature in the roster, with its slot and dirty flag
+     */
+    private final class Entry implements CreatureListener
+    {
+        private final Creature creature;
+
+        private volatile boolean dirty;
+
+        // Guarded by the publisher's lock
+        private int     slot;
+        private boolean removed;
+
+        private Entry(final Creature creature,
+                      final int slot)
+        {
+            this.creature = creature;
+            this.slot     = slot;
+            this.dirty    = false;
+            this.removed  = false;
+        }
+
+        @Override
+        public void creatureChanged(final Creature changed,
+                                    final int action,
+                                    final int oldValue,
+                                    final int newValue)
+        {
+            markDirty();
+        }
+
+        /*
+        Queues the entry once until the next publish clears it
+         */
+        private void markDirty()
+        {
+            if (!dirty && DIRTY.compareAndSet(this, false, true))
+            {
+                dirtyEntries.add(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,498 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A uniform grid over a rectangular world that finds the creatures inside
+ * a circle or a cone, for area-of-effect attacks.
+ * <p>
+ * The world runs from (0, 0) to (width, height) and is divided into square
+ * cells. Each cell keeps its creatures together with copies of their
+ * coordinates in parallel arrays, so a query only reads the cells that
+ * overlap the area and checks distances without touching the creature
+ * objects. The damage methods find the targets and apply
+ * {@link Creature#takeDamage(int)} to each of them in the same pass.
+ * </p>
+ * <p>
+ * A grid is not thread-safe. Creatures in a grid must be moved with
+ * {@link #move(Creature, double, double)} so the grid stays in step with
+ * their positions.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class SpatialGrid
+{
+    private static final int INITIAL_CELL_CAPACITY = 8;
+
+    private final double width;
+    private final double height;
+    private final double cellSize;
+    private final int    columns;
+    private final int    rows;
+    private final Cell[] cells;
+
+    private int size;
+
+    /**
+     * Constructs an empty grid.
+     *
+     * @param width    the width of the world
+     * @param height   the height of the world
+     * @param cellSize the side of each cell; about the radius of a typical
+     *                 query works well
+     * @throws IllegalArgumentException if any size is not positive
+     */
+    public SpatialGrid(final double width,
+                       final double height,
+                       final double cellSize)
+    {
+        if (!(width > 0) || !(height > 0) || !(cellSize > 0))
+        {
+            throw new IllegalArgumentException("Grid sizes must be positive");
+        }
+
+        this.width    = width;
+        this.height   = height;
+        this.cellSize = cellSize;
+        this.columns  = (int) Math.ceil(width / cellSize);
+        this.rows     = (int) Math.ceil(height / cellSize);
+        this.cells    = new Cell[columns * rows];
+        this.size     = 0;
+    }
+
+    /**
+     * Adds a creature at its current position.
+     *
+     * @param creature the creature to add
+     * @throws IllegalArgumentException if the creature has no position or
+     *                                  is outside the world
+     */
+    public void add(final Creature creature)
+    {
+        if (!creature.hasPosition())
+        {
+            throw new IllegalArgumentException(creature.getName() + " has no position");
+        }
+
+        cellFor(cellIndex(creature.getX(), creature.getY()))
+                .add(creature, creature.getX(), creature.getY());
+        size++;
+    }
+
+    /**
+     * Removes a creature from the grid.
+     *
+     * @param creature the creature to remove
+     * @return true if the creature was in the grid
+     */
+    public boolean remove(final Creature creature)
+    {
+        final Cell cell;
+
+        if (!creature.hasPosition() || !contains(creature.getX(), creature.getY()))
+        {
+            return false;
+        }
+
+        cell = cells[cellIndex(creature.getX(), creature.getY())];
+
+        if (cell == null || !cell.remove(creature))
+        {
+            return false;
+        }
+
+        size--;
+
+        return true;
+    }
+
+    /**
+     * Moves a creature in the grid to a new position.
+     *
+     * @param creature the creature to move; must be in the grid
+     * @param x        the new x coordinate
+     * @param y        the new y coordinate
+     * @throws IllegalArgumentException if the creature is not in the grid
+     *                                  or the position is outside the world
+     */
+    public void move(final Creature creature,
+                     final double x,
+                     final double y)
+    {
+        final int from;
+        final int to;
+
+        to   = cellIndex(x, y);
+        from = creature.hasPosition() && contains(creature.getX(), creature.getY()) ?
+               cellIndex(creature.getX(), creature.getY()) : -1;
+
+        if (from < 0 || cells[from] == null || !cells[from].remove(creature))
+        {
+            throw new IllegalArgumentException(creature.getName() + " is not in the grid");
+        }
+
+        creature.setPosition(x, y);
+        cellFor(to).add(creature, x, y);
+    }
+
+    /**
+     * Gets the number of creatures in the grid.
+     *
+     * @return the number of creatures
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Finds every creature within a distance of a point.
+     *
+     * @param x      the centre's x coordinate
+     * @param y      the centre's y coordinate
+     * @param radius the largest distance to include
+     * @param found  receives the creatures, in no particular order
+     * @return the number of creatures found
+     */
+    public int findInRadius(final double x,
+                            final double y,
+                            final double radius,
+                            final List<Creature> found)
+    {
+        return visit(x, y, radius, 1.0, 0.0, -1.0, found, 0);
+    }
+
+    /**
+     * Finds every creature inside a cone: within range of the apex and
+     * within halfAngle of its direction. A creature exactly at the apex
+     * is not included.
+     *
+     * @param x          the apex's x coordinate
+     * @param y          the apex's y coordinate
+     * @param directionX the x part of the cone's direction
+     * @param directionY the y part of the cone's direction
+     * @param halfAngle  the largest angle from the direction to include;
+     *                   unit: radians
+     * @param range      the largest distance to include
+     * @param found      receives the creatures, in no particular order
+     * @return the number of creatures found
+     * @throws IllegalArgumentException if the direction has no length
+     */
+    public int findInCone(final double x,
+                          final double y,
+                          final double directionX,
+                          final double directionY,
+                          final double halfAngle,
+                          final double range,
+                          final List<Creature> found)
+    {
+        final double length;
+
+        length = Math.hypot(directionX, directionY);
+
+        if (!(length > 0))
+        {
+            throw new IllegalArgumentException("Cone direction must have a length");
+        }
+
+        return visit(x, y, range, directionX / length, directionY / length,
+                     Math.cos(halfAngle), found, 0);
+    }
+
+    /**
+     * Applies damage to every creature within a distance of a point.
+     *
+     * @param x      the centre's x coordinate
+     * @param y      the centre's y coordinate
+     * @param radius the largest distance to include
+     * @param damage the damage each creature takes
+     * @return the number of creatures hit
+     * @throws DamageException if damage is negative
+     */
+    public int damageInRadius(final double x,
+                              final double y,
+                              final double radius,
+                              final int damage)
+    {
+        checkDamage(damage);
+
+        return visit(x, y, radius, 1.0, 0.0, -1.0, null, damage);
+    }
+
+    /**
+     * Applies damage to every creature inside a cone, as found by
+     * {@link #findInCone}.
+     *
+     * @param x          the apex's x coordinate
+     * @param y          the apex's y coordinate
+     * @param directionX the x part of the cone's direction
+     * @param directionY the y part of the cone's direction
+     * @param halfAngle  the largest angle from the direction to include;
+     *                   unit: radians
+     * @param range      the largest distance to include
+     * @param damage     the damage each creature takes
+     * @return the number of creatures hit
+     * @throws IllegalArgumentException if the direction has no length
+     * @throws DamageException          if damage is negative
+     */
+    public int damageInCone(final double x,
+                            final double y,
+                            final double directionX,
+                            final double directionY,
+                            final double halfAngle,
+                            final double range,
+                            final int damage)
+    {
+        final double length;
+
+        checkDamage(damage);
+        length = Math.hypot(directionX, directionY);
+
+        if (!(length > 0))
+        {
+            throw new IllegalArgumentException("Cone direction must have a length");
+        }
+
+        return visit(x, y, range, directionX / length, directionY / length,
+                     Math.cos(halfAngle), null, damage);
+    }
+
+    /**
+     * Makes a dragon breathe fire in a direction, hitting every creature
+     * in the cone in front of it with {@value Dragon#FIRE_BREATH_DAMAGE}
+     * damage.
+     *
+     * @param dragon     the dragon; must have a position
+     * @param directionX the x part of the direction it faces
+     * @param directionY the y part of the direction it faces
+     * @param halfAngle  the half-width of the flames; unit: radians
+     * @param range      the reach of the flames
+     * @return the number of creatures hit, or
+     *         {@value Creature#ABILITY_FAILED} if the dragon's fire power
+     *         was too low
+     * @throws IllegalArgumentException if the dragon has no position or the
+     *                                  direction has no length
+     */
+    public int breatheFire(final Dragon dragon,
+                           final double directionX,
+                           final double directionY,
+                           final double halfAngle,
+                           final double range)
+    {
+        final int damage;
+
+        if (!dragon.hasPosition())
+        {
+            throw new IllegalArgumentException(dragon.getName() + " has no position");
+        }
+
+        damage = dragon.tryBreatheFire();
+
+        if (damage == Creature.ABILITY_FAILED)
+        {
+            return Creature.ABILITY_FAILED;
+        }
+
+        return damageInCone(dragon.getX(), dragon.getY(), directionX, directionY,
+                            halfAngle, range, damage);
+    }
+
+    /*
+    Visits the cells overlapping the circle and handles each creature that
+    is within radius and inside the cone given by a unit direction and the
+    cosine of its half angle; a cosine of -1 accepts every direction.
+    Creatures are added to found, or damaged when found is null
+     */
+    private int visit(final double x,
+                      final double y,
+                      final double radius,
+                      final double directionX,
+                      final double directionY,
+                      final double minimumCosine,
+                      final List<Creature> found,
+                      final int damage)
+    {
+        final double radiusSquared;
+        final boolean cone;
+        final int firstColumn;
+        final int lastColumn;
+        final int firstRow;
+        final int lastRow;
+
+        int hits;
+
+        radiusSquared = radius * radius;
+        cone          = minimumCosine > -1.0;
+        firstColumn   = Math.max(0, (int) Math.floor((x - radius) / cellSize));
+        lastColumn    = Math.min(columns - 1, (int) Math.floor((x + radius) / cellSize));
+        firstRow      = Math.max(0, (int) Math.floor((y - radius) / cellSize));
+        lastRow       = Math.min(rows - 1, (int) Math.floor((y + radius) / cellSize));
+        hits          = 0;
+
+        for (int row = firstRow; row <= lastRow; row++)
+        {
+            for (int column = firstColumn; column <= lastColumn; column++)
+            {
+                final Cell cell;
+
+                cell = cells[row * columns + column];
+
+                if (cell == null)
+                {
+                    continue;
+                }
+
+                for (int i = 0; i < cell.size; i++)
+                {
+                    final double dx;
+                    final double dy;
+                    final double distanceSquared;
+
+                    dx              = cell.xs[i] - x;
+                    dy              = cell.ys[i] - y;
+                    distanceSquared = dx * dx + dy * dy;
+
+                    if (distanceSquared > radiusSquared)
+                    {
+                        continue;
+                    }
+
+                    if (cone)
+                    {
+                        final double along;
+
+                        along = dx * directionX + dy * directionY;
+
+                        // along / distance >= minimumCosine, compared as signed
+                        // squares to avoid a square root
+                        if (distanceSquared == 0 ||
+                            along * Math.abs(along) < minimumCosine * Math.abs(minimumCosine) *
+                                                      distanceSquared)
+                        {
+                            continue;
+                        }
+                    }
+
+                    if (found != null)
+                    {
+                        found.add(cell.creatures[i]);
+                    }
+                    else
+                    {
+                        cell.creatures[i].takeDamage(damage);
+                    }
+
+                    hits++;
+                }
+            }
+        }
+
+        return hits;
+    }
+
+    private boolean contains(final double x,
+                             final double y)
+    {
+        return x >= 0 && x <= width && y >= 0 && y <= height;
+    }
+
+    /*
+    Finds the cell holding a point; points on the far edges belong to the
+    last cell
+    throws new IllegalArgumentException
+     */
+    private int cellIndex(final double x,
+                          final double y)
+    {
+        final int column;
+        final int row;
+
+        if (!contains(x, y))
+        {
+            throw new IllegalArgumentException("Position (" + x + ", " + y +
+                    ") is outside the world");
+        }
+
+        column = Math.min((int) (x / cellSize), columns - 1);
+        row    = Math.min((int) (y / cellSize), rows - 1);
+
+        return row * columns + column;
+    }
+
+    private Cell cellFor(final int index)
+    {
+        if (cells[index] == null)
+        {
+            cells[index] = new Cell();
+        }
+
+        return cells[index];
+    }
+
+    private static void checkDamage(final int damage)
+    {
+        if (damage < Creature.MIN_DAMAGE_ALLOWED)
+        {
+            throw new DamageException("Damage cannot be below " +
+                    Creature.MIN_DAMAGE_ALLOWED);
+        }
+    }
+
+    /*
+    The creatures in one cell and copies of their coordinates; removal
+    moves the last creature into the gap
+     */
+    private static final class Cell
+    {
+        private Creature[] creatures;
+        private double[]   xs;
+        private double[]   ys;
+        private int        size;
+
+        private Cell()
+        {
+            creatures = new Creature[INITIAL_CELL_CAPACITY];
+            xs        = new double[INITIAL_CELL_CAPACITY];
+            ys        = new double[INITIAL_CELL_CAPACITY];
+            size      = 0;
+        }
+
+        private void add(final Creature creature,
+                         final double x,
+                         final double y)
+        {
+            if (size == creatures.length)
+            {
+                creatures = Arrays.copyOf(creatures, size * 2);
+                xs        = Arrays.copyOf(xs, size * 2);
+                ys        = Arrays.copyOf(ys, size * 2);
+            }
+
+            creatures[size] = creature;
+            xs[size]        = x;
+            ys[size]        = y;
+            size++;
+        }
+
+        private boolean remove(final Creature creature)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                if (creatures[i] == creature)
+                {
+                    size--;
+                    creatures[i]    = creatures[size];
+                    xs[i]           = xs[size];
+                    ys[i]           = ys[size];
+                    creatures[size] = null;
+
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * The current year of the world, used for creature ages and to reject
+ * dates of birth in the future.
+ * <p>
+ * The clock starts at the year given by {@code -Dcreature.year}, or
+ * {@value #DEFAULT_YEAR} if none is given, and only moves forward. A
+ * creature caches its age together with the year it was computed for, so
+ * advancing the clock invalidates every cached age in one step and each
+ * age is computed again only when it is next asked for.
+ * </p>
+ *
+ * @author David Martinez,
+ *         Daniel Do
+ * @version 1.0
+ */
+public final class WorldClock
+{
+    public static final int DEFAULT_YEAR = 2025;
+
+    /**
+     * The latest year the clock can reach; dates are written with four
+     * digits.
+     */
+    public static final int MAXIMUM_YEAR = 9999;
+
+    private static volatile int year = checkStartYear(Integer.getInteger("creature.year",
+                                                                         DEFAULT_YEAR));
+
+    private WorldClock()
+    {
+    }
+
+    /**
+     * Gets the current year.
+     *
+     * @return the year
+     */
+    public static int getYear()
+    {
+        return year;
+    }
+
+    /**
+     * Moves the clock on by one year.
+     *
+     * @return the new year
+     * @throws IllegalStateException if the clock is at
+     *                               {@value #MAXIMUM_YEAR}
+     */
+    public static synchronized int advanceYear()
+    {
+        if (year == MAXIMUM_YEAR)
+        {
+            throw new IllegalStateException("The clock cannot pass " + MAXIMUM_YEAR);
+        }
+
+        year++;
+
+        return year;
+    }
+
+    /**
+     * Moves the clock on to a later year, or leaves it if it is already
+     * there.
+     *
+     * @param newYear the year to move to
+     * @throws IllegalArgumentException if newYear is before the current
+     *                                  year or after {@value #MAXIMUM_YEAR}
+     */
+    public static synchronized void advanceTo(final int newYear)
+    {
+        if (newYear < year || newYear > MAXIMUM_YEAR)
+        {
+            throw new IllegalArgumentException("Year must be between " + year +
+                    " and " + MAXIMUM_YEAR);
+        }
+
+        year = newYear;
+    }
+
+    /*
+    Checks the configured start year
+    throws new IllegalArgumentException
+     */
+    private static int checkStartYear(final int startYear)
+    {
+        if (startYear <= Date.MINIMUM_YEAR || startYear > MAXIMUM_YEAR)
+        {
+            throw new IllegalArgumentException("creature.year must be between " +
+                    (Date.MINIMUM_YEAR + 1) + " and " + MAXIMUM_YEAR);
+        }
+
+        return startYear;
+    }
+}
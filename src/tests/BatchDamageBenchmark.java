@@ -0,0 +1,132 @@
+/**
+ * BatchDamageBenchmark times an area-of-effect hit on 50,000 creatures
+ * using per-creature calls and the batch operations of
+ * {@link CreatureStore}.
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class BatchDamageBenchmark
+{
+    private static final int CREATURE_COUNT = 50_000;
+    private static final int WARMUP_ROUNDS  = 2_000;
+    private static final int MEASURE_ROUNDS = 2_000;
+    private static final int DAMAGE         = 1;
+    private static final int HEAL           = 20;
+    private static final long NANOS_PER_MICRO = 1_000L;
+
+    public static void main(final String[] args)
+    {
+        final CreatureStore store;
+        final Date dateOfBirth;
+        final int[] ids;
+        final int[] amounts;
+
+        dateOfBirth = new Date(13, 5, 2012);
+        store       = new CreatureStore(CREATURE_COUNT);
+        ids         = new int[CREATURE_COUNT];
+        amounts     = new int[CREATURE_COUNT];
+
+        for (int i = 0; i < CREATURE_COUNT; i++)
+        {
+            ids[i]     = store.addOrc(dateOfBirth, 100, 0);
+            amounts[i] = DAMAGE;
+        }
+
+        run(store, ids, amounts, WARMUP_ROUNDS);
+
+        report("per-creature takeDamage", timeSingle(store, ids));
+        report("takeDamageAll(ids, amounts)", timeBatch(store, ids, amounts));
+        report("takeDamageAll(ids, amount)", timeUniform(store, ids));
+        report("takeDamageRange", timeRange(store));
+    }
+
+    private static void run(final CreatureStore store,
+                            final int[] ids,
+                            final int[] amounts,
+                            final int rounds)
+    {
+        for (int r = 0; r < rounds; r++)
+        {
+            for (final int id : ids)
+            {
+                store.takeDamage(id, DAMAGE);
+            }
+            store.takeDamageAll(ids, amounts);
+            store.takeDamageAll(ids, DAMAGE);
+            store.takeDamageRange(0, ids.length, DAMAGE);
+            store.healAll(ids, HEAL);
+        }
+    }
+
+    private static long timeSingle(final CreatureStore store,
+                                   final int[] ids)
+    {
+        final long start;
+
+        start = System.nanoTime();
+
+        for (int r = 0; r < MEASURE_ROUNDS; r++)
+        {
+            for (final int id : ids)
+            {
+                store.takeDamage(id, DAMAGE);
+            }
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private static long timeBatch(final CreatureStore store,
+                                  final int[] ids,
+                                  final int[] amounts)
+    {
+        final long start;
+
+        start = System.nanoTime();
+
+        for (int r = 0; r < MEASURE_ROUNDS; r++)
+        {
+            store.takeDamageAll(ids, amounts);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private static long timeUniform(final CreatureStore store,
+                                    final int[] ids)
+    {
+        final long start;
+
+        start = System.nanoTime();
+
+        for (int r = 0; r < MEASURE_ROUNDS; r++)
+        {
+            store.takeDamageAll(ids, DAMAGE);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private static long timeRange(final CreatureStore store)
+    {
+        final long start;
+
+        start = System.nanoTime();
+
+        for (int r = 0; r < MEASURE_ROUNDS; r++)
+        {
+            store.takeDamageRange(0, store.size(), DAMAGE);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private static void report(final String label,
+                               final long elapsedNanos)
+    {
+        System.out.println(label + ": " +
+                (double) elapsedNanos / MEASURE_ROUNDS / NANOS_PER_MICRO +
+                " us per " + CREATURE_COUNT + "-creature hit");
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * BattleSimulatorBenchmark reports the ticks per second of
+ * {@link BattleSimulator} for 1, 2, 4, ... threads up to the number of
+ * available cores, and checks that every thread count ends the battle in
+ * the same state.
+ * <p>
+ * Usage: {@code java BattleSimulatorBenchmark [creatures] [ticks]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class BattleSimulatorBenchmark
+{
+    private static final int DEFAULT_CREATURES = 1_000_000;
+    private static final int DEFAULT_TICKS     = 20;
+    private static final int WARMUP_TICKS      = 5;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    public static void main(final String[] args)
+    {
+        final int creatures;
+        final int ticks;
+        final int cores;
+
+        creatures = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CREATURES;
+        ticks     = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TICKS;
+        cores     = Runtime.getRuntime().availableProcessors();
+
+        long expectedChecksum;
+
+        expectedChecksum = -1;
+
+        for (int threads = 1; threads <= cores; threads *= 2)
+        {
+            final Creature[] roster;
+            final BattleSimulator simulator;
+            final long start;
+            final long elapsed;
+            final long checksum;
+
+            roster    = buildRoster(creatures);
+            simulator = new BattleSimulator(roster, threads);
+
+            simulator.run(WARMUP_TICKS);
+
+            start = System.nanoTime();
+            simulator.run(ticks);
+            elapsed = System.nanoTime() - start;
+
+            simulator.shutdown();
+
+            checksum = checksum(roster);
+
+            System.out.printf("%2d threads: %8.2f ticks/s, damage %d, checksum %d%n",
+                              threads,
+                              ticks * NANOS_PER_SECOND / elapsed,
+                              simulator.getTotalDamage(),
+                              checksum);
+
+            if (expectedChecksum != -1 && checksum != expectedChecksum)
+            {
+                System.out.println("Results differ from the single-threaded run!");
+                System.exit(1);
+            }
+
+            expectedChecksum = checksum;
+        }
+    }
+
+    private static Creature[] buildRoster(final int size)
+    {
+        final Creature[] roster;
+        final Date dateOfBirth;
+
+        roster      = new Creature[size];
+        dateOfBirth = new Date(3, 3, 1897);
+
+        for (int i = 0; i < size; i++)
+        {
+            switch (i % 3)
+            {
+                case 0:
+                    roster[i] = new Dragon("Dragon", dateOfBirth, 100, 100);
+                    break;
+                case 1:
+                    roster[i] = new Elf("Elf", dateOfBirth, 100, 50);
+                    break;
+                default:
+                    roster[i] = new Orc("Orc", dateOfBirth, 100, 30);
+                    break;
+            }
+        }
+
+        return roster;
+    }
+
+    private static long checksum(final Creature[] roster)
+    {
+        long sum;
+
+        sum = 0;
+
+        for (int i = 0; i < roster.length; i++)
+        {
+            sum = sum * 31 + roster[i].getCurrentHealth();
+        }
+
+        return sum;
+    }
+}
@@ -0,0 +1,291 @@
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * CombatRollBenchmark has many threads use their creatures' abilities at
+ * once and compares three ways of getting the damage: each creature's own
+ * seeded rolls ({@link Creature#setCombatSeed(long)}), fixed damage plus
+ * variance from one shared {@link Random}, and fixed damage with no
+ * variance. It then runs a seeded parallel fight twice and checks that
+ * both runs end with exactly the same health everywhere.
+ * <p>
+ * Usage: {@code java CombatRollBenchmark [threads] [rollsPerThread]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class CombatRollBenchmark
+{
+    private static final int    DEFAULT_THREADS     = 32;
+    private static final int    DEFAULT_ROLLS       = 1_000_000;
+    private static final int    CREATURES_PER_GROUP = 64;
+    private static final int    FIGHT_ROUNDS        = 2_000;
+    private static final long   WORLD_SEED          = 20_251_018L;
+    private static final int    VARIANCE            = 9;
+    private static final int    MODES               = 3;
+    private static final int    SEEDED              = 0;
+    private static final int    SHARED_RANDOM       = 1;
+    private static final int    FIXED               = 2;
+    private static final double NANOS_PER_SECOND    = 1_000_000_000.0;
+
+    private static final String[] MODE_NAMES = {
+            "per-creature seeded rolls",
+            "shared java.util.Random",
+            "fixed damage"
+    };
+
+    private static final Random SHARED = new Random(WORLD_SEED);
+
+    public static void main(final String[] args) throws InterruptedException
+    {
+        final int threadCount;
+        final int rolls;
+        final long firstFight;
+        final long secondFight;
+
+        threadCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+        rolls       = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROLLS;
+
+        System.out.printf("%d threads, %d rolls each%n", threadCount, rolls);
+
+        // The first pass warms up every mode; the second is reported
+        for (int pass = 0; pass < 2; pass++)
+        {
+            for (int mode = 0; mode < MODES; mode++)
+            {
+                final long elapsed;
+
+                elapsed = rollAll(threadCount, rolls, mode);
+
+                if (pass == 1)
+                {
+                    System.out.printf("%-28s %8.1f M rolls/s%n", MODE_NAMES[mode],
+                                      (double) threadCount * rolls / (elapsed / NANOS_PER_SECOND) /
+                                              1e6);
+                }
+            }
+        }
+
+        firstFight  = fight(threadCount);
+        secondFight = fight(threadCount);
+
+        if (firstFight != secondFight)
+        {
+            System.out.println("FAIL: seeded fights ended differently");
+            System.exit(1);
+        }
+
+        System.out.printf("seeded parallel fight replayed identically (checksum %016x)%n",
+                          firstFight);
+    }
+
+    /*
+    Every thread uses the abilities of its own group of creatures
+     */
+    private static long rollAll(final int threadCount,
+                                final int rolls,
+                                final int mode) throws InterruptedException
+    {
+        final Thread[] threads;
+        final long start;
+
+        threads = new Thread[threadCount];
+
+        for (int t = 0; t < threadCount; t++)
+        {
+            final Creature[] group;
+
+            group      = spawnGroup(t, mode == SEEDED);
+            threads[t] = new Thread(() ->
+            {
+                long total;
+
+                total = 0;
+
+                for (int i = 0; i < rolls; i++)
+                {
+                    final int damage;
+
+                    damage = attack(group[i % group.length]);
+
+                    if (mode == SHARED_RANDOM)
+                    {
+                        total += damage + SHARED.nextInt(VARIANCE);
+                    }
+                    else
+                    {
+                        total += damage;
+                    }
+                }
+
+                if (total == 0)
+                {
+                    System.out.println("no damage dealt");
+                }
+            });
+        }
+
+        start = System.nanoTime();
+
+        for (final Thread thread : threads)
+        {
+            thread.start();
+        }
+
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /*
+    Each thread runs a fight inside its own group; returns a checksum of
+    every creature's final health
+     */
+    private static long fight(final int threadCount) throws InterruptedException
+    {
+        final Creature[][] groups;
+        final Thread[] threads;
+
+        long checksum;
+
+        groups  = new Creature[threadCount][];
+        threads = new Thread[threadCount];
+
+        for (int t = 0; t < threadCount; t++)
+        {
+            final Creature[] group;
+
+            group      = spawnGroup(t, true);
+            groups[t]  = group;
+            threads[t] = new Thread(() ->
+            {
+                for (int round = 0; round < FIGHT_ROUNDS; round++)
+                {
+                    final Creature attacker;
+                    final Creature target;
+
+                    attacker = group[round % group.length];
+                    target   = group[(round * 7 + 1) % group.length];
+
+                    if (attacker != target && attacker.isAlive())
+                    {
+                        target.takeDamage(attack(attacker));
+
+                        if (!target.isAlive())
+                        {
+                            target.heal(Creature.MAX_HEALTH);
+                        }
+                    }
+                }
+            });
+        }
+
+        for (final Thread thread : threads)
+        {
+            thread.start();
+        }
+
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        checksum = 0;
+
+        for (final Creature[] group : groups)
+        {
+            for (final Creature creature : group)
+            {
+                checksum = checksum * 31 + creature.getCurrentHealth();
+            }
+        }
+
+        return checksum;
+    }
+
+    /*
+    A group's creatures are seeded from one SplittableRandom per group, so
+    the world is the same however the groups are scheduled
+     */
+    private static Creature[] spawnGroup(final int groupIndex,
+                                         final boolean seeded)
+    {
+        final Creature[] group;
+        final SplittableRandom seeds;
+
+        group = new Creature[CREATURES_PER_GROUP];
+        seeds = new SplittableRandom(WORLD_SEED + groupIndex);
+
+        for (int i = 0; i < group.length; i++)
+        {
+            final Date dateOfBirth;
+
+            dateOfBirth = Date.of(1 + i % 28, 1 + i % 12, 1901 + i % 124);
+
+            switch (i % 3)
+            {
+                case 0:
+                    group[i] = new Dragon("Wyrmling", dateOfBirth, 100, 100);
+                    break;
+                case 1:
+                    group[i] = new Elf("Archer", dateOfBirth, 100, 50);
+                    break;
+                default:
+                    group[i] = new Orc("Grunt", dateOfBirth, 100, 30);
+                    break;
+            }
+
+            if (seeded)
+            {
+                group[i].setCombatSeed(seeds.nextLong());
+            }
+        }
+
+        return group;
+    }
+
+    /*
+    Uses the creature's ability, restoring its resource when it runs out
+     */
+    private static int attack(final Creature creature)
+    {
+        int damage;
+
+        if (creature instanceof Dragon)
+        {
+            damage = ((Dragon) creature).tryBreatheFire();
+
+            if (damage == Creature.ABILITY_FAILED)
+            {
+                ((Dragon) creature).restoreFirePower(Dragon.MAXIMUM_FIRE_POWER);
+                damage = 0;
+            }
+        }
+        else if (creature instanceof Elf)
+        {
+            damage = ((Elf) creature).tryCastSpell();
+
+            if (damage == Creature.ABILITY_FAILED)
+            {
+                ((Elf) creature).restoreMana(Elf.MAXIMUM_MANA);
+                damage = 0;
+            }
+        }
+        else
+        {
+            damage = ((Orc) creature).tryBerserk();
+
+            if (damage == Creature.ABILITY_FAILED)
+            {
+                ((Orc) creature).restoreRage(Orc.MAX_RAGE_POINTS);
+                damage = 0;
+            }
+        }
+
+        return damage;
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CreatureActorBenchmark runs the same battle on {@link CreatureActorSystem}
+ * with platform threads, with a pool, and with virtual threads when the
+ * Java runtime has them, and prints actor turns per second.
+ * <p>
+ * A platform thread per actor cannot reach large populations, so that
+ * mode runs with {@value #PLATFORM_ACTORS} actors only.
+ * </p>
+ * <p>
+ * Usage: {@code java CreatureActorBenchmark [actors] [turns]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class CreatureActorBenchmark
+{
+    private static final int    DEFAULT_ACTORS   = 1_000_000;
+    private static final int    DEFAULT_TURNS    = 10;
+    private static final int    PLATFORM_ACTORS  = 2_000;
+    private static final int    TIMEOUT_MINUTES  = 10;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    public static void main(final String[] args) throws InterruptedException
+    {
+        final int actors;
+        final int turns;
+        final int threads;
+
+        actors  = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ACTORS;
+        turns   = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TURNS;
+        threads = Runtime.getRuntime().availableProcessors();
+
+        run("platform thread per actor",
+            CreatureActorSystem.platformThreads(CreatureActorSystem.DEFAULT_MAILBOX_CAPACITY),
+            Math.min(actors, PLATFORM_ACTORS), turns);
+        run("pooled (" + threads + " threads)",
+            CreatureActorSystem.pooled(threads, CreatureActorSystem.DEFAULT_MAILBOX_CAPACITY),
+            Math.min(actors, PLATFORM_ACTORS), turns);
+        run("pooled (" + threads + " threads)",
+            CreatureActorSystem.pooled(threads, CreatureActorSystem.DEFAULT_MAILBOX_CAPACITY),
+            actors, turns);
+
+        if (CreatureActorSystem.isVirtualThreadAvailable())
+        {
+            run("virtual thread per actor",
+                CreatureActorSystem.virtualThreads(CreatureActorSystem.DEFAULT_MAILBOX_CAPACITY),
+                Math.min(actors, PLATFORM_ACTORS), turns);
+            run("virtual thread per actor",
+                CreatureActorSystem.virtualThreads(CreatureActorSystem.DEFAULT_MAILBOX_CAPACITY),
+                actors, turns);
+        }
+        else
+        {
+            System.out.println("Virtual threads are not available on Java " +
+                    Runtime.version().feature() + "; skipped");
+        }
+    }
+
+    private static void run(final String mode,
+                            final CreatureActorSystem system,
+                            final int actors,
+                            final int turns) throws InterruptedException
+    {
+        try (system)
+        {
+            final long start;
+            final long end;
+
+            for (int i = 0; i < actors; i++)
+            {
+                final Date dateOfBirth;
+
+                dateOfBirth = Date.of(1 + i % 28, 1 + i % 12, 1901 + i % 124);
+
+                switch (i % 3)
+                {
+                    case 0:
+                        system.spawn(new Dragon("Wyrmling " + i, dateOfBirth, 100, 100));
+                        break;
+                    case 1:
+                        system.spawn(new Elf("Archer " + i, dateOfBirth, 100, 50));
+                        break;
+                    default:
+                        system.spawn(new Orc("Grunt " + i, dateOfBirth, 100, 10));
+                        break;
+                }
+            }
+
+            start = System.nanoTime();
+            system.start(turns);
+
+            if (!system.awaitCompletion(TIMEOUT_MINUTES, TimeUnit.MINUTES))
+            {
+                System.out.println(mode + ": timed out");
+                return;
+            }
+
+            end = System.nanoTime();
+
+            System.out.printf("%-32s %9d actors %10.3f s %8.2f M turns/s (%d sent, %d dropped)%n",
+                              mode, actors, (end - start) / NANOS_PER_SECOND,
+                              (double) actors * turns / ((end - start) / NANOS_PER_SECOND) / 1e6,
+                              system.getAttacksSent(), system.getAttacksDropped());
+        }
+    }
+}
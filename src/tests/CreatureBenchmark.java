@@ -0,0 +1,194 @@
+/**
+ * CreatureBenchmark measures every public hot path of the creature and
+ * date classes with {@link MicroBenchmark}.
+ * <p>
+ * Run with {@code -Dcreature.metrics=true} to include the cost of
+ * {@link CreatureMetrics} instrumentation.
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class CreatureBenchmark
+{
+    private static final int DAY    = 13;
+    private static final int MONTH  = 5;
+    private static final int YEAR   = 2012;
+    private static final int HEALTH = 100;
+    private static final int DAMAGE = 1;
+    private static final int HEAL   = 20;
+    private static final int BULK_DATES = 1024;
+    private static final int ISO_DATE_LENGTH = 10;
+
+    public static void main(final String[] args) throws Exception
+    {
+        final Date date;
+        final Creature creature;
+        final Dragon dragon;
+        final Elf elf;
+        final Orc orc;
+        final Orc trackedOrc;
+        final CreatureStats stats;
+        final StringBuilder builder;
+        final int[] packedDates;
+        final String[] weekdays;
+        final String[] isoDates;
+        final byte[] isoBytes;
+
+        date     = new Date(DAY, MONTH, YEAR);
+        creature = new Creature("Creature", date, HEALTH);
+        dragon   = new Dragon("Onyxia", date, HEALTH, Dragon.MAXIMUM_FIRE_POWER);
+        elf      = new Elf("Jarlaxle Baenre", date, HEALTH, Elf.MAXIMUM_MANA);
+        orc      = new Orc("King Obould Many-Arrows", date, HEALTH, Orc.MAX_RAGE_POINTS);
+        builder  = new StringBuilder();
+
+        trackedOrc = new Orc("Azog", date, HEALTH, Orc.MAX_RAGE_POINTS);
+        stats      = new CreatureStats();
+        stats.track(trackedOrc);
+
+        packedDates = new int[BULK_DATES];
+        weekdays    = new String[BULK_DATES];
+        isoDates    = new String[BULK_DATES];
+        isoBytes    = new byte[BULK_DATES * ISO_DATE_LENGTH];
+
+        for (int i = 0; i < BULK_DATES; i++)
+        {
+            final Date bulkDate;
+
+            bulkDate       = new Date(1 + i % 28, 1 + i % 12, 1801 + i % 225);
+            packedDates[i] = bulkDate.toPackedInt();
+            isoDates[i]    = bulkDate.getYYYYMMDD();
+
+            for (int c = 0; c < ISO_DATE_LENGTH; c++)
+            {
+                isoBytes[i * ISO_DATE_LENGTH + c] = (byte) isoDates[i].charAt(c);
+            }
+        }
+
+        MicroBenchmark.printHeader();
+
+        // Construction runs checkName, checkBirthDate, checkHealth and the
+        // subclass resource check
+        MicroBenchmark.measure("Creature.<init>", i ->
+                new Creature("Creature", date, HEALTH).getCurrentHealth());
+        MicroBenchmark.measure("Dragon.<init>", i ->
+                new Dragon("Onyxia", date, HEALTH, Dragon.MAXIMUM_FIRE_POWER)
+                        .getFirePower());
+        MicroBenchmark.measure("Elf.<init>", i ->
+                new Elf("Jarlaxle", date, HEALTH, Elf.MAXIMUM_MANA).getMana());
+        MicroBenchmark.measure("Orc.<init>", i ->
+                new Orc("Obould", date, HEALTH, Orc.MAX_RAGE_POINTS).getRage());
+
+        MicroBenchmark.measure("Creature.takeDamage", i ->
+        {
+            creature.takeDamage(DAMAGE);
+            return creature.getCurrentHealth();
+        });
+        MicroBenchmark.measure("Orc.takeDamage (stats)", i ->
+        {
+            trackedOrc.takeDamage(DAMAGE);
+            trackedOrc.heal(HEAL);
+            return trackedOrc.getCurrentHealth();
+        });
+        MicroBenchmark.measure("Orc.takeDamage (untracked)", i ->
+        {
+            orc.takeDamage(DAMAGE);
+            orc.heal(HEAL);
+            return orc.getCurrentHealth();
+        });
+        MicroBenchmark.measure("Creature.heal", i ->
+        {
+            creature.heal(HEAL);
+            return creature.getCurrentHealth();
+        });
+        MicroBenchmark.measure("Creature.getDetails", i ->
+                creature.getDetails().length());
+        MicroBenchmark.measure("Dragon.getDetails", i ->
+                dragon.getDetails().length());
+        MicroBenchmark.measure("Elf.getDetails", i ->
+                elf.getDetails().length());
+        MicroBenchmark.measure("Orc.getDetails", i ->
+                orc.getDetails().length());
+
+        MicroBenchmark.measure("Dragon.appendDetails (reused)", i ->
+        {
+            builder.setLength(0);
+            return dragon.appendDetails(builder).length();
+        });
+        MicroBenchmark.measure("Orc.appendDetails (reused)", i ->
+        {
+            builder.setLength(0);
+            return orc.appendDetails(builder).length();
+        });
+
+        MicroBenchmark.measure("Date.<init>", i ->
+                new Date(DAY, MONTH, YEAR).getDay());
+        MicroBenchmark.measure("Date.of", i ->
+                Date.of(1 + i % 28, MONTH, YEAR).getDay());
+        MicroBenchmark.measure("Date.getDayOfTheWeek", i ->
+                date.getDayOfTheWeek().length());
+        MicroBenchmark.measure("Date.getDaysOfTheWeek (per date)", i ->
+        {
+            if (i % BULK_DATES == 0)
+            {
+                Date.getDaysOfTheWeek(packedDates, weekdays);
+            }
+
+            return weekdays[i % BULK_DATES].length();
+        });
+        MicroBenchmark.measure("Date.getYYYYMMDD", i ->
+                date.getYYYYMMDD().length());
+        MicroBenchmark.measure("Date.appendYYYYMMDD (reused)", i ->
+        {
+            builder.setLength(0);
+            return date.appendYYYYMMDD(builder).length();
+        });
+        MicroBenchmark.measure("Date.parsePacked(CharSequence)", i ->
+                Date.parsePacked(isoDates[i % BULK_DATES]));
+        MicroBenchmark.measure("Date.parsePacked(byte[])", i ->
+                Date.parsePacked(isoBytes, i % BULK_DATES * ISO_DATE_LENGTH));
+        MicroBenchmark.measure("Date.parse(CharSequence)", i ->
+                Date.parse(isoDates[i % BULK_DATES]).getDay());
+        MicroBenchmark.measure("Date.getMonthName", i ->
+                date.getMonthName().length());
+
+        // Abilities are paired with a restore so the resource never runs out
+        MicroBenchmark.measure("Dragon.breatheFire", i ->
+        {
+            final int damage;
+
+            damage = dragon.breatheFire();
+            dragon.restoreFirePower(Dragon.FIRE_POWER_ACTIVATION);
+
+            return damage;
+        });
+        MicroBenchmark.measure("Elf.castSpell", i ->
+        {
+            final int damage;
+
+            damage = elf.castSpell();
+            elf.restoreMana(Elf.SPELL_COST);
+
+            return damage;
+        });
+        MicroBenchmark.measure("Orc.berserk", i -> orc.berserk());
+        MicroBenchmark.measure("Dragon.breatheFire (failing)", i ->
+        {
+            final Dragon exhausted;
+
+            exhausted = new Dragon("Ember", date, HEALTH, Dragon.MINIMUM_FIRE_POWER);
+
+            try
+            {
+                return exhausted.breatheFire();
+            }
+            catch (final LowFirePowerException e)
+            {
+                return Creature.ABILITY_FAILED;
+            }
+        });
+        MicroBenchmark.measure("Dragon.tryBreatheFire (failing)", i ->
+                new Dragon("Ember", date, HEALTH, Dragon.MINIMUM_FIRE_POWER)
+                        .tryBreatheFire());
+    }
+}
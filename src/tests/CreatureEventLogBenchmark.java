@@ -0,0 +1,250 @@
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * CreatureEventLogBenchmark logs a multi-threaded battle with
+ * {@link CreatureEventLog}, then replays the log with
+ * {@link CreatureEventReplay} and checks the rebuilt state against the
+ * live creatures, both halfway through and at the end. It also replays a
+ * hand-written spawn with a negative resource.
+ * <p>
+ * Usage: {@code java CreatureEventLogBenchmark [creatures] [ticks]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class CreatureEventLogBenchmark
+{
+    private static final int    DEFAULT_CREATURES       = 30_000;
+    private static final int    DEFAULT_TICKS           = 200;
+    private static final int    THREADS                 = 8;
+    private static final int    HEAL                    = 20;
+    private static final int    RESTORE                 = 7;
+    private static final int    NEGATIVE_SPAWN_HEALTH   = 80;
+    private static final int    NEGATIVE_SPAWN_RESOURCE = -5;
+    private static final double NANOS_PER_SECOND        = 1_000_000_000.0;
+
+    public static void main(final String[] args) throws Exception
+    {
+        final int creatureCount;
+        final int ticks;
+        final int checkTick;
+        final Creature[] creatures;
+        final int[] ids;
+        final int[] healthAtCheck;
+        final int[] resourceAtCheck;
+        final Path file;
+        final ExecutorService pool;
+
+        creatureCount   = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CREATURES;
+        ticks           = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TICKS;
+        checkTick       = ticks / 2;
+        creatures       = new Creature[creatureCount];
+        ids             = new int[creatureCount];
+        healthAtCheck   = new int[creatureCount];
+        resourceAtCheck = new int[creatureCount];
+        file            = Files.createTempFile("creature-events", ".log");
+        pool            = Executors.newFixedThreadPool(THREADS);
+
+        try
+        {
+            final long logStart;
+            final long logEnd;
+            final long replayEnd;
+            final CreatureEventReplay atCheck;
+            final CreatureEventReplay atEnd;
+
+            try (CreatureEventLog log = new CreatureEventLog(file))
+            {
+                for (int i = 0; i < creatureCount; i++)
+                {
+                    final Date dateOfBirth;
+
+                    dateOfBirth = Date.of(1 + i % 28, 1 + i % 12, 1901 + i % 124);
+
+                    switch (i % 3)
+                    {
+                        case 0:
+                            creatures[i] = new Dragon("Wyrmling " + i, dateOfBirth, 100, 100);
+                            break;
+                        case 1:
+                            creatures[i] = new Elf("Archer " + i, dateOfBirth, 100, 50);
+                            break;
+                        default:
+                            creatures[i] = new Orc("Grunt " + i, dateOfBirth, 100, 10);
+                            break;
+                    }
+
+                    ids[i] = log.attach(creatures[i]);
+                }
+
+                logStart = System.nanoTime();
+
+                for (int tick = 1; tick <= ticks; tick++)
+                {
+                    final List<Callable<Void>> slices;
+                    final int currentTick;
+
+                    log.setTick(tick);
+                    slices      = new ArrayList<>(THREADS);
+                    currentTick = tick;
+
+                    for (int t = 0; t < THREADS; t++)
+                    {
+                        final int thread;
+
+                        thread = t;
+
+                        slices.add(() ->
+                        {
+                            for (int i = thread; i < creatureCount; i += THREADS)
+                            {
+                                act(creatures[i], i + currentTick);
+                            }
+
+                            return null;
+                        });
+                    }
+
+                    pool.invokeAll(slices);
+
+                    if (tick == checkTick)
+                    {
+                        for (int i = 0; i < creatureCount; i++)
+                        {
+                            healthAtCheck[i]   = creatures[i].getCurrentHealth();
+                            resourceAtCheck[i] = CreatureRecordFormat.resourceOf(creatures[i]);
+                        }
+                    }
+                }
+
+                log.flush();
+                logEnd = System.nanoTime();
+            }
+
+            atCheck   = CreatureEventReplay.replay(file, checkTick);
+            atEnd     = CreatureEventReplay.replay(file, ticks);
+            replayEnd = System.nanoTime();
+
+            for (int i = 0; i < creatureCount; i++)
+            {
+                if (atCheck.getHealth(ids[i]) != healthAtCheck[i] ||
+                    atCheck.getResource(ids[i]) != resourceAtCheck[i] ||
+                    atEnd.getHealth(ids[i]) != creatures[i].getCurrentHealth() ||
+                    atEnd.getResource(ids[i]) != CreatureRecordFormat.resourceOf(creatures[i]))
+                {
+                    System.out.println("Replay mismatch for creature " + i);
+                    System.exit(1);
+                }
+            }
+
+            System.out.printf("%d creatures, %d ticks, %d events, %d bytes%n",
+                              creatureCount, ticks, atEnd.getEventCount(), Files.size(file));
+            System.out.printf("battle with logging: %.3f s (%.1f M events/s)%n",
+                              (logEnd - logStart) / NANOS_PER_SECOND,
+                              atEnd.getEventCount() / ((logEnd - logStart) / NANOS_PER_SECOND) / 1e6);
+            System.out.printf("two replays: %.3f s (%.1f M events/s)%n",
+                              (replayEnd - logEnd) / NANOS_PER_SECOND,
+                              2.0 * atEnd.getEventCount() /
+                              ((replayEnd - logEnd) / NANOS_PER_SECOND) / 1e6);
+            System.out.println("Replay OK at ticks " + checkTick + " and " + ticks);
+        }
+        finally
+        {
+            pool.shutdown();
+            Files.deleteIfExists(file);
+        }
+
+        negativeResourceReplay();
+    }
+
+    /*
+    A spawn with a negative resource, followed by a restore, must replay
+    to the same health and resource. The public constructors never allow
+    one, so the log is written by hand
+     */
+    private static void negativeResourceReplay() throws Exception
+    {
+        final Path file;
+        final ByteBuffer log;
+
+        file = Files.createTempFile("creature-events", ".log");
+        log  = ByteBuffer.allocate(CreatureEventLog.HEADER_SIZE + 2 * CreatureEventLog.EVENT_SIZE);
+
+        log.putInt(CreatureEventLog.MAGIC)
+           .putInt(CreatureEventLog.VERSION);
+        log.putInt(0)
+           .putInt(0)
+           .putShort((short) CreatureEventLog.SPAWN)
+           .putShort(CreatureStore.TYPE_ORC)
+           .putInt(CreatureEventLog.spawnValue(NEGATIVE_SPAWN_HEALTH, NEGATIVE_SPAWN_RESOURCE));
+        log.putInt(0)
+           .putInt(0)
+           .putShort((short) CreatureListener.RESTORE_RAGE)
+           .putShort(CreatureStore.TYPE_ORC)
+           .putInt(RESTORE);
+
+        try
+        {
+            final CreatureEventReplay replay;
+
+            Files.write(file, log.array());
+            replay = CreatureEventReplay.replay(file, 0);
+
+            if (replay.getHealth(0) != NEGATIVE_SPAWN_HEALTH ||
+                replay.getResource(0) != NEGATIVE_SPAWN_RESOURCE + RESTORE)
+            {
+                System.out.println("FAIL: negative resource replayed as health " +
+                        replay.getHealth(0) + ", resource " + replay.getResource(0));
+                System.exit(1);
+            }
+
+            System.out.println("Negative resource replay OK");
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /*
+    One creature's turn: every creature is hit, and uses or restores its
+    resource, in a pattern that depends only on the step
+     */
+    private static void act(final Creature creature,
+                            final int step)
+    {
+        creature.takeDamage(step % 13);
+
+        if (step % 5 == 0)
+        {
+            creature.heal(HEAL);
+        }
+
+        if (creature instanceof Dragon)
+        {
+            if (((Dragon) creature).tryBreatheFire() == Creature.ABILITY_FAILED)
+            {
+                ((Dragon) creature).restoreFirePower(RESTORE * 3);
+            }
+        }
+        else if (creature instanceof Elf)
+        {
+            if (((Elf) creature).tryCastSpell() == Creature.ABILITY_FAILED)
+            {
+                ((Elf) creature).restoreMana(RESTORE);
+            }
+        }
+        else
+        {
+            ((Orc) creature).tryBerserk();
+        }
+    }
+}
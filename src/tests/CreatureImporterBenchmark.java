@@ -0,0 +1,129 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CreatureImporterBenchmark times {@link CreatureImporter} over a large
+ * roster held in memory, so the figures show parsing and construction
+ * rather than disk speed. Each format is imported with one worker and with
+ * as many workers as there are processors, and every run is checked to
+ * accept every row.
+ * <p>
+ * Usage: {@code java CreatureImporterBenchmark [rows]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class CreatureImporterBenchmark
+{
+    private static final int    DEFAULT_ROWS     = 1_000_000;
+    private static final int    ROUNDS           = 3;
+    private static final int    SINGLE_WORKER    = 1;
+    private static final double NANOS_PER_MILLI  = 1_000_000.0;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private static final String[] TYPES = {"Dragon", "Elf", "Orc"};
+
+    public static void main(final String[] args) throws IOException, InterruptedException
+    {
+        final int rows;
+        final int processors;
+        final String csv;
+        final String ndjson;
+
+        rows       = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        processors = Runtime.getRuntime().availableProcessors();
+        csv        = roster(rows, CreatureImporter.FORMAT_CSV);
+        ndjson     = roster(rows, CreatureImporter.FORMAT_NDJSON);
+
+        System.out.println(processors + " processors, " + rows + " rows");
+
+        time("csv", csv, CreatureImporter.FORMAT_CSV, SINGLE_WORKER, rows);
+        time("csv", csv, CreatureImporter.FORMAT_CSV, processors, rows);
+        time("ndjson", ndjson, CreatureImporter.FORMAT_NDJSON, SINGLE_WORKER, rows);
+        time("ndjson", ndjson, CreatureImporter.FORMAT_NDJSON, processors, rows);
+    }
+
+    private static void time(final String label,
+                             final String roster,
+                             final int format,
+                             final int workers,
+                             final int rows)
+            throws IOException, InterruptedException
+    {
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            final LongAdder health;
+            final long start;
+            final ImportReport report;
+            final long elapsed;
+
+            health  = new LongAdder();
+            start   = System.nanoTime();
+            report  = CreatureImporter.importFrom(new BufferedReader(new StringReader(roster)),
+                                                  format,
+                                                  creature -> health.add(creature.getCurrentHealth()),
+                                                  workers);
+            elapsed = System.nanoTime() - start;
+
+            if (report.getAccepted() != rows || report.getRejected() != 0)
+            {
+                System.out.println("FAIL: " + label + " accepted " + report.getAccepted() +
+                        " and rejected " + report.getRejected() + " of " + rows);
+                System.exit(1);
+            }
+
+            System.out.printf("%s, %d workers, round %d: %.1f ms (%.2f M rows/s, health sum %d)%n",
+                              label, workers, round, elapsed / NANOS_PER_MILLI,
+                              rows / (elapsed / NANOS_PER_SECOND) / 1e6, health.sum());
+        }
+    }
+
+    /*
+    Builds a roster of valid rows in the given format
+     */
+    private static String roster(final int rows,
+                                 final int format)
+    {
+        final StringBuilder text;
+
+        text = new StringBuilder(rows * 96);
+
+        if (format == CreatureImporter.FORMAT_CSV)
+        {
+            text.append("type,name,dateOfBirth,health,resource\n");
+        }
+
+        for (int i = 0; i < rows; i++)
+        {
+            final String type;
+            final String date;
+            final int health;
+            final int resource;
+
+            type     = TYPES[i % TYPES.length];
+            date     = String.format("%04d-%02d-%02d", 1901 + i % 124, 1 + i % 12, 1 + i % 28);
+            health   = Creature.MIN_HEALTH + i % (Creature.MAX_HEALTH - Creature.MIN_HEALTH + 1);
+            resource = 1 + i % Orc.MAX_RAGE_POINTS;
+
+            if (format == CreatureImporter.FORMAT_CSV)
+            {
+                text.append(type).append(",Creature ").append(i).append(',')
+                    .append(date).append(',').append(health).append(',')
+                    .append(resource).append('\n');
+            }
+            else
+            {
+                text.append("{\"type\":\"").append(type)
+                    .append("\",\"name\":\"Creature ").append(i)
+                    .append("\",\"dateOfBirth\":\"").append(date)
+                    .append("\",\"health\":").append(health)
+                    .append(",\"resource\":").append(resource).append("}\n");
+            }
+        }
+
+        return text.toString();
+    }
+}
@@ -0,0 +1,379 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CreatureImporterTest feeds {@link CreatureImporter} small rosters with a
+ * known answer and checks the creatures it builds and the rows it rejects.
+ * <p>
+ * Besides the plain CSV and NDJSON paths it covers the cases a key lookup
+ * by substring gets wrong (a string value equal to a key name, and
+ * {@code null} values), input spanning several 4096-line chunks on one
+ * and on several workers, rejection sampling, and a failing sink.
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class CreatureImporterTest
+{
+    private static final int   CHUNK_SIZE    = 4096;
+    private static final int   LARGE_ROWS    = CHUNK_SIZE * 3 + 17;
+    private static final int   BAD_ROW_EVERY = 1_000;
+    private static final int   MANY_BAD_ROWS = 250;
+    private static final int   FAILING_ROW   = 5_000;
+    private static final int[] WORKER_COUNTS = {1, 4};
+
+    private static int failures;
+
+    public static void main(final String[] args) throws IOException, InterruptedException
+    {
+        csvRows();
+        csvHeaderOnlyOnFirstLine();
+        ndjsonRows();
+        valueEqualToKeyName();
+        nullValues();
+        malformedRows();
+
+        for (final int workers : WORKER_COUNTS)
+        {
+            largeInput(workers);
+        }
+
+        rejectionSampling();
+        failingSink();
+
+        if (failures == 0)
+        {
+            System.out.println("PASS");
+        }
+        else
+        {
+            System.out.println("FAIL: " + failures + " violations");
+            System.exit(1);
+        }
+    }
+
+    /*
+    A header, a blank line, each type in mixed case, and a name with commas
+     */
+    private static void csvRows() throws IOException, InterruptedException
+    {
+        final List<Creature> creatures;
+        final ImportReport report;
+
+        creatures = new ArrayList<>();
+        report    = run(CreatureImporter.FORMAT_CSV, creatures, 1,
+                        "type,name,dateOfBirth,health,resource",
+                        "Dragon,Smaug,1900-01-02,90,80",
+                        "",
+                        "elf,Legolas,1950-03-04,70,40",
+                        "ORC,Grunt, the Loud,2000-05-06,50,20");
+
+        check(report.getAccepted() == 3 && report.getRejected() == 0,
+              "CSV counts " + report.getAccepted() + "/" + report.getRejected());
+        check(creatures.size() == 3, "CSV sink saw " + creatures.size());
+
+        creatures.sort((a, b) -> a.getName().compareTo(b.getName()));
+
+        check(creatures.get(0) instanceof Orc &&
+              creatures.get(0).getName().equals("Grunt, the Loud") &&
+              creatures.get(0).getCurrentHealth() == 50 &&
+              ((Orc) creatures.get(0)).getRage() == 20,
+              "CSV name with commas parsed wrongly");
+        check(creatures.get(1) instanceof Elf &&
+              creatures.get(1).getDateOfBirth().equals(Date.of(4, 3, 1950)),
+              "CSV elf parsed wrongly");
+        check(creatures.get(2) instanceof Dragon &&
+              ((Dragon) creatures.get(2)).getFirePower() == 80,
+              "CSV dragon parsed wrongly");
+    }
+
+    /*
+    A header row is only skipped on line 1; later it is just a bad row
+     */
+    private static void csvHeaderOnlyOnFirstLine() throws IOException, InterruptedException
+    {
+        final ImportReport report;
+
+        report = run(CreatureImporter.FORMAT_CSV, new ArrayList<>(), 1,
+                     "orc,Grunt,2000-05-06,50,20",
+                     "type,name,dateOfBirth,health,resource");
+
+        check(report.getAccepted() == 1 && report.getRejected() == 1,
+              "late CSV header counts " + report.getAccepted() + "/" + report.getRejected());
+        check(report.getRejectSamples().size() == 1 &&
+              report.getRejectSamples().get(0).startsWith("Line 2: "),
+              "late CSV header rejected on the wrong line");
+    }
+
+    /*
+    Keys in any order, extra keys, escapes and whitespace
+     */
+    private static void ndjsonRows() throws IOException, InterruptedException
+    {
+        final List<Creature> creatures;
+        final ImportReport report;
+
+        creatures = new ArrayList<>();
+        report    = run(CreatureImporter.FORMAT_NDJSON, creatures, 1,
+                        "{\"type\":\"dragon\",\"name\":\"Smaug\",\"dateOfBirth\":\"1900-01-02\"," +
+                        "\"health\":90,\"resource\":80}",
+                        "  { \"resource\" : 40 , \"health\" : 70, \"name\" : \"Le\\\"go\\u006Cas\"," +
+                        " \"dateOfBirth\" : \"1950-03-04\", \"type\" : \"Elf\", \"note\": true }  ");
+
+        check(report.getAccepted() == 2 && report.getRejected() == 0,
+              "NDJSON counts " + report.getAccepted() + "/" + report.getRejected() +
+              " " + report.getRejectSamples());
+
+        creatures.sort((a, b) -> a.getName().compareTo(b.getName()));
+
+        check(creatures.size() == 2 &&
+              creatures.get(0) instanceof Elf &&
+              creatures.get(0).getName().equals("Le\"golas") &&
+              ((Elf) creatures.get(0)).getMana() == 40 &&
+              creatures.get(1) instanceof Dragon &&
+              creatures.get(1).getCurrentHealth() == 90,
+              "NDJSON rows parsed wrongly");
+    }
+
+    /*
+    A string value that spells a key must not be mistaken for that key
+     */
+    private static void valueEqualToKeyName()
+    {
+        final Creature health;
+        final Creature type;
+
+        health = CreatureImporter.parseNdjson(
+                "{\"name\":\"health\",\"type\":\"orc\",\"dateOfBirth\":\"2000-05-06\"," +
+                "\"health\":50,\"resource\":20}");
+        type   = CreatureImporter.parseNdjson(
+                "{\"name\":\"type\",\"dateOfBirth\":\"2000-05-06\",\"type\":\"elf\"," +
+                "\"resource\":10,\"health\":60}");
+
+        check(health instanceof Orc && health.getName().equals("health") &&
+              health.getCurrentHealth() == 50,
+              "name \"health\" parsed wrongly");
+        check(type instanceof Elf && type.getName().equals("type") &&
+              type.getCurrentHealth() == 60,
+              "name \"type\" parsed wrongly");
+    }
+
+    /*
+    null is not a name, a type, a date or a number
+     */
+    private static void nullValues()
+    {
+        rejects("{\"type\":\"orc\",\"name\":null,\"dateOfBirth\":\"2000-05-06\"," +
+                "\"health\":50,\"resource\":20}", "null name");
+        rejects("{\"type\":null,\"name\":\"Grunt\",\"dateOfBirth\":\"2000-05-06\"," +
+                "\"health\":50,\"resource\":20}", "null type");
+        rejects("{\"type\":\"orc\",\"name\":\"Grunt\",\"dateOfBirth\":null," +
+                "\"health\":50,\"resource\":20}", "null date");
+        rejects("{\"type\":\"orc\",\"name\":\"Grunt\",\"dateOfBirth\":\"2000-05-06\"," +
+                "\"health\":null,\"resource\":20}", "null health");
+        rejects("{\"type\":\"orc\",\"name\":7,\"dateOfBirth\":\"2000-05-06\"," +
+                "\"health\":50,\"resource\":20}", "numeric name");
+        rejects("{\"type\":\"orc\",\"name\":\"Grunt\",\"dateOfBirth\":\"2000-05-06\"," +
+                "\"health\":\"50\",\"resource\":20}", "quoted health");
+    }
+
+    /*
+    Broken structure and values that fail validation
+     */
+    private static void malformedRows()
+    {
+        final String good;
+
+        good = "\"type\":\"orc\",\"name\":\"Grunt\",\"dateOfBirth\":\"2000-05-06\"," +
+               "\"health\":50,\"resource\":20";
+
+        rejects("{" + good, "unclosed object");
+        rejects("{" + good + "} extra", "text after the object");
+        rejects("{" + good + ",\"name\":\"Again\"}", "duplicate key");
+        rejects("{" + good + ",\"gear\":{\"axe\":1}}", "nested object");
+        rejects("{\"type\":\"orc\",\"name\":\"Grunt\",\"health\":50,\"resource\":20}",
+                "missing date");
+        rejects("[" + good + "]", "array row");
+        rejects("{\"type\":\"troll\"," + good.substring(good.indexOf("\"name\"")) + "}",
+                "unknown type");
+
+        rejectsCsv("orc,Grunt,2000-05-06,50", "four CSV fields");
+        rejectsCsv("orc,Grunt,2000-13-06,50,20", "bad CSV date");
+        rejectsCsv("orc,Grunt,2000-05-06,500,20", "CSV health out of range");
+        rejectsCsv("orc,,2000-05-06,50,20", "empty CSV name");
+        rejectsCsv("orc,Grunt,2000-05-06,fifty,20", "non-numeric CSV health");
+    }
+
+    /*
+    Several full chunks and a partial one, with a bad row every thousand;
+    every row is either accepted or rejected on its own line number
+     */
+    private static void largeInput(final int workers) throws IOException, InterruptedException
+    {
+        final String[] rows;
+        final Queue<Creature> creatures;
+        final ImportReport report;
+        final int expectedBad;
+
+        rows = new String[LARGE_ROWS];
+
+        for (int i = 0; i < LARGE_ROWS; i++)
+        {
+            rows[i] = (i + 1) % BAD_ROW_EVERY == 0 ?
+                    "orc,Grunt " + i + ",2000-05-06,50" :
+                    "orc,Grunt " + i + ",2000-05-06,50,20";
+        }
+
+        creatures   = new ConcurrentLinkedQueue<>();
+        report      = run(CreatureImporter.FORMAT_CSV, creatures, workers, rows);
+        expectedBad = LARGE_ROWS / BAD_ROW_EVERY;
+
+        check(report.getAccepted() == LARGE_ROWS - expectedBad &&
+              report.getRejected() == expectedBad,
+              workers + " workers: counts " + report.getAccepted() + "/" +
+              report.getRejected());
+        check(creatures.size() == LARGE_ROWS - expectedBad,
+              workers + " workers: sink saw " + creatures.size());
+
+        for (int bad = 1; bad <= expectedBad; bad++)
+        {
+            final String prefix;
+
+            prefix = "Line " + bad * BAD_ROW_EVERY + ": ";
+
+            check(report.getRejectSamples().stream().anyMatch(s -> s.startsWith(prefix)),
+                  workers + " workers: no rejection for line " + bad * BAD_ROW_EVERY);
+        }
+    }
+
+    /*
+    Every rejection is counted but only the first hundred are kept
+     */
+    private static void rejectionSampling() throws IOException, InterruptedException
+    {
+        final String[] rows;
+        final ImportReport report;
+
+        rows = new String[MANY_BAD_ROWS + 1];
+
+        for (int i = 0; i < MANY_BAD_ROWS; i++)
+        {
+            rows[i] = "not a creature " + i;
+        }
+
+        rows[MANY_BAD_ROWS] = "orc,Grunt,2000-05-06,50,20";
+        report              = run(CreatureImporter.FORMAT_CSV, new ArrayList<>(), 1, rows);
+
+        check(report.getAccepted() == 1 && report.getRejected() == MANY_BAD_ROWS,
+              "sampling counts " + report.getAccepted() + "/" + report.getRejected());
+        check(report.getRejectSamples().size() == ImportReport.MAXIMUM_SAMPLES,
+              "kept " + report.getRejectSamples().size() + " samples");
+        check(report.getRejectSamples().get(0).startsWith("Line 1: "),
+              "first sample is " + report.getRejectSamples().get(0));
+    }
+
+    /*
+    A sink that throws stops the import and its exception reaches the caller
+     */
+    private static void failingSink() throws IOException, InterruptedException
+    {
+        final String[] rows;
+        final AtomicInteger seen;
+        final IllegalStateException failure;
+
+        rows    = new String[LARGE_ROWS];
+        seen    = new AtomicInteger();
+        failure = new IllegalStateException("sink is full");
+
+        for (int i = 0; i < LARGE_ROWS; i++)
+        {
+            rows[i] = "orc,Grunt " + i + ",2000-05-06,50,20";
+        }
+
+        try
+        {
+            CreatureImporter.importFrom(reader(rows), CreatureImporter.FORMAT_CSV,
+                                        creature ->
+                                        {
+                                            if (seen.incrementAndGet() == FAILING_ROW)
+                                            {
+                                                throw failure;
+                                            }
+                                        }, 2);
+            check(false, "sink failure was swallowed");
+        }
+        catch (final IllegalStateException e)
+        {
+            check(e == failure, "a different exception escaped: " + e);
+        }
+
+        check(seen.get() < LARGE_ROWS, "import kept going after the sink failed");
+    }
+
+    private static ImportReport run(final int format,
+                                    final Collection<Creature> sink,
+                                    final int workers,
+                                    final String... rows)
+            throws IOException, InterruptedException
+    {
+        return CreatureImporter.importFrom(reader(rows), format,
+                                           creature ->
+                                           {
+                                               synchronized (sink)
+                                               {
+                                                   sink.add(creature);
+                                               }
+                                           }, workers);
+    }
+
+    private static BufferedReader reader(final String... rows)
+    {
+        return new BufferedReader(new StringReader(String.join("\n", rows)));
+    }
+
+    private static void rejects(final String json,
+                                final String what)
+    {
+        try
+        {
+            CreatureImporter.parseNdjson(json);
+            check(false, what + " was accepted");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            // Expected
+        }
+    }
+
+    private static void rejectsCsv(final String csv,
+                                   final String what)
+    {
+        try
+        {
+            CreatureImporter.parseCsv(csv);
+            check(false, what + " was accepted");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            // Expected
+        }
+    }
+
+    private static void check(final boolean condition,
+                              final String message)
+    {
+        if (!condition)
+        {
+            failures++;
+            System.out.println("Violation: " + message);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CreatureRecordBenchmark saves a population with
+ * {@link CreatureRecordWriter}, loads it back with
+ * {@link CreatureRecordReader}, and checks that every creature survives the
+ * round trip, including dragons that have breathed fire until their fire
+ * power is spent. It then maps the same file with {@link MappedCreatureWorld}
+ * and times opening it and scanning every record in place, and checks that
+ * files it rejects are left exactly as they were.
+ * <p>
+ * Usage: {@code java CreatureRecordBenchmark [creatures]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class CreatureRecordBenchmark
+{
+    private static final int    DEFAULT_CREATURES = 1_000_000;
+    private static final double NANOS_PER_SECOND  = 1_000_000_000.0;
+    private static final double NANOS_PER_MILLI   = 1_000_000.0;
+    private static final int    SPENT_EVERY       = 6;
+    private static final long   SHORT_COUNT       = 5;
+
+    public static void main(final String[] args) throws Exception
+    {
+        final int creatureCount;
+        final List<Creature> creatures;
+        final Path file;
+        final long saveStart;
+        final long saveEnd;
+        final List<Creature> loaded;
+        final long loadEnd;
+
+        creatureCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CREATURES;
+        creatures     = new ArrayList<>(creatureCount);
+
+        for (int i = 0; i < creatureCount; i++)
+        {
+            final Date dateOfBirth;
+
+            dateOfBirth = Date.of(1 + i % 28, 1 + i % 12, 1801 + i % 225);
+
+            switch (i % 3)
+            {
+                case 0:
+                    creatures.add(dragon(i, dateOfBirth));
+                    break;
+                case 1:
+                    creatures.add(new Elf("Archer " + i, dateOfBirth, 10 + i % 91, i % 51));
+                    break;
+                default:
+                    creatures.add(new Orc("Grunt " + i, dateOfBirth, 10 + i % 91, i % 31));
+                    break;
+            }
+        }
+
+        file = Files.createTempFile("creatures", ".bin");
+
+        try
+        {
+            saveStart = System.nanoTime();
+            CreatureRecordWriter.writeAll(file, creatures);
+            saveEnd = System.nanoTime();
+            loaded = CreatureRecordReader.readAll(file);
+            loadEnd = System.nanoTime();
+
+            System.out.printf("%d creatures, %d bytes%n", creatureCount, Files.size(file));
+            System.out.printf("save: %.3f s%n", (saveEnd - saveStart) / NANOS_PER_SECOND);
+            System.out.printf("load: %.3f s%n", (loadEnd - saveEnd) / NANOS_PER_SECOND);
+
+            for (int i = 0; i < creatureCount; i++)
+            {
+                if (!creatures.get(i).getDetails().equals(loaded.get(i).getDetails()) ||
+                    creatures.get(i).getClass() != loaded.get(i).getClass())
+                {
+                    System.out.println("Mismatch at " + i);
+                    System.exit(1);
+                }
+            }
+
+            System.out.println("Round trip OK");
+
+            mapAndScan(file, creatures);
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+
+        rejectedOpensLeaveFile(new byte[] {1, 2, 3}, "3-byte file");
+        rejectedOpensLeaveFile(new byte[CreatureRecordFormat.HEADER_SIZE], "zeroed header");
+        rejectedOpensLeaveFile(header(SHORT_COUNT), "header promising missing records");
+
+        System.out.println("Rejected opens OK");
+    }
+
+    /*
+    Opening a file that is not a usable snapshot must fail without changing
+    its size or contents
+     */
+    private static void rejectedOpensLeaveFile(final byte[] contents,
+                                               final String what) throws IOException
+    {
+        final Path file;
+
+        file = Files.createTempFile("not-creatures", ".bin");
+
+        try
+        {
+            Files.write(file, contents);
+
+            try (MappedCreatureWorld world = MappedCreatureWorld.open(file))
+            {
+                System.out.println("FAIL: opened " + what + " with " + world.size() +
+                        " creatures");
+                System.exit(1);
+            }
+            catch (final IOException e)
+            {
+                // Expected
+            }
+
+            if (Files.size(file) != contents.length ||
+                !Arrays.equals(Files.readAllBytes(file), contents))
+            {
+                System.out.println("FAIL: rejected open changed the " + what + " to " +
+                        Files.size(file) + " bytes");
+                System.exit(1);
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /*
+    A valid header claiming more records than follow it
+     */
+    private static byte[] header(final long count)
+    {
+        final ByteBuffer header;
+
+        header = ByteBuffer.allocate(CreatureRecordFormat.HEADER_SIZE);
+        header.putInt(CreatureRecordFormat.MAGIC_POSITION, CreatureRecordFormat.MAGIC);
+        header.putInt(CreatureRecordFormat.VERSION_POSITION, CreatureRecordFormat.VERSION);
+        header.putLong(CreatureRecordFormat.COUNT_POSITION, count);
+        header.putLong(CreatureRecordFormat.NAMES_OFFSET_POSITION,
+                       CreatureRecordFormat.HEADER_SIZE);
+
+        return header.array();
+    }
+
+    /*
+    Every other dragon breathes fire until it cannot, leaving some at zero
+    fire power, which the public constructor would reject
+     */
+    private static Dragon dragon(final int i,
+                                 final Date dateOfBirth)
+    {
+        final Dragon dragon;
+
+        dragon = new Dragon("Wyrmling " + i, dateOfBirth, 10 + i % 91, 1 + i % 100);
+
+        if (i % SPENT_EVERY == SPENT_EVERY / 2)
+        {
+            while (dragon.tryBreatheFire() != Creature.ABILITY_FAILED)
+            {
+            }
+        }
+
+        return dragon;
+    }
+
+    private static void mapAndScan(final Path file,
+                                   final List<Creature> creatures) throws Exception
+    {
+        final long openStart;
+        final long openEnd;
+        final long scanEnd;
+
+        long alive;
+
+        openStart = System.nanoTime();
+
+        try (MappedCreatureWorld world = MappedCreatureWorld.open(file))
+        {
+            final MappedCreatureWorld.Cursor cursor;
+
+            openEnd = System.nanoTime();
+            cursor  = world.cursor();
+            alive   = 0;
+
+            for (long i = 0; i < world.size(); i++)
+            {
+                if (cursor.moveTo(i).isAlive())
+                {
+                    alive++;
+                }
+            }
+
+            scanEnd = System.nanoTime();
+
+            for (int i = 0; i < creatures.size(); i++)
+            {
+                final Creature original;
+
+                original = creatures.get(i);
+
+                if (!original.getDetails().equals(cursor.moveTo(i)
+                                                        .toCreature(original.getName())
+                                                        .getDetails()))
+                {
+                    System.out.println("Mapped mismatch at " + i);
+                    System.exit(1);
+                }
+            }
+        }
+
+        System.out.printf("mapped open: %.3f ms%n", (openEnd - openStart) / NANOS_PER_MILLI);
+        System.out.printf("mapped scan: %.3f s (%d alive)%n",
+                          (scanEnd - openEnd) / NANOS_PER_SECOND, alive);
+    }
+}
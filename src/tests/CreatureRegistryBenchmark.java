@@ -0,0 +1,233 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CreatureRegistryBenchmark compares {@link CreatureRegistry} lookups
+ * against scanning a plain list of the same creatures, and checks that
+ * both give the same answers after the population has been damaged.
+ * <p>
+ * Usage: {@code java CreatureRegistryBenchmark [creatures]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class CreatureRegistryBenchmark
+{
+    private static final int    DEFAULT_CREATURES = 1_000_000;
+    private static final int    LOOKUPS           = 100;
+    private static final int    QUERY_REPEATS     = 20;
+    private static final int    WEAK_HEALTH       = 29;
+    private static final int    MIN_AGE           = 30;
+    private static final int    MAX_AGE           = 39;
+    private static final double NANOS_PER_MILLI   = 1_000_000.0;
+
+    public static void main(final String[] args)
+    {
+        final int creatureCount;
+        final List<Creature> creatures;
+        final CreatureRegistry registry;
+        final long registerStart;
+        final long registerEnd;
+
+        creatureCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CREATURES;
+        creatures     = new ArrayList<>(creatureCount);
+        registry      = new CreatureRegistry();
+
+        for (int i = 0; i < creatureCount; i++)
+        {
+            final Date dateOfBirth;
+
+            dateOfBirth = Date.of(1 + i % 28, 1 + i % 12, 1901 + i % 124);
+
+            switch (i % 3)
+            {
+                case 0:
+                    creatures.add(new Dragon("Wyrmling " + i, dateOfBirth, 100, 100));
+                    break;
+                case 1:
+                    creatures.add(new Elf("Archer " + i, dateOfBirth, 100, 50));
+                    break;
+                default:
+                    creatures.add(new Orc("Grunt " + i, dateOfBirth, 100, 30));
+                    break;
+            }
+        }
+
+        registerStart = System.nanoTime();
+
+        for (final Creature creature : creatures)
+        {
+            registry.register(creature);
+        }
+
+        registerEnd = System.nanoTime();
+
+        // Damage after registering so the index has to follow the changes
+        for (int i = 0; i < creatureCount; i++)
+        {
+            creatures.get(i).takeDamage(i % 95);
+        }
+
+        System.out.printf("%d creatures registered in %.1f ms%n",
+                          creatureCount, (registerEnd - registerStart) / NANOS_PER_MILLI);
+
+        compareNameLookups(creatures, registry);
+        compareWeakOrcs(creatures, registry);
+        compareAges(creatures, registry);
+    }
+
+    private static void compareNameLookups(final List<Creature> creatures,
+                                           final CreatureRegistry registry)
+    {
+        final long indexStart;
+        final long indexEnd;
+        final long scanEnd;
+
+        long found;
+
+        found      = 0;
+        indexStart = System.nanoTime();
+
+        for (int i = 0; i < LOOKUPS; i++)
+        {
+            found += registry.get(nameOf(creatures, i)) != null ? 1 : 0;
+        }
+
+        indexEnd = System.nanoTime();
+
+        for (int i = 0; i < LOOKUPS; i++)
+        {
+            final String name;
+
+            name = nameOf(creatures, i);
+
+            for (final Creature creature : creatures)
+            {
+                if (creature.getName().equals(name))
+                {
+                    found--;
+                    break;
+                }
+            }
+        }
+
+        scanEnd = System.nanoTime();
+
+        check(found == 0, "name lookups");
+        report("name lookup", LOOKUPS, indexEnd - indexStart, scanEnd - indexEnd);
+    }
+
+    private static void compareWeakOrcs(final List<Creature> creatures,
+                                        final CreatureRegistry registry)
+    {
+        final long indexStart;
+        final long indexEnd;
+        final long scanEnd;
+
+        int indexed;
+        int scanned;
+
+        indexed    = 0;
+        scanned    = 0;
+        indexStart = System.nanoTime();
+
+        for (int i = 0; i < QUERY_REPEATS; i++)
+        {
+            indexed = registry.findByHealth(CreatureStore.TYPE_ORC,
+                                            Creature.MIN_HEALTH + 1,
+                                            WEAK_HEALTH).size();
+        }
+
+        indexEnd = System.nanoTime();
+
+        for (int i = 0; i < QUERY_REPEATS; i++)
+        {
+            scanned = 0;
+
+            for (final Creature creature : creatures)
+            {
+                if (creature instanceof Orc &&
+                    creature.isAlive() &&
+                    creature.getCurrentHealth() <= WEAK_HEALTH)
+                {
+                    scanned++;
+                }
+            }
+        }
+
+        scanEnd = System.nanoTime();
+
+        check(indexed == scanned, "living orcs with health < 30");
+        report("living orcs, health < 30 (" + indexed + ")",
+               QUERY_REPEATS, indexEnd - indexStart, scanEnd - indexEnd);
+    }
+
+    private static void compareAges(final List<Creature> creatures,
+                                    final CreatureRegistry registry)
+    {
+        final long indexStart;
+        final long indexEnd;
+        final long scanEnd;
+
+        int indexed;
+        int scanned;
+
+        indexed    = 0;
+        scanned    = 0;
+        indexStart = System.nanoTime();
+
+        for (int i = 0; i < QUERY_REPEATS; i++)
+        {
+            indexed = registry.findByAge(MIN_AGE, MAX_AGE).size();
+        }
+
+        indexEnd = System.nanoTime();
+
+        for (int i = 0; i < QUERY_REPEATS; i++)
+        {
+            scanned = 0;
+
+            for (final Creature creature : creatures)
+            {
+                if (creature.getAgeYears() >= MIN_AGE && creature.getAgeYears() <= MAX_AGE)
+                {
+                    scanned++;
+                }
+            }
+        }
+
+        scanEnd = System.nanoTime();
+
+        check(indexed == scanned, "ages 30 to 39");
+        report("ages 30-39 (" + indexed + ")",
+               QUERY_REPEATS, indexEnd - indexStart, scanEnd - indexEnd);
+    }
+
+    private static String nameOf(final List<Creature> creatures,
+                                 final int lookup)
+    {
+        return creatures.get((int) ((long) lookup * (creatures.size() - 1) / LOOKUPS)).getName();
+    }
+
+    private static void check(final boolean matches,
+                              final String query)
+    {
+        if (!matches)
+        {
+            System.out.println("Index and scan disagree on " + query);
+            System.exit(1);
+        }
+    }
+
+    private static void report(final String query,
+                               final int repeats,
+                               final long indexNanos,
+                               final long scanNanos)
+    {
+        System.out.printf("%-40s index %10.3f ms   scan %10.3f ms%n",
+                          query,
+                          indexNanos / NANOS_PER_MILLI / repeats,
+                          scanNanos / NANOS_PER_MILLI / repeats);
+    }
+}
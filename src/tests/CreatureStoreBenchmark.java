@@ -0,0 +1,130 @@
+/**
+ * CreatureStoreBenchmark compares the heap used per creature by
+ * {@link CreatureStore} against an array of {@link Creature} objects.
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class CreatureStoreBenchmark
+{
+    private static final int CREATURE_COUNT = 1_000_000;
+    private static final int GC_PASSES      = 5;
+    private static final int GC_PAUSE_MS    = 50;
+
+    public static void main(final String[] args) throws InterruptedException
+    {
+        final Date dateOfBirth;
+        final long objectBytes;
+        final long storeBytes;
+
+        dateOfBirth = new Date(12, 1, 1801);
+
+        objectBytes = measureObjects(dateOfBirth);
+        storeBytes  = measureStore(dateOfBirth);
+
+        System.out.println("Creatures: " + CREATURE_COUNT);
+        System.out.println("Object graph bytes/creature: " +
+                (double) objectBytes / CREATURE_COUNT);
+        System.out.println("CreatureStore bytes/creature: " +
+                (double) storeBytes / CREATURE_COUNT);
+    }
+
+    /*
+    Builds one Date per creature, as callers usually do, plus the creature
+    itself, and returns the heap growth in bytes
+     */
+    private static long measureObjects(final Date template)
+            throws InterruptedException
+    {
+        final long before;
+        final long after;
+        final Creature[] creatures;
+
+        before    = usedHeap();
+        creatures = new Creature[CREATURE_COUNT];
+
+        for (int i = 0; i < CREATURE_COUNT; i++)
+        {
+            final Date dateOfBirth;
+
+            dateOfBirth = new Date(template.getDay(),
+                                   template.getMonth(),
+                                   template.getYear());
+
+            switch (i % 3)
+            {
+                case 0:
+                    creatures[i] = new Dragon("Wyrmling " + i, dateOfBirth, 100, 100);
+                    break;
+                case 1:
+                    creatures[i] = new Elf("Archer " + i, dateOfBirth, 100, 50);
+                    break;
+                default:
+                    creatures[i] = new Orc("Grunt " + i, dateOfBirth, 100, 30);
+                    break;
+            }
+        }
+
+        after = usedHeap();
+
+        // Keep the creatures reachable until after the measurement
+        System.out.println("Built " + creatures.length + " creature objects");
+
+        return after - before;
+    }
+
+    /*
+    Fills a CreatureStore with the same population and returns the heap
+    growth in bytes
+     */
+    private static long measureStore(final Date dateOfBirth)
+            throws InterruptedException
+    {
+        final long before;
+        final long after;
+        final CreatureStore store;
+
+        before = usedHeap();
+        store  = new CreatureStore(CREATURE_COUNT);
+
+        for (int i = 0; i < CREATURE_COUNT; i++)
+        {
+            switch (i % 3)
+            {
+                case 0:
+                    store.addDragon(dateOfBirth, 100, 100);
+                    break;
+                case 1:
+                    store.addElf(dateOfBirth, 100, 50);
+                    break;
+                default:
+                    store.addOrc(dateOfBirth, 100, 30);
+                    break;
+            }
+        }
+
+        after = usedHeap();
+
+        System.out.println("Built a store of " + store.size() + " creatures");
+
+        return after - before;
+    }
+
+    /*
+    Runs the collector a few times and returns the heap in use
+     */
+    private static long usedHeap() throws InterruptedException
+    {
+        final Runtime runtime;
+
+        runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < GC_PASSES; i++)
+        {
+            System.gc();
+            Thread.sleep(GC_PAUSE_MS);
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,317 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CreatureStressTest hammers single creatures from 64 threads at once and
+ * checks that no update is lost and no bound is broken.
+ * <p>
+ * Each scenario is repeated many times on a fresh creature. Every thread
+ * waits on a shared latch so the operations start together, checks the
+ * bounds after each of its own operations, and the final state is compared
+ * with the only result a correct implementation can produce.
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class CreatureStressTest
+{
+    private static final int THREADS    = 64;
+    private static final int ITERATIONS = 500;
+
+    private static final int START_HEALTH     = 100;
+    private static final int MIN_HEALTH       = 10;
+    private static final int MAX_HEALTH       = 100;
+    private static final int DAMAGE_PER_HIT   = 1;
+    private static final int HEAL_PER_CAST    = 20;
+    private static final int START_FIRE_POWER = 100;
+    private static final int MAX_FIRE_POWER   = 100;
+    private static final int FIRE_BREATHS     = 10;
+    private static final int START_MANA       = 50;
+    private static final int MAX_MANA         = 50;
+    private static final int SPELLS           = 10;
+    private static final int RESTORE_AMOUNT   = 1;
+
+    private static final AtomicInteger failures = new AtomicInteger();
+
+    public static void main(final String[] args) throws InterruptedException
+    {
+        final Date dateOfBirth;
+
+        dateOfBirth = new Date(12, 1, 1801);
+
+        for (int i = 0; i < ITERATIONS; i++)
+        {
+            damageIsNeverLost(dateOfBirth);
+            healthStaysInBounds(dateOfBirth);
+            fireBreathsMatchFirePower(dateOfBirth);
+            firePowerNeverExceedsMaximum(dateOfBirth);
+            spellsMatchMana(dateOfBirth);
+            statsMatchFinalState(dateOfBirth);
+        }
+
+        if (failures.get() == 0)
+        {
+            System.out.println("PASS: " + ITERATIONS + " iterations with " +
+                    THREADS + " threads");
+        }
+        else
+        {
+            System.out.println("FAIL: " + failures.get() + " violations");
+            System.exit(1);
+        }
+    }
+
+    /*
+    64 hits of 1 damage from full health must leave exactly 36 health
+     */
+    private static void damageIsNeverLost(final Date dateOfBirth)
+            throws InterruptedException
+    {
+        final Orc orc;
+
+        orc = new Orc("Grunt", dateOfBirth, START_HEALTH, 0);
+
+        hammer(() -> orc.takeDamage(DAMAGE_PER_HIT));
+
+        check(orc.getCurrentHealth() == START_HEALTH - THREADS * DAMAGE_PER_HIT,
+              "lost damage update, health = " + orc.getCurrentHealth());
+    }
+
+    /*
+    Concurrent heals and heavy hits must keep health inside its bounds
+     */
+    private static void healthStaysInBounds(final Date dateOfBirth)
+            throws InterruptedException
+    {
+        final Orc orc;
+        final AtomicInteger turn;
+
+        orc  = new Orc("Grunt", dateOfBirth, START_HEALTH, 0);
+        turn = new AtomicInteger();
+
+        hammer(() ->
+        {
+            final int health;
+
+            if (turn.getAndIncrement() % 2 == 0)
+            {
+                orc.heal(HEAL_PER_CAST);
+            }
+            else
+            {
+                orc.takeDamage(MAX_HEALTH);
+            }
+
+            health = orc.getCurrentHealth();
+            check(health >= MIN_HEALTH && health <= MAX_HEALTH,
+                  "health out of bounds: " + health);
+        });
+    }
+
+    /*
+    100 fire power pays for exactly 10 breaths no matter how many threads try
+     */
+    private static void fireBreathsMatchFirePower(final Date dateOfBirth)
+            throws InterruptedException
+    {
+        final Dragon dragon;
+        final AtomicInteger breaths;
+
+        dragon  = new Dragon("Onyxia", dateOfBirth, START_HEALTH, START_FIRE_POWER);
+        breaths = new AtomicInteger();
+
+        hammer(() ->
+        {
+            if (dragon.tryBreatheFire() != Creature.ABILITY_FAILED)
+            {
+                breaths.incrementAndGet();
+            }
+        });
+
+        check(breaths.get() == FIRE_BREATHS,
+              "expected " + FIRE_BREATHS + " breaths, got " + breaths.get());
+    }
+
+    /*
+    Concurrent restores must never push fire power above its maximum
+     */
+    private static void firePowerNeverExceedsMaximum(final Date dateOfBirth)
+            throws InterruptedException
+    {
+        final Dragon dragon;
+
+        dragon = new Dragon("Onyxia", dateOfBirth, START_HEALTH,
+                            MAX_FIRE_POWER - THREADS / 2);
+
+        hammer(() ->
+        {
+            final int firePower;
+
+            dragon.restoreFirePower(RESTORE_AMOUNT);
+
+            firePower = dragon.getFirePower();
+            check(firePower <= MAX_FIRE_POWER,
+                  "fire power above maximum: " + firePower);
+        });
+
+        check(dragon.getFirePower() == MAX_FIRE_POWER,
+              "fire power should be full, was " + dragon.getFirePower());
+    }
+
+    /*
+    50 mana pays for exactly 10 spells and never goes negative
+     */
+    private static void spellsMatchMana(final Date dateOfBirth)
+            throws InterruptedException
+    {
+        final Elf elf;
+        final AtomicInteger spells;
+
+        elf    = new Elf("Jarlaxle", dateOfBirth, START_HEALTH, START_MANA);
+        spells = new AtomicInteger();
+
+        hammer(() ->
+        {
+            if (elf.tryCastSpell() != Creature.ABILITY_FAILED)
+            {
+                spells.incrementAndGet();
+            }
+
+            check(elf.getMana() >= 0 && elf.getMana() <= MAX_MANA,
+                  "mana out of bounds: " + elf.getMana());
+        });
+
+        check(spells.get() == SPELLS,
+              "expected " + SPELLS + " spells, got " + spells.get());
+        check(elf.getMana() == 0, "mana should be spent, was " + elf.getMana());
+    }
+
+    /*
+    Mixed concurrent changes must leave CreatureStats and CreatureRegistry
+    agreeing with the creatures themselves
+     */
+    private static void statsMatchFinalState(final Date dateOfBirth)
+            throws InterruptedException
+    {
+        final Dragon dragon;
+        final Elf elf;
+        final Orc orc;
+        final CreatureStats stats;
+        final CreatureRegistry registry;
+        final AtomicInteger turn;
+
+        dragon   = new Dragon("Onyxia", dateOfBirth, START_HEALTH, START_FIRE_POWER);
+        elf      = new Elf("Jarlaxle", dateOfBirth, START_HEALTH, START_MANA);
+        orc      = new Orc("Grunt", dateOfBirth, START_HEALTH, 0);
+        stats    = new CreatureStats();
+        registry = new CreatureRegistry();
+        turn     = new AtomicInteger();
+
+        for (final Creature creature : new Creature[] {dragon, elf, orc})
+        {
+            stats.track(creature);
+            registry.register(creature);
+        }
+
+        hammer(() ->
+        {
+            switch (turn.getAndIncrement() % 4)
+            {
+                case 0:
+                    dragon.takeDamage(MAX_HEALTH);
+                    orc.takeDamage(DAMAGE_PER_HIT * 7);
+                    break;
+                case 1:
+                    dragon.heal(HEAL_PER_CAST);
+                    elf.takeDamage(DAMAGE_PER_HIT * 3);
+                    break;
+                case 2:
+                    dragon.tryBreatheFire();
+                    elf.tryCastSpell();
+                    break;
+                default:
+                    dragon.restoreFirePower(RESTORE_AMOUNT * 3);
+                    elf.restoreMana(RESTORE_AMOUNT);
+                    orc.heal(HEAL_PER_CAST);
+                    break;
+            }
+        });
+
+        for (final Creature creature : new Creature[] {dragon, elf, orc})
+        {
+            final int type;
+            final int health;
+            final long[] healthHistogram;
+            final long[] resourceHistogram;
+
+            type              = creature instanceof Dragon ? CreatureStore.TYPE_DRAGON :
+                                creature instanceof Elf ? CreatureStore.TYPE_ELF :
+                                CreatureStore.TYPE_ORC;
+            health            = creature.getCurrentHealth();
+            healthHistogram   = stats.getHealthHistogram(type);
+            resourceHistogram = stats.getResourceHistogram(type);
+
+            check(stats.getTotalHealth(type) == health,
+                  "stats health " + stats.getTotalHealth(type) + " != " + health);
+            check(stats.getAliveCount(type) == (creature.isAlive() ? 1 : 0),
+                  "stats alive count wrong for " + creature.getName());
+            check(healthHistogram[(health - MIN_HEALTH) / CreatureStats.BUCKET_WIDTH] == 1,
+                  "health histogram wrong for " + creature.getName());
+            check(resourceHistogram[CreatureRecordFormat.resourceOf(creature) /
+                                    CreatureStats.BUCKET_WIDTH] == 1,
+                  "resource histogram wrong for " + creature.getName());
+            check(registry.findByHealth(type, health, health).contains(creature) &&
+                  registry.findByType(type).size() == 1,
+                  "registry health index wrong for " + creature.getName());
+        }
+    }
+
+    /*
+    Runs the action once on each of THREADS threads, released together
+     */
+    private static void hammer(final Runnable action) throws InterruptedException
+    {
+        final CountDownLatch start;
+        final Thread[] threads;
+
+        start   = new CountDownLatch(1);
+        threads = new Thread[THREADS];
+
+        for (int t = 0; t < THREADS; t++)
+        {
+            threads[t] = new Thread(() ->
+            {
+                try
+                {
+                    start.await();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                action.run();
+            });
+            threads[t].start();
+        }
+
+        start.countDown();
+
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+    }
+
+    private static void check(final boolean condition,
+                              final String message)
+    {
+        if (!condition)
+        {
+            failures.incrementAndGet();
+            System.out.println("Violation: " + message);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * MicroBenchmark is a small harness for timing single operations.
+ * <p>
+ * Each operation is warmed up, then run in timed batches. The report
+ * gives the average latency per operation, the bytes allocated per
+ * operation by the measuring thread, and the collections and collector
+ * time seen during the timed batches.
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public final class MicroBenchmark
+{
+    private static final int WARMUP_BATCHES  = 5;
+    private static final int MEASURE_BATCHES = 10;
+    private static final int OPS_PER_BATCH   = 200_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile long sink;
+
+    /**
+     * An operation to measure. The returned value is consumed so the JIT
+     * cannot remove the work.
+     */
+    @FunctionalInterface
+    public interface Operation
+    {
+        /**
+         * Runs the operation once.
+         *
+         * @param iteration the number of the current iteration
+         * @return any value derived from the work done
+         */
+        long run(int iteration) throws Exception;
+    }
+
+    private MicroBenchmark()
+    {
+    }
+
+    /**
+     * Prints the column headings used by {@link #measure(String, Operation)}.
+     */
+    public static void printHeader()
+    {
+        System.out.printf("%-36s %12s %12s %8s %10s%n",
+                          "Benchmark", "ns/op", "bytes/op", "gc.count", "gc.time ms");
+    }
+
+    /**
+     * Warms up, measures and prints one operation.
+     *
+     * @param name      the name to print
+     * @param operation the operation to measure
+     * @throws Exception if the operation throws
+     */
+    public static void measure(final String name,
+                               final Operation operation) throws Exception
+    {
+        final long threadId;
+        final long bytesBefore;
+        final long bytesAfter;
+        final long gcCountBefore;
+        final long gcTimeBefore;
+        final long totalOps;
+
+        long elapsed;
+
+        threadId = Thread.currentThread().getId();
+        totalOps = (long) MEASURE_BATCHES * OPS_PER_BATCH;
+
+        for (int batch = 0; batch < WARMUP_BATCHES; batch++)
+        {
+            runBatch(operation);
+        }
+
+        gcCountBefore = gcCount();
+        gcTimeBefore  = gcTime();
+        bytesBefore   = THREADS.getThreadAllocatedBytes(threadId);
+        elapsed       = 0;
+
+        for (int batch = 0; batch < MEASURE_BATCHES; batch++)
+        {
+            elapsed += runBatch(operation);
+        }
+
+        bytesAfter = THREADS.getThreadAllocatedBytes(threadId);
+
+        System.out.printf("%-36s %12.2f %12.2f %8d %10d%n",
+                          name,
+                          (double) elapsed / totalOps,
+                          (double) (bytesAfter - bytesBefore) / totalOps,
+                          gcCount() - gcCountBefore,
+                          gcTime() - gcTimeBefore);
+    }
+
+    /*
+    Runs one batch and returns its duration in nanoseconds
+     */
+    private static long runBatch(final Operation operation) throws Exception
+    {
+        final long start;
+        final long end;
+
+        long accumulator;
+
+        accumulator = 0;
+        start       = System.nanoTime();
+
+        for (int i = 0; i < OPS_PER_BATCH; i++)
+        {
+            accumulator += operation.run(i);
+        }
+
+        end  = System.nanoTime();
+        sink = accumulator;
+
+        return end - start;
+    }
+
+    private static long gcCount()
+    {
+        final List<GarbageCollectorMXBean> collectors;
+
+        long count;
+
+        collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        count      = 0;
+
+        for (final GarbageCollectorMXBean collector : collectors)
+        {
+            count += Math.max(collector.getCollectionCount(), 0);
+        }
+
+        return count;
+    }
+
+    private static long gcTime()
+    {
+        final List<GarbageCollectorMXBean> collectors;
+
+        long time;
+
+        collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        time       = 0;
+
+        for (final GarbageCollectorMXBean collector : collectors)
+        {
+            time += Math.max(collector.getCollectionTime(), 0);
+        }
+
+        return time;
+    }
+}
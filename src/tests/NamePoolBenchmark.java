@@ -0,0 +1,229 @@
+/**
+ * NamePoolBenchmark builds a large population whose names come from a few
+ * thousand templates, each parsed into a fresh String as an importer would.
+ * The templates are pooled with {@link Creature#poolName(String)} first.
+ * It times construction through the {@link NamePool}, measures the heap
+ * those per-creature Strings would hold if every creature kept its own,
+ * and checks that creatures with unpooled names leave the pool alone.
+ * <p>
+ * Usage: {@code java -Xmx3g NamePoolBenchmark [creatures] [templates]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class NamePoolBenchmark
+{
+    private static final int    DEFAULT_CREATURES = 5_000_000;
+    private static final int    DEFAULT_TEMPLATES = 2_000;
+    private static final int    ROUNDS            = 3;
+    private static final int    GC_PASSES         = 3;
+    private static final long   GC_PAUSE_MS       = 100;
+    private static final int    DETAIL_SAMPLES    = 1_000;
+    private static final double NANOS_PER_MILLI   = 1_000_000.0;
+    private static final double NANOS_PER_SECOND  = 1_000_000_000.0;
+    private static final double BYTES_PER_MB      = 1024.0 * 1024.0;
+
+    private static final String[] KINDS = {"Wyrmling", "Archer", "Orc Grunt"};
+
+    public static void main(final String[] args) throws InterruptedException
+    {
+        final int creatureCount;
+        final int templateCount;
+        final String[] templates;
+        final Date[] dates;
+        final long poolBefore;
+        final long poolArenaBefore;
+
+        Creature[] creatures;
+        String[] ownNames;
+        long withPool;
+        long withOwnNames;
+
+        creatureCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CREATURES;
+        templateCount = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TEMPLATES;
+        templates     = new String[templateCount];
+        dates         = new Date[templateCount];
+
+        for (int i = 0; i < templateCount; i++)
+        {
+            templates[i] = KINDS[i % KINDS.length] + " of Clan " + i;
+            dates[i]     = Date.of(1 + i % 28, 1 + i % 12, 1901 + i % 124);
+        }
+
+        poolBefore      = Creature.NAMES.size();
+        poolArenaBefore = Creature.NAMES.getArenaBytes();
+        creatures       = null;
+
+        for (final String template : templates)
+        {
+            Creature.poolName(template);
+        }
+
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            final long start;
+            final long elapsed;
+
+            creatures = null;
+            start     = System.nanoTime();
+            creatures = spawn(creatureCount, templates, dates);
+            elapsed   = System.nanoTime() - start;
+
+            System.out.printf("round %d: %d creatures in %.1f ms (%.1f M creatures/s)%n",
+                              round, creatureCount, elapsed / NANOS_PER_MILLI,
+                              creatureCount / (elapsed / NANOS_PER_SECOND) / 1e6);
+        }
+
+        checkNames(creatures, templates);
+
+        // The array stands in for the name field, which pooled creatures
+        // leave null
+        ownNames = new String[creatureCount];
+        withPool = usedHeap();
+
+        // What each creature's own String field used to keep alive
+        for (int i = 0; i < creatureCount; i++)
+        {
+            ownNames[i] = new String(templates[i % templateCount].toCharArray());
+        }
+
+        withOwnNames = usedHeap();
+
+        System.out.printf("%d distinct names, %d bytes of arena off the heap%n",
+                          Creature.NAMES.size() - poolBefore,
+                          Creature.NAMES.getArenaBytes() - poolArenaBefore);
+        System.out.printf("heap saved by pooled names: %.1f MB (%.1f bytes per creature)%n",
+                          (withOwnNames - withPool) / BYTES_PER_MB,
+                          (double) (withOwnNames - withPool) / creatureCount);
+
+        // Keep both alive until after the second measurement
+        if (ownNames[0].isEmpty() || creatures[0] == null)
+        {
+            System.out.println("unreachable");
+        }
+
+        checkUnpooled(templates, dates);
+    }
+
+    /*
+    Names that were never pooled stay Strings and do not grow the pool
+     */
+    private static void checkUnpooled(final String[] templates,
+                                      final Date[] dates)
+    {
+        final int poolSize;
+        final long poolArena;
+
+        poolSize  = Creature.NAMES.size();
+        poolArena = Creature.NAMES.getArenaBytes();
+
+        for (int i = 0; i < DETAIL_SAMPLES; i++)
+        {
+            final String name;
+            final Creature creature;
+
+            name     = "Unique " + i;
+            creature = new Elf(name, dates[i % dates.length], 100, 50);
+
+            if (creature.getNameId() != Creature.UNPOOLED_NAME ||
+                creature.getName() != name)
+            {
+                System.out.println("FAIL: unpooled name " + name + " was pooled");
+                System.exit(1);
+            }
+        }
+
+        if (Creature.NAMES.size() != poolSize || Creature.NAMES.getArenaBytes() != poolArena)
+        {
+            System.out.println("FAIL: unpooled names grew the pool");
+            System.exit(1);
+        }
+
+        if (new Elf(new String(templates[0].toCharArray()), dates[0], 100, 50).getNameId() ==
+            Creature.UNPOOLED_NAME)
+        {
+            System.out.println("FAIL: template name was not pooled");
+            System.exit(1);
+        }
+
+        System.out.println("unpooled names OK");
+    }
+
+    /*
+    Each name is a fresh String, as if it had just been parsed
+     */
+    private static Creature[] spawn(final int creatureCount,
+                                    final String[] templates,
+                                    final Date[] dates)
+    {
+        final Creature[] creatures;
+
+        creatures = new Creature[creatureCount];
+
+        for (int i = 0; i < creatureCount; i++)
+        {
+            final int template;
+            final String name;
+
+            template = i % templates.length;
+            name     = new String(templates[template].toCharArray());
+
+            switch (template % KINDS.length)
+            {
+                case 0:
+                    creatures[i] = new Dragon(name, dates[template], 100, 100);
+                    break;
+                case 1:
+                    creatures[i] = new Elf(name, dates[template], 100, 50);
+                    break;
+                default:
+                    creatures[i] = new Orc(name, dates[template], 100, 30);
+                    break;
+            }
+        }
+
+        return creatures;
+    }
+
+    /*
+    Names and details still read back as they went in
+     */
+    private static void checkNames(final Creature[] creatures,
+                                   final String[] templates)
+    {
+        for (int i = 0; i < DETAIL_SAMPLES; i++)
+        {
+            final int index;
+            final String expected;
+
+            index    = (int) ((long) i * creatures.length / DETAIL_SAMPLES);
+            expected = templates[index % templates.length];
+
+            if (!creatures[index].getName().equals(expected) ||
+                !creatures[index].getDetails().startsWith("Name: " + expected + "\n"))
+            {
+                System.out.println("FAIL: wrong name for creature " + index);
+                System.exit(1);
+            }
+        }
+    }
+
+    /*
+    Runs the collector a few times and returns the heap in use
+     */
+    private static long usedHeap() throws InterruptedException
+    {
+        final Runtime runtime;
+
+        runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < GC_PASSES; i++)
+        {
+            System.gc();
+            Thread.sleep(GC_PAUSE_MS);
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,200 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PrimitiveCollectionsBenchmark compares {@link IntIntHashMap},
+ * {@link IntList} and {@link HealthSorter} against a
+ * {@code HashMap<Integer, Creature>} holding the same creatures: the heap
+ * each keeps, the cost of a lookup by id, and a top-N weakest query.
+ * <p>
+ * Usage: {@code java PrimitiveCollectionsBenchmark [creatures] [topN]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class PrimitiveCollectionsBenchmark
+{
+    private static final int    DEFAULT_CREATURES = 1_000_000;
+    private static final int    DEFAULT_TOP_N     = 10;
+    private static final int    ID_STRIDE         = 7_919;
+    private static final int    MISSING           = -1;
+    private static final int    QUERY_REPEATS     = 20;
+    private static final int    GC_PASSES         = 3;
+    private static final long   GC_PAUSE_MS       = 100;
+    private static final double NANOS_PER_MILLI   = 1_000_000.0;
+    private static final double BYTES_PER_MB      = 1024.0 * 1024.0;
+
+    public static void main(final String[] args) throws Exception
+    {
+        final int creatureCount;
+        final int topN;
+        final Creature[] creatures;
+        final int[] ids;
+        final long beforeMap;
+        final IntIntHashMap slotsById;
+        final IntList slots;
+        final long afterMap;
+        final Map<Integer, Creature> byId;
+        final long afterHashMap;
+
+        creatureCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CREATURES;
+        topN          = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TOP_N;
+        creatures     = new Creature[creatureCount];
+        ids           = new int[creatureCount];
+
+        for (int i = 0; i < creatureCount; i++)
+        {
+            final Date dateOfBirth;
+
+            dateOfBirth = Date.of(1 + i % 28, 1 + i % 12, 1901 + i % 124);
+
+            switch (i % 3)
+            {
+                case 0:
+                    creatures[i] = new Dragon("Wyrmling", dateOfBirth, 100, 100);
+                    break;
+                case 1:
+                    creatures[i] = new Elf("Archer", dateOfBirth, 100, 50);
+                    break;
+                default:
+                    creatures[i] = new Orc("Grunt", dateOfBirth, 100, 30);
+                    break;
+            }
+
+            creatures[i].takeDamage((int) ((long) i * ID_STRIDE % 95));
+            ids[i] = (i + 1) * ID_STRIDE;
+        }
+
+        beforeMap = usedHeap();
+        slotsById = new IntIntHashMap();
+        slots     = new IntList();
+
+        for (int i = 0; i < creatureCount; i++)
+        {
+            slotsById.put(ids[i], i, MISSING);
+            slots.add(i);
+        }
+
+        afterMap = usedHeap();
+        byId     = new HashMap<>();
+
+        for (int i = 0; i < creatureCount; i++)
+        {
+            byId.put(ids[i], creatures[i]);
+        }
+
+        afterHashMap = usedHeap();
+
+        System.out.printf("%d creatures%n", creatureCount);
+        System.out.printf("IntIntHashMap + IntList: %8.1f MB%n",
+                          (afterMap - beforeMap) / BYTES_PER_MB);
+        System.out.printf("HashMap<Integer, Creature>: %5.1f MB%n",
+                          (afterHashMap - afterMap) / BYTES_PER_MB);
+
+        MicroBenchmark.printHeader();
+        MicroBenchmark.measure("IntIntHashMap.get", i ->
+                creatures[slotsById.get(ids[(int) ((long) i * ID_STRIDE % creatureCount)], MISSING)]
+                        .getCurrentHealth());
+        MicroBenchmark.measure("HashMap<Integer, Creature>.get", i ->
+                byId.get(ids[(int) ((long) i * ID_STRIDE % creatureCount)]).getCurrentHealth());
+
+        compareWeakest(creatures, slots, byId, topN);
+    }
+
+    /*
+    Times the top-N weakest living creatures both ways and checks the
+    answers have the same healths
+     */
+    private static void compareWeakest(final Creature[] creatures,
+                                       final IntList slots,
+                                       final Map<Integer, Creature> byId,
+                                       final int topN)
+    {
+        final HealthSorter sorter;
+        final IntList weakest;
+
+        List<Creature> boxed;
+        long sorterNanos;
+        long boxedNanos;
+
+        sorter      = new HealthSorter();
+        weakest     = new IntList(topN);
+        boxed       = null;
+        sorterNanos = 0;
+        boxedNanos  = 0;
+
+        for (int repeat = 0; repeat < QUERY_REPEATS; repeat++)
+        {
+            final long sorterStart;
+            final long boxedStart;
+
+            sorterStart = System.nanoTime();
+            weakest.clear();
+            sorter.weakest(creatures, slots, topN, weakest);
+            sorterNanos += System.nanoTime() - sorterStart;
+
+            boxedStart = System.nanoTime();
+            boxed      = weakestBoxed(byId, topN);
+            boxedNanos += System.nanoTime() - boxedStart;
+        }
+
+        for (int i = 0; i < topN; i++)
+        {
+            if (creatures[weakest.get(i)].getCurrentHealth() != boxed.get(i).getCurrentHealth())
+            {
+                System.out.println("FAIL: weakest creatures differ at " + i);
+                System.exit(1);
+            }
+        }
+
+        System.out.printf("top %d weakest, HealthSorter:     %8.2f ms%n",
+                          topN, sorterNanos / NANOS_PER_MILLI / QUERY_REPEATS);
+        System.out.printf("top %d weakest, sorted HashMap:   %8.2f ms%n",
+                          topN, boxedNanos / NANOS_PER_MILLI / QUERY_REPEATS);
+    }
+
+    /*
+    The query as it is written with boxed collections today
+     */
+    private static List<Creature> weakestBoxed(final Map<Integer, Creature> byId,
+                                               final int topN)
+    {
+        final List<Creature> alive;
+
+        alive = new ArrayList<>();
+
+        for (final Creature creature : byId.values())
+        {
+            if (creature.isAlive())
+            {
+                alive.add(creature);
+            }
+        }
+
+        alive.sort(Comparator.comparingInt(Creature::getCurrentHealth));
+
+        return alive.subList(0, Math.min(topN, alive.size()));
+    }
+
+    /*
+    Runs the collector a few times and returns the heap in use
+     */
+    private static long usedHeap() throws InterruptedException
+    {
+        final Runtime runtime;
+
+        runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < GC_PASSES; i++)
+        {
+            System.gc();
+            Thread.sleep(GC_PAUSE_MS);
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,353 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * PrimitiveCollectionsTest checks {@link IntIntHashMap} and
+ * {@link HealthSorter} against the JDK collections they replace, with
+ * extra cases for the hardest paths: removal from a probe run that wraps
+ * past the end of the table, and ties at the health where the weakest
+ * creatures run out.
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class PrimitiveCollectionsTest
+{
+    private static final int  MISSING       = -1;
+    private static final int  SMALL_SLOTS   = 8;
+    private static final int  GOLDEN_RATIO  = 0x9E3779B9;
+    private static final int  RANDOM_ROUNDS = 200;
+    private static final int  RANDOM_OPS    = 2_000;
+    private static final int  KEY_RANGE     = 64;
+    private static final int  CREATURES     = 500;
+    private static final long SEED          = 42L;
+
+    private static int failures;
+
+    public static void main(final String[] args)
+    {
+        final Random random;
+        final Date dateOfBirth;
+
+        random      = new Random(SEED);
+        dateOfBirth = Date.of(1, 1, 2000);
+
+        removeAfterWraparound();
+        zeroKey();
+        mapMatchesHashMap(random);
+        tiesAtThreshold(dateOfBirth);
+        weakestEdgeCases(dateOfBirth);
+        sorterMatchesStableSort(random, dateOfBirth);
+
+        if (failures == 0)
+        {
+            System.out.println("PASS");
+        }
+        else
+        {
+            System.out.println("FAIL: " + failures + " violations");
+            System.exit(1);
+        }
+    }
+
+    /*
+    Three keys that hash to the last slot wrap around to slots 0 and 1, and
+    a key that hashes to slot 0 is pushed to slot 2. Removing them one at a
+    time in each order must leave the rest reachable
+     */
+    private static void removeAfterWraparound()
+    {
+        final int[] keys;
+        final int[][] orders;
+
+        keys   = new int[4];
+        orders = new int[][] {{0, 1, 2, 3}, {1, 0, 3, 2}, {3, 2, 1, 0}, {2, 3, 0, 1}};
+
+        for (int key = 1, found = 0; found < 3; key++)
+        {
+            if (homeSlot(key) == SMALL_SLOTS - 1)
+            {
+                keys[found++] = key;
+            }
+        }
+
+        for (int key = 1; keys[3] == 0; key++)
+        {
+            if (homeSlot(key) == 0)
+            {
+                keys[3] = key;
+            }
+        }
+
+        for (final int[] order : orders)
+        {
+            final IntIntHashMap map;
+
+            // Four entries fill 8 slots to the load limit without growing
+            map = new IntIntHashMap(SMALL_SLOTS / 2);
+
+            for (final int key : keys)
+            {
+                map.put(key, key * 10, MISSING);
+            }
+
+            for (int removed = 0; removed < order.length; removed++)
+            {
+                final int key;
+
+                key = keys[order[removed]];
+
+                check(map.remove(key, MISSING) == key * 10,
+                      "wrapped remove of " + key + " lost its value");
+                check(!map.containsKey(key), "removed key " + key + " still present");
+                check(map.size() == order.length - removed - 1,
+                      "size after wrapped remove is " + map.size());
+
+                for (int rest = removed + 1; rest < order.length; rest++)
+                {
+                    final int other;
+
+                    other = keys[order[rest]];
+
+                    check(map.get(other, MISSING) == other * 10,
+                          "key " + other + " unreachable after removing " + key);
+                }
+            }
+        }
+    }
+
+    /*
+    Key 0 marks empty slots, so it is stored on its own
+     */
+    private static void zeroKey()
+    {
+        final IntIntHashMap map;
+
+        map = new IntIntHashMap();
+
+        check(map.put(0, 5, MISSING) == MISSING, "new zero key had a value");
+        check(map.put(0, 6, MISSING) == 5, "zero key lost its value");
+        check(map.size() == 1, "zero key counted twice");
+        check(map.remove(0, MISSING) == 6 && map.isEmpty(), "zero key not removed");
+        check(map.get(0, MISSING) == MISSING, "removed zero key still present");
+    }
+
+    /*
+    Random puts and removes over a small key range, so probe runs form,
+    wrap and break up often, always agree with HashMap
+     */
+    private static void mapMatchesHashMap(final Random random)
+    {
+        for (int round = 0; round < RANDOM_ROUNDS; round++)
+        {
+            final IntIntHashMap map;
+            final Map<Integer, Integer> expected;
+
+            map      = new IntIntHashMap(0);
+            expected = new HashMap<>();
+
+            for (int op = 0; op < RANDOM_OPS; op++)
+            {
+                final int key;
+                final Integer previous;
+
+                key = random.nextInt(KEY_RANGE) - KEY_RANGE / 4;
+
+                if (random.nextInt(3) == 0)
+                {
+                    previous = expected.remove(key);
+
+                    check(map.remove(key, MISSING) == (previous == null ? MISSING : previous),
+                          "remove of " + key + " disagrees with HashMap");
+                }
+                else
+                {
+                    previous = expected.put(key, op);
+
+                    check(map.put(key, op, MISSING) == (previous == null ? MISSING : previous),
+                          "put of " + key + " disagrees with HashMap");
+                }
+            }
+
+            check(map.size() == expected.size(), "size disagrees with HashMap");
+
+            for (int key = -KEY_RANGE; key < KEY_RANGE; key++)
+            {
+                final Integer value;
+
+                value = expected.get(key);
+
+                check(map.get(key, MISSING) == (value == null ? MISSING : value),
+                      "get of " + key + " disagrees with HashMap");
+            }
+        }
+    }
+
+    /*
+    With healths 50, 30, 20, 30, 30, dead, 30 and a limit of 3, the 20 is
+    taken and then the first two 30s in list order; the rest are left out
+     */
+    private static void tiesAtThreshold(final Date dateOfBirth)
+    {
+        final Creature[] creatures;
+        final IntList slots;
+        final IntList weakest;
+        final int taken;
+
+        creatures = orcs(dateOfBirth, 50, 30, 20, 30, 30, Creature.MIN_HEALTH, 30);
+        slots     = allSlots(creatures.length);
+        weakest   = new IntList();
+        taken     = new HealthSorter().weakest(creatures, slots, 3, weakest);
+
+        check(taken == 3, "took " + taken + " of 3 at a tie");
+        check(weakest.size() == 3 &&
+              weakest.get(0) == 2 && weakest.get(1) == 1 && weakest.get(2) == 3,
+              "ties at the threshold not taken in list order");
+    }
+
+    /*
+    A limit of 0, a limit past the living creatures, and an all-dead list
+     */
+    private static void weakestEdgeCases(final Date dateOfBirth)
+    {
+        final HealthSorter sorter;
+        final Creature[] creatures;
+        final Creature[] dead;
+        final IntList weakest;
+
+        sorter    = new HealthSorter();
+        creatures = orcs(dateOfBirth, 40, Creature.MIN_HEALTH, 40, 15);
+        dead      = orcs(dateOfBirth, Creature.MIN_HEALTH, Creature.MIN_HEALTH);
+        weakest   = new IntList();
+
+        check(sorter.weakest(creatures, allSlots(creatures.length), 0, weakest) == 0 &&
+              weakest.isEmpty(), "limit 0 took creatures");
+
+        check(sorter.weakest(creatures, allSlots(creatures.length), 10, weakest) == 3 &&
+              weakest.size() == 3 &&
+              weakest.get(0) == 3 && weakest.get(1) == 0 && weakest.get(2) == 2,
+              "limit past the living creatures took the wrong ones");
+
+        weakest.clear();
+
+        check(sorter.weakest(dead, allSlots(dead.length), 1, weakest) == 0 &&
+              weakest.isEmpty(), "dead creatures were taken");
+    }
+
+    /*
+    Random healths with many ties, checked against a stable sort
+     */
+    private static void sorterMatchesStableSort(final Random random,
+                                                final Date dateOfBirth)
+    {
+        final HealthSorter sorter;
+
+        sorter = new HealthSorter();
+
+        for (int round = 0; round < RANDOM_ROUNDS; round++)
+        {
+            final int[] healths;
+            final Creature[] creatures;
+            final List<Integer> expected;
+            final List<Integer> living;
+            final IntList sorted;
+            final IntList weakest;
+            final int limit;
+
+            healths = new int[CREATURES];
+
+            for (int i = 0; i < CREATURES; i++)
+            {
+                // A narrow range makes ties common
+                healths[i] = Creature.MIN_HEALTH + random.nextInt(20);
+            }
+
+            creatures = orcs(dateOfBirth, healths);
+            expected  = new ArrayList<>();
+
+            for (int i = 0; i < CREATURES; i++)
+            {
+                expected.add(i);
+            }
+
+            expected.sort(Comparator.comparingInt(i -> healths[i]));
+
+            sorted = allSlots(CREATURES);
+            sorter.sortByHealth(creatures, sorted);
+
+            for (int i = 0; i < CREATURES; i++)
+            {
+                check(sorted.get(i) == expected.get(i), "sort differs at " + i);
+            }
+
+            living = new ArrayList<>(expected);
+            living.removeIf(i -> healths[i] == Creature.MIN_HEALTH);
+
+            limit   = random.nextInt(CREATURES + 1);
+            weakest = new IntList();
+
+            check(sorter.weakest(creatures, allSlots(CREATURES), limit, weakest) ==
+                  Math.min(limit, living.size()), "weakest took the wrong number");
+
+            for (int i = 0; i < weakest.size(); i++)
+            {
+                check(weakest.get(i) == living.get(i), "weakest differs at " + i);
+            }
+        }
+    }
+
+    /*
+    The slot IntIntHashMap gives a key in a table of SMALL_SLOTS slots
+     */
+    private static int homeSlot(final int key)
+    {
+        final int hash;
+
+        hash = key * GOLDEN_RATIO;
+
+        return (hash ^ (hash >>> 16)) & (SMALL_SLOTS - 1);
+    }
+
+    private static Creature[] orcs(final Date dateOfBirth,
+                                   final int... healths)
+    {
+        final Creature[] creatures;
+
+        creatures = new Creature[healths.length];
+
+        for (int i = 0; i < healths.length; i++)
+        {
+            creatures[i] = new Orc("Grunt " + i, dateOfBirth, healths[i], 0);
+        }
+
+        return creatures;
+    }
+
+    private static IntList allSlots(final int count)
+    {
+        final IntList slots;
+
+        slots = new IntList(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            slots.add(i);
+        }
+
+        return slots;
+    }
+
+    private static void check(final boolean condition,
+                              final String message)
+    {
+        if (!condition)
+        {
+            failures++;
+            System.out.println("Violation: " + message);
+        }
+    }
+}
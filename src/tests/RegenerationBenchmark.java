@@ -0,0 +1,184 @@
+/**
+ * RegenerationBenchmark compares {@link RegenerationScheduler} with calling
+ * every restore method on every creature each tick, for a large population
+ * where only a small share of creatures spend their resource.
+ * <p>
+ * Usage: {@code java RegenerationBenchmark [creatures] [activePercent]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class RegenerationBenchmark
+{
+    private static final int    DEFAULT_CREATURES = 1_000_000;
+    private static final int    DEFAULT_ACTIVE    = 1;
+    private static final int    PERCENT           = 100;
+    private static final int    TICKS             = 200;
+    private static final int    PERIOD            = 2;
+    private static final int    AMOUNT            = 5;
+    private static final int    SETTLE_TICKS      = 1_000;
+    private static final double NANOS_PER_MICRO   = 1_000.0;
+
+    public static void main(final String[] args)
+    {
+        final int creatureCount;
+        final int activePercent;
+        final Creature[] creatures;
+        final RegenerationScheduler scheduler;
+
+        long wheelNanos;
+        long naiveNanos;
+        long regenerations;
+
+        creatureCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CREATURES;
+        activePercent = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ACTIVE;
+        creatures     = new Creature[creatureCount];
+        scheduler     = new RegenerationScheduler();
+
+        for (int i = 0; i < creatureCount; i++)
+        {
+            final Date dateOfBirth;
+
+            dateOfBirth = Date.of(1 + i % 28, 1 + i % 12, 1901 + i % 124);
+
+            switch (i % 3)
+            {
+                case 0:
+                    creatures[i] = new Dragon("Wyrmling " + i, dateOfBirth, 100, 100);
+                    break;
+                case 1:
+                    creatures[i] = new Elf("Archer " + i, dateOfBirth, 100, 50);
+                    break;
+                default:
+                    creatures[i] = new Orc("Grunt " + i, dateOfBirth, 100, 30);
+                    break;
+            }
+
+            scheduler.register(creatures[i], PERIOD, AMOUNT);
+        }
+
+        wheelNanos = 0;
+
+        for (int tick = 0; tick < TICKS; tick++)
+        {
+            final long start;
+
+            spend(creatures, tick, activePercent);
+            start = System.nanoTime();
+            scheduler.tick();
+            wheelNanos += System.nanoTime() - start;
+        }
+
+        // With no more spending, everyone refills and leaves the wheel
+        for (int tick = 0; tick < SETTLE_TICKS && scheduler.getScheduledCount() > 0; tick++)
+        {
+            scheduler.tick();
+        }
+
+        regenerations = scheduler.getRegenerations();
+
+        for (final Creature creature : creatures)
+        {
+            if (CreatureRecordFormat.resourceOf(creature) < maximum(creature))
+            {
+                System.out.println("Not regenerated: " + creature.getName());
+                System.exit(1);
+            }
+
+            scheduler.unregister(creature);
+        }
+
+        if (scheduler.getScheduledCount() != 0)
+        {
+            System.out.println("Full creatures left in the wheel: " + scheduler.getScheduledCount());
+            System.exit(1);
+        }
+
+        naiveNanos = 0;
+
+        for (int tick = 0; tick < TICKS; tick++)
+        {
+            final long start;
+
+            spend(creatures, tick, activePercent);
+            start = System.nanoTime();
+            restoreAll(creatures);
+            naiveNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("%d creatures, %d%% spending each tick, %d ticks%n",
+                          creatureCount, activePercent, TICKS);
+        System.out.printf("timing wheel: %10.1f us/tick (%d regenerations)%n",
+                          wheelNanos / NANOS_PER_MICRO / TICKS, regenerations);
+        System.out.printf("restore all:  %10.1f us/tick (%d restores)%n",
+                          naiveNanos / NANOS_PER_MICRO / TICKS, (long) creatureCount * TICKS);
+    }
+
+    /*
+    A rotating slice of the population uses its ability
+     */
+    private static void spend(final Creature[] creatures,
+                              final int tick,
+                              final int activePercent)
+    {
+        final int active;
+        final int first;
+
+        active = (int) ((long) creatures.length * activePercent / PERCENT);
+        first  = (int) ((long) tick * active % creatures.length);
+
+        for (int i = 0; i < active; i++)
+        {
+            final Creature creature;
+
+            creature = creatures[(first + i) % creatures.length];
+
+            if (creature instanceof Dragon)
+            {
+                ((Dragon) creature).tryBreatheFire();
+            }
+            else if (creature instanceof Elf)
+            {
+                ((Elf) creature).tryCastSpell();
+            }
+        }
+    }
+
+    private static int maximum(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            return Dragon.MAXIMUM_FIRE_POWER;
+        }
+
+        if (creature instanceof Elf)
+        {
+            return Elf.MAXIMUM_MANA;
+        }
+
+        return Orc.MAX_RAGE_POINTS;
+    }
+
+    /*
+    What servers did before: every restore method on every creature
+     */
+    private static void restoreAll(final Creature[] creatures)
+    {
+        for (final Creature creature : creatures)
+        {
+            if (creature instanceof Dragon)
+            {
+                ((Dragon) creature).restoreFirePower(AMOUNT);
+            }
+            else if (creature instanceof Elf)
+            {
+                ((Elf) creature).restoreMana(AMOUNT);
+            }
+            else
+            {
+                ((Orc) creature).restoreRage(AMOUNT);
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RosterPublisherBenchmark measures how many whole-roster reads readers
+ * complete through {@link RosterPublisher} while writer threads attack,
+ * heal and use the abilities of the same creatures. Readers are also run
+ * with the writers idle for comparison. Every roster read is checked: its
+ * version never goes backwards, every value is within bounds, and two
+ * passes over the same roster agree.
+ * <p>
+ * Usage: {@code java RosterPublisherBenchmark [creatures] [writers] [readers]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class RosterPublisherBenchmark
+{
+    private static final int    DEFAULT_CREATURES = 100_000;
+    private static final int    DEFAULT_WRITERS   = 16;
+    private static final int    DEFAULT_READERS   = 4;
+    private static final long   RUN_MILLIS        = 3_000;
+    private static final long   PUBLISH_MILLIS    = 1;
+    private static final int    ACTIONS           = 4;
+    private static final int    HEAL_AMOUNT       = 20;
+    private static final int    RESTORE_AMOUNT    = 10;
+    private static final double MILLIS_PER_SECOND = 1_000.0;
+    private static final double NANOS_PER_MILLI   = 1_000_000.0;
+
+    public static void main(final String[] args) throws InterruptedException
+    {
+        final int creatureCount;
+        final int writerCount;
+        final int readerCount;
+        final Creature[] creatures;
+        final RosterPublisher publisher;
+
+        creatureCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CREATURES;
+        writerCount   = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WRITERS;
+        readerCount   = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_READERS;
+        creatures     = new Creature[creatureCount];
+        publisher     = new RosterPublisher();
+
+        for (int i = 0; i < creatureCount; i++)
+        {
+            final Date dateOfBirth;
+
+            dateOfBirth = Date.of(1 + i % 28, 1 + i % 12, 1901 + i % 124);
+
+            switch (i % 3)
+            {
+                case 0:
+                    creatures[i] = new Dragon("Wyrmling", dateOfBirth, 100, 100);
+                    break;
+                case 1:
+                    creatures[i] = new Elf("Archer", dateOfBirth, 100, 50);
+                    break;
+                default:
+                    creatures[i] = new Orc("Grunt", dateOfBirth, 100, 30);
+                    break;
+            }
+
+            publisher.add(creatures[i]);
+        }
+
+        publisher.publish();
+
+        System.out.printf("%d creatures, %d readers%n", creatureCount, readerCount);
+        run("writers idle", creatures, publisher, 0, readerCount);
+        run(writerCount + " writers", creatures, publisher, writerCount, readerCount);
+    }
+
+    private static void run(final String label,
+                            final Creature[] creatures,
+                            final RosterPublisher publisher,
+                            final int writerCount,
+                            final int readerCount) throws InterruptedException
+    {
+        final AtomicBoolean running;
+        final LongAdder rosterReads;
+        final LongAdder writes;
+        final LongAdder publishes;
+        final LongAdder publishNanos;
+        final Thread[] threads;
+        final long versionBefore;
+
+        running       = new AtomicBoolean(true);
+        rosterReads   = new LongAdder();
+        writes        = new LongAdder();
+        publishes     = new LongAdder();
+        publishNanos  = new LongAdder();
+        threads       = new Thread[writerCount + readerCount + 1];
+        versionBefore = publisher.current().getVersion();
+
+        for (int w = 0; w < writerCount; w++)
+        {
+            final int seed;
+
+            seed       = w;
+            threads[w] = new Thread(() -> write(creatures, running, writes, seed));
+        }
+
+        for (int r = 0; r < readerCount; r++)
+        {
+            threads[writerCount + r] = new Thread(() -> read(publisher, running, rosterReads));
+        }
+
+        threads[threads.length - 1] = new Thread(() ->
+        {
+            while (running.get())
+            {
+                final long start;
+
+                start = System.nanoTime();
+                publisher.publish();
+                publishNanos.add(System.nanoTime() - start);
+                publishes.increment();
+
+                try
+                {
+                    Thread.sleep(PUBLISH_MILLIS);
+                }
+                catch (final InterruptedException e)
+                {
+                    return;
+                }
+            }
+        });
+
+        for (final Thread thread : threads)
+        {
+            thread.start();
+        }
+
+        Thread.sleep(RUN_MILLIS);
+        running.set(false);
+
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        System.out.printf("%-12s %8.0f roster reads/s %11.0f snapshots read/s " +
+                          "%9.0f writes/s %5d versions %7.2f ms/publish%n",
+                          label,
+                          rosterReads.sum() * MILLIS_PER_SECOND / RUN_MILLIS,
+                          rosterReads.sum() * (double) creatures.length * MILLIS_PER_SECOND /
+                                  RUN_MILLIS,
+                          writes.sum() * MILLIS_PER_SECOND / RUN_MILLIS,
+                          publisher.current().getVersion() - versionBefore,
+                          publishNanos.sum() / NANOS_PER_MILLI / Math.max(publishes.sum(), 1));
+    }
+
+    private static void write(final Creature[] creatures,
+                              final AtomicBoolean running,
+                              final LongAdder writes,
+                              final int seed)
+    {
+        final SplittableRandom random;
+
+        random = new SplittableRandom(seed);
+
+        while (running.get())
+        {
+            final Creature creature;
+
+            creature = creatures[random.nextInt(creatures.length)];
+
+            switch (random.nextInt(ACTIONS))
+            {
+                case 0:
+                    creature.takeDamage(random.nextInt(HEAL_AMOUNT));
+                    break;
+                case 1:
+                    creature.heal(HEAL_AMOUNT);
+                    break;
+                case 2:
+                    useAbility(creature);
+                    break;
+                default:
+                    restore(creature);
+                    break;
+            }
+
+            writes.increment();
+        }
+    }
+
+    private static void useAbility(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            ((Dragon) creature).tryBreatheFire();
+        }
+        else if (creature instanceof Elf)
+        {
+            ((Elf) creature).tryCastSpell();
+        }
+        else
+        {
+            ((Orc) creature).tryBerserk();
+        }
+    }
+
+    private static void restore(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            ((Dragon) creature).restoreFirePower(RESTORE_AMOUNT);
+        }
+        else if (creature instanceof Elf)
+        {
+            ((Elf) creature).restoreMana(RESTORE_AMOUNT);
+        }
+        else
+        {
+            ((Orc) creature).restoreRage(RESTORE_AMOUNT);
+        }
+    }
+
+    /*
+    A leaderboard reader: totals the roster twice and checks it held still
+     */
+    private static void read(final RosterPublisher publisher,
+                             final AtomicBoolean running,
+                             final LongAdder rosterReads)
+    {
+        long lastVersion;
+
+        lastVersion = 0;
+
+        while (running.get())
+        {
+            final RosterPublisher.Roster roster;
+            final long first;
+            final long second;
+
+            roster = publisher.current();
+
+            if (roster.getVersion() < lastVersion)
+            {
+                fail("roster version went backwards");
+            }
+
+            lastVersion = roster.getVersion();
+            first       = total(roster, true);
+            second      = total(roster, false);
+
+            if (first != second)
+            {
+                fail("roster changed while it was read");
+            }
+
+            rosterReads.increment();
+        }
+    }
+
+    private static long total(final RosterPublisher.Roster roster,
+                              final boolean check)
+    {
+        long total;
+
+        total = 0;
+
+        for (int i = 0; i < roster.size(); i++)
+        {
+            final CreatureSnapshot snapshot;
+
+            snapshot = roster.get(i);
+
+            if (check && (snapshot.health() < Creature.MIN_HEALTH ||
+                          snapshot.health() > Creature.MAX_HEALTH ||
+                          snapshot.resource() < 0))
+            {
+                fail("snapshot out of bounds");
+            }
+
+            total += snapshot.health() * 31L + snapshot.resource();
+        }
+
+        return total;
+    }
+
+    private static void fail(final String message)
+    {
+        System.out.println("FAIL: " + message);
+        System.exit(1);
+    }
+}
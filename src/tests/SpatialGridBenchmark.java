@@ -0,0 +1,159 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * SpatialGridBenchmark times radius and cone attacks through
+ * {@link SpatialGrid} against a scan of every creature, and checks that
+ * both hit the same creatures.
+ * <p>
+ * The default radius takes in about 10,000 creatures per attack.
+ * </p>
+ * <p>
+ * Usage: {@code java SpatialGridBenchmark [creatures]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class SpatialGridBenchmark
+{
+    private static final int    DEFAULT_CREATURES = 1_000_000;
+    private static final double WORLD_SIZE        = 10_000.0;
+    private static final double CELL_SIZE         = 50.0;
+    private static final double RADIUS            = 564.0;
+    private static final double HALF_ANGLE        = Math.PI / 6;
+    private static final int    WARMUP_ATTACKS    = 2_000;
+    private static final int    ATTACKS           = 2_000;
+    private static final int    SCAN_ATTACKS      = 20;
+    private static final double NANOS_PER_MICRO   = 1_000.0;
+    private static final long   SEED              = 42L;
+
+    public static void main(final String[] args)
+    {
+        final int creatureCount;
+        final List<Creature> creatures;
+        final SpatialGrid grid;
+        final List<Creature> found;
+        final SplittableRandom random;
+        final double[] centres;
+
+        long hits;
+        long start;
+        long gridNanos;
+        long coneNanos;
+        long scanNanos;
+
+        creatureCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CREATURES;
+        creatures     = new ArrayList<>(creatureCount);
+        grid          = new SpatialGrid(WORLD_SIZE, WORLD_SIZE, CELL_SIZE);
+        found         = new ArrayList<>();
+        random        = new SplittableRandom(SEED);
+        centres       = new double[ATTACKS + 1];
+
+        for (int i = 0; i < creatureCount; i++)
+        {
+            final Creature creature;
+
+            creature = new Orc("Grunt " + i, Date.of(1 + i % 28, 1 + i % 12, 1901 + i % 124),
+                               100, 10);
+            creature.setPosition(random.nextDouble(WORLD_SIZE), random.nextDouble(WORLD_SIZE));
+            creatures.add(creature);
+            grid.add(creature);
+        }
+
+        for (int i = 0; i < centres.length; i++)
+        {
+            centres[i] = random.nextDouble(RADIUS, WORLD_SIZE - RADIUS);
+        }
+
+        // The grid and a scan must agree before anything is timed
+        for (int attack = 0; attack < SCAN_ATTACKS; attack++)
+        {
+            final double x;
+            final double y;
+
+            x = centres[attack];
+            y = centres[attack + 1];
+            found.clear();
+
+            if (grid.findInRadius(x, y, RADIUS, found) != scanRadius(creatures, x, y, RADIUS))
+            {
+                System.out.println("Grid and scan disagree on radius attack " + attack);
+                System.exit(1);
+            }
+        }
+
+        for (int attack = 0; attack < WARMUP_ATTACKS; attack++)
+        {
+            grid.damageInRadius(centres[attack], centres[attack + 1], RADIUS, 0);
+            grid.damageInCone(centres[attack], centres[attack + 1], 1, 1, HALF_ANGLE, RADIUS, 0);
+        }
+
+        hits  = 0;
+        start = System.nanoTime();
+
+        for (int attack = 0; attack < ATTACKS; attack++)
+        {
+            hits += grid.damageInRadius(centres[attack], centres[attack + 1], RADIUS, 0);
+        }
+
+        gridNanos = System.nanoTime() - start;
+        start     = System.nanoTime();
+
+        for (int attack = 0; attack < ATTACKS; attack++)
+        {
+            grid.damageInCone(centres[attack], centres[attack + 1], 1, 1, HALF_ANGLE, RADIUS, 0);
+        }
+
+        coneNanos = System.nanoTime() - start;
+        start     = System.nanoTime();
+
+        for (int attack = 0; attack < SCAN_ATTACKS; attack++)
+        {
+            scanRadius(creatures, centres[attack], centres[attack + 1], RADIUS);
+        }
+
+        scanNanos = System.nanoTime() - start;
+
+        System.out.printf("%d creatures, %.0f creatures hit per radius attack%n",
+                          creatureCount, (double) hits / ATTACKS);
+        System.out.printf("grid radius query + damage: %8.1f us%n",
+                          gridNanos / NANOS_PER_MICRO / ATTACKS);
+        System.out.printf("grid cone query + damage:   %8.1f us%n",
+                          coneNanos / NANOS_PER_MICRO / ATTACKS);
+        System.out.printf("scan radius query + damage: %8.1f us%n",
+                          scanNanos / NANOS_PER_MICRO / SCAN_ATTACKS);
+    }
+
+    /*
+    Hits every creature in range by checking each one, as callers did
+    before the grid
+     */
+    private static int scanRadius(final List<Creature> creatures,
+                                  final double x,
+                                  final double y,
+                                  final double radius)
+    {
+        int hits;
+
+        hits = 0;
+
+        for (final Creature creature : creatures)
+        {
+            final double dx;
+            final double dy;
+
+            dx = creature.getX() - x;
+            dy = creature.getY() - y;
+
+            if (dx * dx + dy * dy <= radius * radius)
+            {
+                creature.takeDamage(0);
+                hits++;
+            }
+        }
+
+        return hits;
+    }
+}
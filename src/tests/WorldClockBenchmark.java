@@ -0,0 +1,129 @@
+/**
+ * WorldClockBenchmark times an age-range scan over a large population
+ * right after the {@link WorldClock} advances, when every creature
+ * computes its age again, and on later scans that use the cached ages. It
+ * also checks the ages against their dates of birth.
+ * <p>
+ * Usage: {@code java WorldClockBenchmark [creatures]}
+ * </p>
+ *
+ * @author David Martinez, Daniel Do
+ * @version 1.0
+ */
+public class WorldClockBenchmark
+{
+    private static final int    DEFAULT_CREATURES = 2_000_000;
+    private static final int    YEARS             = 5;
+    private static final int    CACHED_SCANS      = 5;
+    private static final int    MIN_AGE           = 30;
+    private static final int    MAX_AGE           = 39;
+    private static final double NANOS_PER_MILLI   = 1_000_000.0;
+
+    public static void main(final String[] args)
+    {
+        final int creatureCount;
+        final Creature[] creatures;
+
+        long advanceNanos;
+        long firstScanNanos;
+        long cachedScanNanos;
+
+        creatureCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CREATURES;
+        creatures     = new Creature[creatureCount];
+
+        for (int i = 0; i < creatureCount; i++)
+        {
+            final Date dateOfBirth;
+
+            dateOfBirth = Date.of(1 + i % 28, 1 + i % 12, 1901 + i % 124);
+
+            switch (i % 3)
+            {
+                case 0:
+                    creatures[i] = new Dragon("Wyrmling", dateOfBirth, 100, 100);
+                    break;
+                case 1:
+                    creatures[i] = new Elf("Archer", dateOfBirth, 100, 50);
+                    break;
+                default:
+                    creatures[i] = new Orc("Grunt", dateOfBirth, 100, 30);
+                    break;
+            }
+        }
+
+        advanceNanos    = 0;
+        firstScanNanos  = 0;
+        cachedScanNanos = 0;
+
+        for (int year = 0; year < YEARS; year++)
+        {
+            final long advanceStart;
+            final long firstStart;
+            final long cachedStart;
+            final int found;
+
+            advanceStart = System.nanoTime();
+            WorldClock.advanceYear();
+            firstStart   = System.nanoTime();
+            found        = countInRange(creatures);
+            cachedStart  = System.nanoTime();
+
+            for (int scan = 0; scan < CACHED_SCANS; scan++)
+            {
+                if (countInRange(creatures) != found)
+                {
+                    System.out.println("FAIL: cached scan found a different count");
+                    System.exit(1);
+                }
+            }
+
+            cachedScanNanos += System.nanoTime() - cachedStart;
+            firstScanNanos  += cachedStart - firstStart;
+            advanceNanos    += firstStart - advanceStart;
+
+            checkAges(creatures);
+        }
+
+        System.out.printf("%d creatures, %d years%n", creatureCount, YEARS);
+        System.out.printf("WorldClock.advanceYear:     %10.4f ms%n",
+                          advanceNanos / NANOS_PER_MILLI / YEARS);
+        System.out.printf("first scan after advancing: %10.2f ms%n",
+                          firstScanNanos / NANOS_PER_MILLI / YEARS);
+        System.out.printf("scan with cached ages:      %10.2f ms%n",
+                          cachedScanNanos / NANOS_PER_MILLI / YEARS / CACHED_SCANS);
+    }
+
+    private static int countInRange(final Creature[] creatures)
+    {
+        int found;
+
+        found = 0;
+
+        for (final Creature creature : creatures)
+        {
+            final int age;
+
+            age = creature.getAgeYears();
+
+            if (age >= MIN_AGE && age <= MAX_AGE)
+            {
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    private static void checkAges(final Creature[] creatures)
+    {
+        for (final Creature creature : creatures)
+        {
+            if (creature.getAgeYears() !=
+                WorldClock.getYear() - creature.getDateOfBirth().getYear())
+            {
+                System.out.println("FAIL: stale age for " + creature.getName());
+                System.exit(1);
+            }
+        }
+    }
+}